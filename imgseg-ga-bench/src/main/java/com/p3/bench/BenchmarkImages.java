@@ -0,0 +1,35 @@
+package com.p3.bench;
+
+import java.io.File;
+
+import com.p3.Image;
+
+/**
+ * Loads the training images used as benchmark inputs. The images are read from the directory given by the
+ * system property imgseg.images, by default training_images in the working directory, i.e. the benchmarks
+ * are meant to be run from the root of the repository.
+ */
+public class BenchmarkImages {
+
+    public static final String IMAGE_DIRECTORY_PROPERTY = "imgseg.images";
+
+    // Private constructor to prevent instantiation
+    private BenchmarkImages() {
+        throw new UnsupportedOperationException("BenchmarkImages is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Loads the test image of the training image with the given name.
+     *
+     * @param imageName The name of the training image, e.g. 86016.
+     * @return The loaded image.
+     */
+    public static Image load(String imageName) {
+        String directory = System.getProperty(IMAGE_DIRECTORY_PROPERTY, "training_images");
+        File file = new File(directory, imageName + File.separator + "Test image.jpg");
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("Training image not found: " + file.getAbsolutePath());
+        }
+        return new Image(file.getPath());
+    }
+}
@@ -0,0 +1,61 @@
+package com.p3.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.p3.Individual;
+import com.p3.MSTCutStrategy;
+import com.p3.MinimumSpanningTree;
+import com.p3.ObjectiveEvaluator;
+import com.p3.RunContext;
+
+/**
+ * Creates the individuals used as benchmark inputs, as the initial population of a run creates them, but
+ * seeded, so every benchmark run gets the same individuals.
+ */
+public class BenchmarkPopulations {
+
+    public static final int SEGMENTS_LOWER_BOUND = 4;
+    public static final int SEGMENTS_UPPER_BOUND = 41;
+
+    // Private constructor to prevent instantiation
+    private BenchmarkPopulations() {
+        throw new UnsupportedOperationException("BenchmarkPopulations is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Creates an individual with the given number of segments, cut at random from the minimum spanning
+     * tree of the image of the run.
+     *
+     * @param context The run context the individual belongs to.
+     * @param numSegments The number of segments.
+     * @param random The random number generator.
+     * @return The evaluated individual.
+     */
+    public static Individual createIndividual(RunContext context, int numSegments, Random random) {
+        MinimumSpanningTree tree = context.getImage().getMinimumSpanningTree();
+        Individual individual = new Individual(context, tree.cut(numSegments, MSTCutStrategy.RANDOM, random));
+        ObjectiveEvaluator.evaluate(individual);
+        return individual;
+    }
+
+    /**
+     * Creates the individuals of a population, with segment counts spread between SEGMENTS_LOWER_BOUND
+     * and SEGMENTS_UPPER_BOUND.
+     *
+     * @param context The run context the individuals belong to.
+     * @param populationSize The number of individuals.
+     * @param seed The seed of the random number generator.
+     * @return The evaluated individuals.
+     */
+    public static List<Individual> createPopulation(RunContext context, int populationSize, long seed) {
+        Random random = new Random(seed);
+        List<Individual> individuals = new ArrayList<>();
+        for (int i = 0; i < populationSize; i++) {
+            int numSegments = SEGMENTS_LOWER_BOUND + i % (SEGMENTS_UPPER_BOUND - SEGMENTS_LOWER_BOUND + 1);
+            individuals.add(createIndividual(context, numSegments, random));
+        }
+        return individuals;
+    }
+}
@@ -0,0 +1,55 @@
+package com.p3.bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that every benchmark also reports its allocation rate
+ * (gc.alloc.rate.norm, in bytes per operation). Takes the usual JMH command line options, e.g. a benchmark
+ * name and -p imageName=86016. This is the main class of target/benchmarks.jar.
+ */
+public class BenchmarkRunner {
+
+    // Private constructor to prevent instantiation
+    private BenchmarkRunner() {
+        throw new UnsupportedOperationException("BenchmarkRunner is a utility class and should not be instantiated.");
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListProfilers()
+            || commandLineOptions.shouldListResultFormats() || commandLineOptions.shouldListWithParams()) {
+            // Listing and help are handled by the JMH launcher
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!hasGCProfiler(commandLineOptions)) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * Returns whether the GC profiler is already given on the command line, e.g. with its own options.
+     *
+     * @param options The command line options.
+     * @return True if the GC profiler is given.
+     */
+    private static boolean hasGCProfiler(CommandLineOptions options) {
+        for (ProfilerConfig profiler : options.getProfilers()) {
+            if (profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
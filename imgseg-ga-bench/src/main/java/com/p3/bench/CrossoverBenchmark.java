@@ -0,0 +1,86 @@
+package com.p3.bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.p3.Individual;
+import com.p3.OnePointCrosser;
+import com.p3.Parameters;
+import com.p3.RunContext;
+import com.p3.TwoPointCrosser;
+import com.p3.interfaces.CrossoverHandler;
+
+/**
+ * Measures each CrossoverHandler creating the children of one generation, i.e. crossing populationSize / 2
+ * random pairs of parents, including building the segmentations of the children, on every training image
+ * and for several population sizes.
+ *
+ * Run from the root of the repository, e.g.:
+ * java -jar imgseg-ga-bench/target/benchmarks.jar CrossoverBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrossoverBenchmark {
+
+    @Param({"86016", "118035", "147091", "176035", "176039", "353013"})
+    public String imageName;
+
+    @Param({"50", "100"})
+    public int populationSize;
+
+    @Param({"OnePointCrosser", "TwoPointCrosser"})
+    public String crossoverHandler;
+
+    private CrossoverHandler handler;
+    private List<Individual> individuals;
+    private int[] parents;
+
+    @Setup
+    public void setUp() {
+        handler = createHandler(crossoverHandler);
+        Parameters parameters = new Parameters();
+        parameters.image = BenchmarkImages.load(imageName);
+        individuals = BenchmarkPopulations.createPopulation(new RunContext(parameters), populationSize, 42);
+        Random random = new Random(42);
+        parents = new int[populationSize / 2 * 2];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = random.nextInt(populationSize);
+        }
+    }
+
+    @Benchmark
+    public void crossGeneration(Blackhole blackhole) {
+        for (int i = 0; i < parents.length; i += 2) {
+            blackhole.consume(handler.cross(individuals.get(parents[i]), individuals.get(parents[i + 1])));
+        }
+    }
+
+    private static CrossoverHandler createHandler(String name) {
+        switch (name) {
+            case "OnePointCrosser":
+                return new OnePointCrosser();
+            case "TwoPointCrosser":
+                return new TwoPointCrosser();
+            default:
+                throw new IllegalArgumentException("Unknown crossover handler: " + name);
+        }
+    }
+}
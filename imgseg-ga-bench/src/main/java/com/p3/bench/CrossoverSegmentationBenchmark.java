@@ -0,0 +1,103 @@
+package com.p3.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.p3.Genome;
+import com.p3.Individual;
+import com.p3.Parameters;
+import com.p3.RunContext;
+
+/**
+ * Compares two ways of building the segmentation of a crossover child: decoding the child genome from
+ * scratch (new Individual(context, genome)), and reusing the strip summaries of the parents (Individual.fromRanges).
+ *
+ * The children are made by one-point or two-point crossover of two MST individuals. The child genomes
+ * are prepared in the setup, so only the construction of the child individuals is measured.
+ *
+ * Run from the root of the repository, e.g.:
+ * java -jar imgseg-ga-bench/target/benchmarks.jar CrossoverSegmentationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrossoverSegmentationBenchmark {
+
+    private static final int CHILDREN = 64;
+
+    @Param({"86016", "118035", "147091", "176035", "176039", "353013"})
+    public String imageName;
+
+    @Param({"1", "2"})
+    public int crossoverPoints;
+
+    private RunContext context;
+    private Genome[] genomes;
+    private int[][] boundaries;
+    private Individual[][] sources;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Parameters parameters = new Parameters();
+        parameters.image = BenchmarkImages.load(imageName);
+        context = new RunContext(parameters);
+        Random random = new Random(42);
+        Individual parent1 = new Individual(context, 10);
+        Individual parent2 = new Individual(context, 10);
+        int length = parent1.getGenome().length();
+
+        genomes = new Genome[CHILDREN];
+        boundaries = new int[CHILDREN][];
+        sources = new Individual[CHILDREN][];
+        for (int c = 0; c < CHILDREN; c++) {
+            if (crossoverPoints == 1) {
+                boundaries[c] = new int[] {0, random.nextInt(length), length};
+                sources[c] = new Individual[] {parent1, parent2};
+            } else {
+                int from = random.nextInt(length);
+                int to = from + random.nextInt(length - from + 1);
+                boundaries[c] = new int[] {0, from, to, length};
+                sources[c] = new Individual[] {parent1, parent2, parent1};
+            }
+
+            Genome genome = new Genome(length);
+            for (int k = 0; k < sources[c].length; k++) {
+                genome.copyRange(sources[c][k].getGenome(), boundaries[c][k], boundaries[c][k + 1]);
+            }
+            genomes[c] = genome;
+        }
+    }
+
+    @Benchmark
+    public Individual fullDecoding() {
+        int c = nextChild();
+        return new Individual(context, genomes[c]);
+    }
+
+    @Benchmark
+    public Individual stripReuse() {
+        int c = nextChild();
+        return Individual.fromRanges(genomes[c], boundaries[c], sources[c]);
+    }
+
+    private int nextChild() {
+        next = (next + 1) % CHILDREN;
+        return next;
+    }
+}
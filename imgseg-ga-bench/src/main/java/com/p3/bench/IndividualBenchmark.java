@@ -0,0 +1,76 @@
+package com.p3.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.p3.Genome;
+import com.p3.Individual;
+import com.p3.Parameters;
+import com.p3.RunContext;
+
+/**
+ * Measures the creation of individuals: growing a minimum spanning forest from random pixels
+ * (new Individual(context, numTrees)), and decoding a genome into segments (setGenome, which calls
+ * setSegments), on every training image and for few and many segments.
+ *
+ * Run from the root of the repository, e.g.:
+ * java -jar imgseg-ga-bench/target/benchmarks.jar IndividualBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndividualBenchmark {
+
+    private static final int GENOMES = 16;
+
+    @Param({"86016", "118035", "147091", "176035", "176039", "353013"})
+    public String imageName;
+
+    @Param({"4", "41"})
+    public int numTrees;
+
+    private RunContext context;
+    private Individual individual;
+    private Genome[] genomes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Parameters parameters = new Parameters();
+        parameters.image = BenchmarkImages.load(imageName);
+        context = new RunContext(parameters);
+        Random random = new Random(42);
+        genomes = new Genome[GENOMES];
+        for (int i = 0; i < GENOMES; i++) {
+            genomes[i] = BenchmarkPopulations.createIndividual(context, numTrees, random).getGenome();
+        }
+        individual = new Individual(context, genomes[0]);
+    }
+
+    @Benchmark
+    public Individual mstInitialization() {
+        return new Individual(context, numTrees);
+    }
+
+    @Benchmark
+    public Individual setSegments() {
+        next = (next + 1) % GENOMES;
+        individual.setGenome(genomes[next]);
+        return individual;
+    }
+}
@@ -0,0 +1,96 @@
+package com.p3.bench;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import com.p3.Edge;
+import com.p3.Genome;
+import com.p3.NeighborWeights;
+
+/**
+ * The implementation of Prim's algorithm that PrimMST replaced, kept as a baseline for PrimBenchmark.
+ * It keeps candidate edges as Edge objects in a PriorityQueue with lazy deletion, and the visited pixels
+ * in a HashSet.
+ */
+public class LegacyPrimMST {
+
+    // Private constructor to prevent instantiation
+    private LegacyPrimMST() {
+        throw new UnsupportedOperationException("LegacyPrimMST is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Grows a minimum spanning forest from the given seed pixels and returns the parent of every pixel.
+     *
+     * @param neighborWeights The neighbor weight table of the image.
+     * @param seeds The seed pixels, one per tree. Repeated seeds give a single tree.
+     * @return The parent of every pixel in the forest, or -1 for the seeds (and for all pixels if there are no seeds).
+     */
+    public static int[] getParents(NeighborWeights neighborWeights, int[] seeds) {
+        int pixelCount = neighborWeights.getImageHeight() * neighborWeights.getImageWidth();
+        int[] parents = new int[pixelCount];
+        Arrays.fill(parents, -1);
+
+        Set<Integer> visitedIndexes = new HashSet<>();
+        PriorityQueue<Edge> queue = new PriorityQueue<>();
+
+        for (int seed : seeds) {
+            visitedIndexes.add(seed);
+            addEdgesToQueue(queue, seed, neighborWeights, visitedIndexes);
+        }
+
+        while (visitedIndexes.size() < pixelCount) {
+            Edge minEdge = queue.poll();
+            while (minEdge != null && visitedIndexes.contains(minEdge.getTo())) {
+                minEdge = queue.poll();
+            }
+            if (minEdge == null) {
+                break;
+            }
+
+            int minPixelIndex = minEdge.getTo();
+            parents[minPixelIndex] = minEdge.getFrom();
+            visitedIndexes.add(minPixelIndex);
+            addEdgesToQueue(queue, minPixelIndex, neighborWeights, visitedIndexes);
+        }
+        return parents;
+    }
+
+    /**
+     * Encodes a spanning forest in a genome, where the gene of every pixel points to its parent
+     * and the seeds have no edge.
+     *
+     * @param neighborWeights The neighbor weight table of the image.
+     * @param parents The parent of every pixel, or -1 for the seeds.
+     * @return The genome encoding the forest.
+     */
+    public static Genome toGenome(NeighborWeights neighborWeights, int[] parents) {
+        Genome genome = new Genome(parents.length);
+        for (int i = 0; i < parents.length; i++) {
+            if (parents[i] != -1) {
+                genome.set(i, neighborWeights.getDirection(i, parents[i]));
+            }
+        }
+        return genome;
+    }
+
+    /**
+     * Adds the edges of a given node to a priority queue, if the destination node has not been visited.
+     *
+     * @param queue           The priority queue to add the edges to.
+     * @param node            The node whose edges are to be added to the queue.
+     * @param neighborWeights The neighbor weight table of the image.
+     * @param visited         The set of visited nodes.
+     */
+    private static void addEdgesToQueue(PriorityQueue<Edge> queue, int node, NeighborWeights neighborWeights, Set<Integer> visited) {
+        int paddedIndex = neighborWeights.toPadded(node);
+        for (int direction = 1; direction <= NeighborWeights.DIRECTIONS; direction++) {
+            int neighbor = neighborWeights.toPixel(paddedIndex + neighborWeights.getOffset(direction));
+            if (neighbor != -1 && !visited.contains(neighbor)) {
+                queue.add(new Edge(node, neighbor, neighborWeights.getWeight(paddedIndex, direction)));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.p3.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.p3.CreepMutation;
+import com.p3.Individual;
+import com.p3.Parameters;
+import com.p3.RandomResettingMutation;
+import com.p3.RunContext;
+import com.p3.StudassMutator;
+import com.p3.interfaces.MutationHandler;
+
+/**
+ * Measures each MutationHandler mutating the children of one generation, i.e. every individual of a
+ * population, including updating their segmentations, on every training image and for several population
+ * sizes. The mutation probability gives one changed gene per mutation on average for every handler, i.e.
+ * it is a probability per genome for StudassMutator and per gene for the others. The mutated individuals
+ * are reset to copies of the original population before every iteration.
+ *
+ * Run from the root of the repository, e.g.:
+ * java -jar imgseg-ga-bench/target/benchmarks.jar MutationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MutationBenchmark {
+
+    @Param({"86016", "118035", "147091", "176035", "176039", "353013"})
+    public String imageName;
+
+    @Param({"50", "100"})
+    public int populationSize;
+
+    @Param({"StudassMutator", "CreepMutation", "RandomResettingMutation"})
+    public String mutationHandler;
+
+    private MutationHandler handler;
+    private List<Individual> population;
+    private List<Individual> individuals;
+
+    @Setup
+    public void setUp() {
+        handler = createHandler(mutationHandler);
+        Parameters parameters = new Parameters();
+        parameters.image = BenchmarkImages.load(imageName);
+        parameters.mutationProbability = handler instanceof StudassMutator ? 1 : 1.0 / parameters.image.getPixelCount();
+        parameters.mutationStepSize = 7;
+        population = BenchmarkPopulations.createPopulation(new RunContext(parameters), populationSize, 42);
+    }
+
+    @Setup(Level.Iteration)
+    public void copyPopulation() {
+        individuals = new ArrayList<>();
+        for (Individual individual : population) {
+            individuals.add(individual.copy());
+        }
+    }
+
+    @Benchmark
+    public List<Individual> mutateGeneration() {
+        for (Individual individual : individuals) {
+            handler.mutate(individual);
+        }
+        return individuals;
+    }
+
+    private static MutationHandler createHandler(String name) {
+        switch (name) {
+            case "StudassMutator":
+                return new StudassMutator();
+            case "CreepMutation":
+                return new CreepMutation();
+            case "RandomResettingMutation":
+                return new RandomResettingMutation();
+            default:
+                throw new IllegalArgumentException("Unknown mutation handler: " + name);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.p3.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.p3.Individual;
+import com.p3.ObjectiveEvaluator;
+import com.p3.ObjectiveFunctions;
+import com.p3.Parameters;
+import com.p3.RunContext;
+
+/**
+ * Measures each objective function of ObjectiveFunctions on its own, and ObjectiveEvaluator, which computes
+ * all three objectives in one pass, on every training image and for few and many segments.
+ *
+ * Run from the root of the repository, e.g.:
+ * java -jar imgseg-ga-bench/target/benchmarks.jar ObjectiveBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectiveBenchmark {
+
+    @Param({"86016", "118035", "147091", "176035", "176039", "353013"})
+    public String imageName;
+
+    @Param({"4", "41"})
+    public int numSegments;
+
+    private Individual individual;
+
+    @Setup
+    public void setUp() {
+        Parameters parameters = new Parameters();
+        parameters.image = BenchmarkImages.load(imageName);
+        individual = BenchmarkPopulations.createIndividual(new RunContext(parameters), numSegments, new Random(42));
+    }
+
+    @Benchmark
+    public double edgeValue() {
+        return ObjectiveFunctions.edgeValue(individual);
+    }
+
+    @Benchmark
+    public double connectivityMeasure() {
+        return ObjectiveFunctions.connectivityMeasure(individual);
+    }
+
+    @Benchmark
+    public double overallDeviation() {
+        return ObjectiveFunctions.overallDeviation(individual);
+    }
+
+    @Benchmark
+    public double allObjectives() {
+        ObjectiveEvaluator.evaluate(individual);
+        return individual.getEdgeValue();
+    }
+}
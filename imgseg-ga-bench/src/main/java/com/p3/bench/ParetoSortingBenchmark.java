@@ -0,0 +1,64 @@
+package com.p3.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.p3.Individual;
+import com.p3.ObjectiveFunctions;
+import com.p3.Parameters;
+import com.p3.RunContext;
+
+/**
+ * Measures the non-dominated sorting of a population into Pareto fronts and the crowding distances of a
+ * population, on every training image and for several population sizes. The objective values of the
+ * individuals are computed in the setup, so only the sorting is measured.
+ *
+ * Run from the root of the repository, e.g.:
+ * java -jar imgseg-ga-bench/target/benchmarks.jar ParetoSortingBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParetoSortingBenchmark {
+
+    @Param({"86016", "118035", "147091", "176035", "176039", "353013"})
+    public String imageName;
+
+    @Param({"50", "100", "200"})
+    public int populationSize;
+
+    private List<Individual> individuals;
+
+    @Setup
+    public void setUp() {
+        Parameters parameters = new Parameters();
+        parameters.image = BenchmarkImages.load(imageName);
+        individuals = BenchmarkPopulations.createPopulation(new RunContext(parameters), populationSize, 42);
+    }
+
+    @Benchmark
+    public List<List<Individual>> getParetoFronts() {
+        return ObjectiveFunctions.getParetoFronts(individuals);
+    }
+
+    @Benchmark
+    public Map<Individual, Double> getCrowdingDistances() {
+        return ObjectiveFunctions.getCrowdingDistances(individuals);
+    }
+}
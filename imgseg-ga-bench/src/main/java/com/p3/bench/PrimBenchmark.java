@@ -0,0 +1,66 @@
+package com.p3.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.p3.Genome;
+import com.p3.NeighborWeights;
+import com.p3.PrimMST;
+
+/**
+ * Compares PrimMST, which uses an indexed 4-ary heap and a bitset, with the PriorityQueue and HashSet
+ * implementation it replaced (LegacyPrimMST), on every training image and for one and several seeds.
+ *
+ * Run from the root of the repository, e.g.:
+ * java -jar imgseg-ga-bench/target/benchmarks.jar PrimBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrimBenchmark {
+
+    @Param({"86016", "118035", "147091", "176035", "176039", "353013"})
+    public String imageName;
+
+    @Param({"1", "10"})
+    public int numTrees;
+
+    private NeighborWeights neighborWeights;
+    private int[] seeds;
+
+    @Setup
+    public void setUp() {
+        neighborWeights = BenchmarkImages.load(imageName).getNeighborWeights();
+        Random random = new Random(42);
+        int pixelCount = neighborWeights.getImageHeight() * neighborWeights.getImageWidth();
+        seeds = new int[numTrees];
+        for (int i = 0; i < numTrees; i++) {
+            seeds[i] = random.nextInt(pixelCount);
+        }
+    }
+
+    @Benchmark
+    public Genome legacy() {
+        return LegacyPrimMST.toGenome(neighborWeights, LegacyPrimMST.getParents(neighborWeights, seeds));
+    }
+
+    @Benchmark
+    public Genome indexedHeap() {
+        return PrimMST.build(neighborWeights, seeds);
+    }
+}
@@ -0,0 +1,251 @@
+package com.p3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A checkpoint of a run, i.e. its evaluated population after a generation, so that a long run can be resumed
+ * after a crash instead of started over.
+ *
+ * A checkpoint is a binary file holding the algorithm, the number of completed generations, the parameters
+ * of the run, the pixels of the image and the individuals of the population. The genomes are packed as by
+ * GenomeCodec, and every individual is stored with its objective values, so the population is not evaluated
+ * again when the run is resumed. The operators draw their random numbers from ThreadLocalRandom, which has no
+ * state that can be stored, so a resumed run continues with new random numbers.
+ *
+ * A checkpoint is written to a temporary file, which then replaces the previous checkpoint by an atomic move,
+ * so a crash while writing leaves the previous checkpoint intact. It is read through a memory mapping of the
+ * file.
+ */
+public final class Checkpoint {
+
+    // Marks the start of a checkpoint ("ISCP")
+    private static final int MAGIC = 0x49534350;
+    private static final int VERSION = 1;
+
+    private final String algorithm;
+    private final int generation;
+    private final Population population;
+
+    private Checkpoint(String algorithm, int generation, Population population) {
+        this.algorithm = algorithm;
+        this.generation = generation;
+        this.population = population;
+    }
+
+    /**
+     * Writes a checkpoint of a run if the checkpoint interval of the run is due after the given generation.
+     *
+     * @param algorithm The name of the algorithm of the run.
+     * @param generation The number of completed generations.
+     * @param population The evaluated population after the generation.
+     */
+    public static void writeIfDue(String algorithm, int generation, Population population) {
+        Parameters parameters = population.getContext().getParameters();
+        if (parameters.checkpointInterval > 0 && generation % parameters.checkpointInterval == 0) {
+            Path file = getFile(population.getContext(), algorithm);
+            write(file, algorithm, generation, population);
+            System.out.println("Gen " + generation + " - Checkpoint written to " + file);
+        }
+    }
+
+    /**
+     * Returns the checkpoint file of a run, i.e. the checkpoint file of the parameters if it is set,
+     * and otherwise a file named after the image and the algorithm in the checkpoints directory.
+     *
+     * @param context The run context.
+     * @param algorithm The name of the algorithm of the run.
+     * @return The checkpoint file of the run.
+     */
+    public static Path getFile(RunContext context, String algorithm) {
+        Parameters parameters = context.getParameters();
+        if (parameters.checkpointFile != null) {
+            return Paths.get(parameters.checkpointFile);
+        }
+        return Paths.get("checkpoints", parameters.imageName + "-" + algorithm + ".checkpoint");
+    }
+
+    /**
+     * Writes a checkpoint of a run, replacing an earlier checkpoint in the same file.
+     *
+     * @param file The checkpoint file.
+     * @param algorithm The name of the algorithm of the run.
+     * @param generation The number of completed generations.
+     * @param population The evaluated population after the generation.
+     * @throws UncheckedIOException If the checkpoint cannot be written.
+     */
+    public static void write(Path file, String algorithm, int generation, Population population) {
+        RunContext context = population.getContext();
+        Image image = context.getImage();
+        int[] pixels = image.getPixels();
+        List<Individual> individuals = population.getIndividuals();
+        byte[] algorithmBytes = algorithm.getBytes(StandardCharsets.UTF_8);
+        byte[] parameterBytes = getParameterBytes(context.getParameters());
+        int packedLength = GenomeCodec.getPackedLength(pixels.length);
+
+        int size = 3 * Integer.BYTES + algorithmBytes.length + 2 * Integer.BYTES + parameterBytes.length
+            + 2 * Integer.BYTES + pixels.length * Integer.BYTES
+            + Integer.BYTES + individuals.size() * (packedLength + 3 * Double.BYTES);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(algorithmBytes.length);
+        buffer.put(algorithmBytes);
+        buffer.putInt(generation);
+        buffer.putInt(parameterBytes.length);
+        buffer.put(parameterBytes);
+        buffer.putInt(image.getImageHeight());
+        buffer.putInt(image.getImageWith());
+        buffer.asIntBuffer().put(pixels);
+        buffer.position(buffer.position() + pixels.length * Integer.BYTES);
+        buffer.putInt(individuals.size());
+        for (Individual individual : individuals) {
+            GenomeCodec.pack(individual.getGenome(), buffer);
+            buffer.putDouble(individual.getEdgeValue());
+            buffer.putDouble(individual.getConnectivityMeasure());
+            buffer.putDouble(individual.getOverallDeviation());
+        }
+        buffer.flip();
+
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = directory.resolve(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Reads a checkpoint. The population of the checkpoint belongs to a new run context with the parameters
+     * and the image of the checkpoint, and its individuals have the stored objective values.
+     *
+     * @param file The checkpoint file.
+     * @return The checkpoint.
+     * @throws UncheckedIOException If the checkpoint cannot be read.
+     * @throws IllegalArgumentException If the file is not a checkpoint.
+     */
+    public static Checkpoint read(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException(file + " is not a checkpoint");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported checkpoint version " + version + " in " + file);
+            }
+            String algorithm = new String(getBytes(buffer, buffer.getInt()), StandardCharsets.UTF_8);
+            int generation = buffer.getInt();
+            Properties properties = new Properties();
+            properties.load(new ByteArrayInputStream(getBytes(buffer, buffer.getInt())));
+            Parameters parameters = Parameters.fromProperties(properties);
+
+            int imageHeight = buffer.getInt();
+            int imageWidth = buffer.getInt();
+            int[] pixels = new int[imageHeight * imageWidth];
+            buffer.asIntBuffer().get(pixels);
+            buffer.position(buffer.position() + pixels.length * Integer.BYTES);
+            parameters.image = new Image(pixels, imageHeight, imageWidth);
+            RunContext context = new RunContext(parameters);
+
+            int count = buffer.getInt();
+            List<Individual> individuals = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Individual individual = new Individual(context, GenomeCodec.unpack(buffer, pixels.length));
+                individual.setObjectiveValues(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+                individuals.add(individual);
+            }
+            return new Checkpoint(algorithm, generation, new Population(context, individuals));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Returns the name of the algorithm of the run.
+     *
+     * @return The name of the algorithm.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the number of generations the run had completed.
+     *
+     * @return The number of completed generations.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the evaluated population of the run after the completed generations.
+     *
+     * @return The population.
+     */
+    public Population getPopulation() {
+        return population;
+    }
+
+    /**
+     * Returns the run context of the population, with the parameters and the image of the run.
+     *
+     * @return The run context.
+     */
+    public RunContext getContext() {
+        return population.getContext();
+    }
+
+    /**
+     * Returns the parameters of a run in the properties format.
+     *
+     * @param parameters The parameters.
+     * @return The parameters as bytes.
+     */
+    private static byte[] getParameterBytes(Parameters parameters) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            parameters.toProperties().store(out, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads the given number of bytes from a buffer.
+     *
+     * @param buffer The buffer.
+     * @param length The number of bytes.
+     * @return The bytes.
+     */
+    private static byte[] getBytes(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
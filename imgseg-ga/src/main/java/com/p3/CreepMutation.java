@@ -2,40 +2,43 @@ package com.p3;
 
 import com.p3.interfaces.MutationHandler;
 
-import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class CreepMutation implements MutationHandler {
     
     /**
-     * Mutates an individual.
+     * Mutates a genome.
      * 
-     * @param child The individual to mutate.
-     * @return void
+     * @param context The run context, which gives the mutation probability and step size.
+     * @param genome The genome to mutate.
+     * @return True if any gene was mutated, false otherwise.
      */
     @Override
-    public void mutate(Individual child) {
-        Random random = new Random();
-        List<Integer> chromosome = child.getChromosome();
-        int length = chromosome.size();
+    public boolean mutate(RunContext context, Genome genome) {
+        Parameters parameters = context.getParameters();
+        Random random = ThreadLocalRandom.current();
+        int length = genome.length();
+        boolean isMutated = false;
         for (int i = 0; i < length; i++) {
-            if (random.nextDouble() < Parameters.MUTATION_PROBABILITY) {
-                int currentValue = chromosome.get(i);
+            if (random.nextDouble() < parameters.mutationProbability) {
+                int currentValue = genome.get(i);
 
                 // Generate a random number from a triangular distribution
                 double u = random.nextDouble();
                 double tempMutationValue = (u < 0.5) ? Math.sqrt(u) : -Math.sqrt(1 - u);
-                int mutationValue = (int) (tempMutationValue * Parameters.MUTATION_STEP_SIZE);
+                int mutationValue = (int) (tempMutationValue * parameters.mutationStepSize);
 
                 int newValue = currentValue + mutationValue;
 
                 // Ensure the new value is within the valid range [0, 8]
                 newValue = Math.max(0, Math.min(8, newValue));
 
-                chromosome.set(i, newValue);
+                genome.set(i, newValue);
+                isMutated = true;
             }
         }
-        child.setChromosome(chromosome);
+        return isMutated;
     }
 }
 
@@ -0,0 +1,102 @@
+package com.p3;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.p3.interfaces.MigrationTransport;
+
+/**
+ * Migration between island processes through a shared directory, e.g. on a shared or local file system.
+ *
+ * Every island has an inbox directory. Migrants are encoded by GenomeCodec and written as one file to the inbox
+ * of the receiving island. The file is first written under a temporary name and then renamed, so the receiving
+ * island never reads a partly written file. The receiving island reads and deletes the files in its inbox.
+ */
+public class DirectoryMigrationTransport implements MigrationTransport {
+
+    private static final String MIGRANTS_SUFFIX = ".migrants";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final int island;
+    private final Path directory;
+    private long sequence;
+
+    /**
+     * Creates the transport of an island.
+     *
+     * @param island The index of the island.
+     * @param directory The directory shared by all islands.
+     * @throws UncheckedIOException If the inbox of the island cannot be created.
+     */
+    public DirectoryMigrationTransport(int island, Path directory) {
+        this.island = island;
+        this.directory = directory;
+        try {
+            Files.createDirectories(getInbox(island));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the migration inbox of island " + island, e);
+        }
+    }
+
+    @Override
+    public void send(int island, List<Individual> migrants) {
+        byte[] message = GenomeCodec.encodeIndividuals(migrants);
+        // Names sort by sending island and then in sending order
+        String name = String.format("%05d-%012d", this.island, sequence++);
+        try {
+            Path inbox = getInbox(island);
+            Files.createDirectories(inbox);
+            Path temporary = inbox.resolve(name + TEMPORARY_SUFFIX);
+            Files.write(temporary, message);
+            Files.move(temporary, inbox.resolve(name + MIGRANTS_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Island " + this.island + " - Could not send migrants to island " + island + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Individual> receive(RunContext context) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(getInbox(island), "*" + MIGRANTS_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the migration inbox of island " + island, e);
+        }
+        Collections.sort(files);
+
+        List<Individual> immigrants = new ArrayList<>();
+        for (Path file : files) {
+            try {
+                byte[] message = Files.readAllBytes(file);
+                Files.delete(file);
+                immigrants.addAll(GenomeCodec.decodeIndividuals(context, message));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read migrants from " + file, e);
+            }
+        }
+        return immigrants;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Returns the inbox directory of an island.
+     *
+     * @param island The index of the island.
+     * @return The inbox of the island.
+     */
+    private Path getInbox(int island) {
+        return directory.resolve("island-" + island);
+    }
+}
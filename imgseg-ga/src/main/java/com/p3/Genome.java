@@ -0,0 +1,136 @@
+package com.p3;
+
+import java.util.Arrays;
+
+/**
+ * The chromosome of an individual. Holds one gene per pixel of the image, where each gene is the
+ * direction of the edge from the pixel to one of its neighbors (0 to 8, see NeighborWeights).
+ * The genes are stored as bytes, i.e. one byte per pixel.
+ *
+ * Every change to the genes increases the version of the genome, which lets an individual tell whether
+ * its segmentation and objective values still belong to its genome.
+ */
+public final class Genome {
+
+    private final byte[] genes;
+    private int version;
+
+    /**
+     * Creates a genome of the given length with all genes set to 0, i.e. without any edges.
+     *
+     * @param length The number of genes.
+     */
+    public Genome(int length) {
+        this.genes = new byte[length];
+    }
+
+    /**
+     * Creates a genome backed by the given genes. The array is not copied.
+     *
+     * @param genes The genes of the genome.
+     */
+    Genome(byte[] genes) {
+        this.genes = genes;
+    }
+
+    /**
+     * Returns the number of genes in the genome.
+     *
+     * @return The number of genes in the genome.
+     */
+    public int length() {
+        return genes.length;
+    }
+
+    /**
+     * Returns the version of the genome, which changes every time a gene is set, copied or swapped.
+     *
+     * @return The version of the genome.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the gene at the given index.
+     *
+     * @param index The index of the gene.
+     * @return The direction stored in the gene.
+     */
+    public int get(int index) {
+        return genes[index];
+    }
+
+    /**
+     * Sets the gene at the given index.
+     *
+     * @param index The index of the gene.
+     * @param direction The direction to store, from 0 to 8.
+     */
+    public void set(int index, int direction) {
+        genes[index] = (byte) direction;
+        version++;
+    }
+
+    /**
+     * Returns the genes backing the genome. Changes to the array are visible in the genome,
+     * but do not change its version.
+     *
+     * @return The genes of the genome.
+     */
+    byte[] getGenes() {
+        return genes;
+    }
+
+    /**
+     * Returns a copy of the genome.
+     *
+     * @return A copy of the genome.
+     */
+    public Genome copy() {
+        return new Genome(genes.clone());
+    }
+
+    /**
+     * Copies the genes in the range [from, to) of another genome into the same range of this genome.
+     *
+     * @param source The genome to copy from.
+     * @param from The first index of the range, inclusive.
+     * @param to The last index of the range, exclusive.
+     */
+    public void copyRange(Genome source, int from, int to) {
+        System.arraycopy(source.genes, from, genes, from, to - from);
+        version++;
+    }
+
+    /**
+     * Swaps the genes in the range [from, to) of this genome with the genes in the same range of another genome.
+     *
+     * @param other The genome to swap genes with.
+     * @param from The first index of the range, inclusive.
+     * @param to The last index of the range, exclusive.
+     */
+    public void swapRange(Genome other, int from, int to) {
+        byte[] buffer = Arrays.copyOfRange(genes, from, to);
+        System.arraycopy(other.genes, from, genes, from, to - from);
+        System.arraycopy(buffer, 0, other.genes, from, to - from);
+        version++;
+        other.version++;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Genome)) {
+            return false;
+        }
+        return Arrays.equals(genes, ((Genome) other).genes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(genes);
+    }
+}
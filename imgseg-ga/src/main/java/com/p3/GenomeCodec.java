@@ -0,0 +1,142 @@
+package com.p3;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of genomes and evaluated individuals, for sending them between processes.
+ *
+ * Genes are directions from 0 to 8 and fit in four bits, so a genome is packed two genes per byte: the gene
+ * with the even index in the low four bits and the next gene in the high four bits. An individual is encoded
+ * as the length of its genome, the packed genes and its objective values, so that it does not have to be
+ * evaluated again when it is decoded.
+ */
+public final class GenomeCodec {
+
+    // Marks the start of an encoded list of individuals ("ISGA")
+    private static final int INDIVIDUALS_MAGIC = 0x49534741;
+
+    // Private constructor to prevent instantiation
+    private GenomeCodec() {
+        throw new UnsupportedOperationException("GenomeCodec is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Returns the number of bytes of a packed genome.
+     *
+     * @param length The number of genes.
+     * @return The number of bytes of the packed genes.
+     */
+    public static int getPackedLength(int length) {
+        return (length + 1) / 2;
+    }
+
+    /**
+     * Writes the genes of a genome to a buffer, two genes per byte.
+     *
+     * @param genome The genome.
+     * @param buffer The buffer to write to, with at least getPackedLength(genome.length()) bytes remaining.
+     */
+    public static void pack(Genome genome, ByteBuffer buffer) {
+        byte[] genes = genome.getGenes();
+        int i = 0;
+        for (; i + 1 < genes.length; i += 2) {
+            buffer.put((byte) (genes[i] | genes[i + 1] << 4));
+        }
+        if (i < genes.length) {
+            buffer.put(genes[i]);
+        }
+    }
+
+    /**
+     * Reads a genome of the given length, packed by pack, from a buffer.
+     *
+     * @param buffer The buffer to read from.
+     * @param length The number of genes.
+     * @return The genome.
+     * @throws IllegalArgumentException If a gene is not a valid direction.
+     */
+    public static Genome unpack(ByteBuffer buffer, int length) {
+        byte[] genes = new byte[length];
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            int packed = buffer.get();
+            genes[i] = checkDirection(packed & 0x0f);
+            genes[i + 1] = checkDirection((packed >> 4) & 0x0f);
+        }
+        if (i < length) {
+            genes[i] = checkDirection(buffer.get() & 0x0f);
+        }
+        return new Genome(genes);
+    }
+
+    /**
+     * Encodes a list of individuals, i.e. their genomes and objective values.
+     *
+     * @param individuals The individuals, which must be evaluated.
+     * @return The encoded individuals.
+     */
+    public static byte[] encodeIndividuals(List<Individual> individuals) {
+        int size = 2 * Integer.BYTES;
+        for (Individual individual : individuals) {
+            size += Integer.BYTES + getPackedLength(individual.getGenome().length()) + 3 * Double.BYTES;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(INDIVIDUALS_MAGIC);
+        buffer.putInt(individuals.size());
+        for (Individual individual : individuals) {
+            Genome genome = individual.getGenome();
+            buffer.putInt(genome.length());
+            pack(genome, buffer);
+            buffer.putDouble(individual.getEdgeValue());
+            buffer.putDouble(individual.getConnectivityMeasure());
+            buffer.putDouble(individual.getOverallDeviation());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a list of individuals encoded by encodeIndividuals. The individuals get the encoded objective
+     * values, so they are not evaluated again.
+     *
+     * @param context The run context the individuals belong to.
+     * @param bytes The encoded individuals.
+     * @return The individuals.
+     * @throws IllegalArgumentException If the bytes are not encoded individuals of the image of the run.
+     */
+    public static List<Individual> decodeIndividuals(RunContext context, byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < 2 * Integer.BYTES || buffer.getInt() != INDIVIDUALS_MAGIC) {
+            throw new IllegalArgumentException("The bytes are not encoded individuals");
+        }
+        int count = buffer.getInt();
+        int pixelCount = context.getImage().getPixelCount();
+
+        List<Individual> individuals = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            int length = buffer.getInt();
+            if (length != pixelCount) {
+                throw new IllegalArgumentException("Genome of length " + length + " does not fit an image of " + pixelCount + " pixels");
+            }
+            Individual individual = new Individual(context, unpack(buffer, length));
+            individual.setObjectiveValues(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+            individuals.add(individual);
+        }
+        return individuals;
+    }
+
+    /**
+     * Checks that an unpacked gene is a valid direction.
+     *
+     * @param direction The unpacked gene.
+     * @return The gene as a byte.
+     */
+    private static byte checkDirection(int direction) {
+        if (direction > NeighborWeights.DIRECTIONS) {
+            throw new IllegalArgumentException("Invalid direction in packed genome: " + direction);
+        }
+        return (byte) direction;
+    }
+}
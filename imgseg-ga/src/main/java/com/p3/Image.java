@@ -1,40 +1,122 @@
 package com.p3;
 
-import java.util.List;
-
 /**
  * The Image class represents an image read from a file and provides methods for accessing its properties.
- * Contains a list of pixels and the dimensions of the image. Uses the ImageReader class to read the image.
+ * Contains the pixels and the dimensions of the image. Uses the ImageReaderWriter class to read the image.
+ *
+ * The pixels are stored row by row in a single int array, where each pixel is packed as 0xRRGGBB.
+ * The pixel at (x, y) is found at index y * width + x.
 */
 public class Image {
-    
-    private List<List<Integer>> pixels;
+
+    private int[] pixels;
     private int imageHeight;
     private int imageWidth;
-    
+    private volatile NeighborWeights neighborWeights;
+    private volatile MinimumSpanningTree minimumSpanningTree;
+
     /**
-     * Creates an Image object from an image file.
-     * 
+     * Creates an Image object from an image file. The file is decoded on every call,
+     * see load for loading an image through the image cache.
+     *
      * @param filePath The path to the image file.
      */
     public Image(String filePath) {
-        this.pixels = ImageReaderWriter.getImagePixels(filePath);
-        this.imageHeight = ImageReaderWriter.getImageDimensions(filePath)[0];
-        this.imageWidth = ImageReaderWriter.getImageDimensions(filePath)[1];
+        Image image = ImageReaderWriter.readImage(filePath);
+        this.pixels = image.pixels;
+        this.imageHeight = image.imageHeight;
+        this.imageWidth = image.imageWidth;
+    }
+
+    /**
+     * Creates an Image object from packed RGB pixels.
+     *
+     * @param pixels The pixels of the image, packed as 0xRRGGBB and stored row by row.
+     * @param imageHeight The height of the image.
+     * @param imageWidth The width of the image.
+     */
+    public Image(int[] pixels, int imageHeight, int imageWidth) {
+        if (pixels.length != imageHeight * imageWidth) {
+            throw new IllegalArgumentException("Pixel count does not match the image dimensions");
+        }
+        this.pixels = pixels;
+        this.imageHeight = imageHeight;
+        this.imageWidth = imageWidth;
+    }
+
+    /**
+     * Loads an image from an image file through the image cache, so that a file that has been loaded
+     * before is not decoded again. The image may be shared with other runs.
+     *
+     * @param filePath The path to the image file.
+     * @return The image.
+     */
+    public static Image load(String filePath) {
+        return ImageCache.getImage(filePath);
     }
 
     /**
-     * Returns the list of pixels in the image.
-     * 
-     * @return The list of pixels in the image.
+     * Returns the packed RGB pixels of the image. The returned array is the backing store
+     * of the image and must not be modified.
+     *
+     * @return The pixels of the image, packed as 0xRRGGBB.
      */
-    public List<List<Integer>> getPixels() {
+    public int[] getPixels() {
         return pixels;
     }
 
+    /**
+     * Returns the number of pixels in the image.
+     *
+     * @return The number of pixels in the image.
+     */
+    public int getPixelCount() {
+        return pixels.length;
+    }
+
+    /**
+     * Returns the packed RGB value (0xRRGGBB) of the pixel at the given index.
+     *
+     * @param pixelIndex The index of the pixel.
+     * @return The packed RGB value of the pixel.
+     */
+    public int getRGB(int pixelIndex) {
+        return pixels[pixelIndex];
+    }
+
+    /**
+     * Returns the red value of the pixel at the given index.
+     *
+     * @param pixelIndex The index of the pixel.
+     * @return The red value of the pixel.
+     */
+    public int getRed(int pixelIndex) {
+        return (pixels[pixelIndex] >> 16) & 0xff;
+    }
+
+    /**
+     * Returns the green value of the pixel at the given index.
+     *
+     * @param pixelIndex The index of the pixel.
+     * @return The green value of the pixel.
+     */
+    public int getGreen(int pixelIndex) {
+        return (pixels[pixelIndex] >> 8) & 0xff;
+    }
+
+    /**
+     * Returns the blue value of the pixel at the given index.
+     *
+     * @param pixelIndex The index of the pixel.
+     * @return The blue value of the pixel.
+     */
+    public int getBlue(int pixelIndex) {
+        return pixels[pixelIndex] & 0xff;
+    }
+
     /**
      * Returns the height of the image.
-     * 
+     *
      * @return The height of the image.
      */
     public int getImageHeight() {
@@ -43,18 +125,116 @@ public class Image {
 
     /**
      * Returns the width of the image.
-     * 
+     *
      * @return The width of the image.
      */
     public int getImageWith() {
         return imageWidth;
     }
 
+    /**
+     * Returns the neighbor weight table of the image. The table is built on first use and
+     * shared by everyone working on the image. Building it grows the size of the image in the image cache.
+     *
+     * @return The neighbor weight table of the image.
+     */
+    public NeighborWeights getNeighborWeights() {
+        NeighborWeights weights = neighborWeights;
+        if (weights == null) {
+            boolean built = false;
+            synchronized (this) {
+                weights = neighborWeights;
+                if (weights == null) {
+                    weights = new NeighborWeights(this);
+                    neighborWeights = weights;
+                    built = true;
+                }
+            }
+            if (built) {
+                ImageCache.resize(this);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the minimum spanning tree of the image. The tree is computed on first use and
+     * shared by everyone working on the image. Computing it grows the size of the image in the image cache.
+     *
+     * @return The minimum spanning tree of the image.
+     */
+    public MinimumSpanningTree getMinimumSpanningTree() {
+        MinimumSpanningTree tree = minimumSpanningTree;
+        if (tree == null) {
+            boolean built = false;
+            synchronized (this) {
+                tree = minimumSpanningTree;
+                if (tree == null) {
+                    tree = new MinimumSpanningTree(this);
+                    minimumSpanningTree = tree;
+                    built = true;
+                }
+            }
+            if (built) {
+                ImageCache.resize(this);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the approximate size of the image in memory: its pixels, and its neighbor weight table and
+     * minimum spanning tree if they have been built.
+     *
+     * @return The size in bytes.
+     */
+    long getSizeBytes() {
+        NeighborWeights weights = neighborWeights;
+        MinimumSpanningTree tree = minimumSpanningTree;
+        return (long) pixels.length * Integer.BYTES
+            + (weights == null ? 0 : weights.getSizeBytes())
+            + (tree == null ? 0 : tree.getSizeBytes());
+    }
+
+    /**
+     * Returns the image at half the width and height, rounded up. Every pixel is the average color of
+     * a block of two by two pixels of the image, or of the pixels of a block that lie in the image, along
+     * the last row and column of an image with an odd size. The pixel at (x, y) of the image lies in
+     * the pixel at (x / 2, y / 2) of the downsampled image.
+     *
+     * @return The downsampled image.
+     */
+    public Image downsample() {
+        int height = (imageHeight + 1) / 2;
+        int width = (imageWidth + 1) / 2;
+        int[] downsampled = new int[height * width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = 0;
+                int green = 0;
+                int blue = 0;
+                int count = 0;
+                for (int y2 = 2 * y; y2 < Math.min(imageHeight, 2 * y + 2); y2++) {
+                    for (int x2 = 2 * x; x2 < Math.min(imageWidth, 2 * x + 2); x2++) {
+                        int pixel = pixels[y2 * imageWidth + x2];
+                        red += (pixel >> 16) & 0xff;
+                        green += (pixel >> 8) & 0xff;
+                        blue += pixel & 0xff;
+                        count++;
+                    }
+                }
+                int half = count / 2;
+                downsampled[y * width + x] = (red + half) / count << 16 | (green + half) / count << 8 | (blue + half) / count;
+            }
+        }
+        return new Image(downsampled, height, width);
+    }
+
     public static void main(String[] args) {
         String imagePath = "training_images/118035/Test image.jpg";
-        Image image = new Image(imagePath);
+        Image image = Image.load(imagePath);
         System.out.println(image.imageHeight);
         System.out.println(image.imageWidth);
-        System.out.println(image.pixels.size());
+        System.out.println(image.pixels.length);
     }
 }
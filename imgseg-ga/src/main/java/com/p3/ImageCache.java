@@ -0,0 +1,163 @@
+package com.p3;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of decoded images, shared by all runs, so that runs that load the same image file again, e.g. batch
+ * jobs over the training images, do not decode it again. The images also keep their neighbor weight tables and
+ * minimum spanning trees, so these are not computed again either.
+ *
+ * Images are keyed by a hash of the contents of their files, so copies of a file share one image, and a file
+ * that is changed is decoded again. The cache holds images up to a total size in memory, and evicts the least
+ * recently used images first when it is full. The size of an image is that of its pixels, neighbor weight table
+ * and minimum spanning tree, about 75 bytes per pixel once all are built. The image grows in the cache when its
+ * table or tree is built, which may evict other images, or the image itself.
+ */
+public class ImageCache {
+
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    private static final Map<String, CachedImage> IMAGES = new LinkedHashMap<>(16, 0.75f, true);
+    private static long maxBytes = DEFAULT_MAX_BYTES;
+    private static long sizeBytes;
+
+    // Private constructor to prevent instantiation
+    private ImageCache() {
+        throw new UnsupportedOperationException("ImageCache is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Returns the image of a file, decoding it only if an image with the same contents is not cached.
+     * The returned image may be shared with other runs, and must not be modified.
+     *
+     * @param imagePath The path to the image file.
+     * @return The image.
+     * @throws UncheckedIOException If the file cannot be read or is not an image.
+     */
+    public static Image getImage(String imagePath) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(Paths.get(imagePath));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read image " + imagePath, e);
+        }
+        String key = getContentHash(bytes);
+        synchronized (ImageCache.class) {
+            CachedImage cached = IMAGES.get(key);
+            if (cached != null) {
+                return cached.image;
+            }
+        }
+
+        // Decoded outside the lock, so that other images can be loaded at the same time
+        Image image = ImageReaderWriter.decodeImage(bytes, imagePath);
+        synchronized (ImageCache.class) {
+            CachedImage cached = IMAGES.get(key);
+            if (cached != null) {
+                return cached.image;
+            }
+            long bytesOfImage = image.getSizeBytes();
+            if (bytesOfImage <= maxBytes) {
+                IMAGES.put(key, new CachedImage(image, bytesOfImage));
+                sizeBytes += bytesOfImage;
+                evict();
+            }
+            return image;
+        }
+    }
+
+    /**
+     * Updates the size of an image in the cache, after its neighbor weight table or minimum spanning tree has
+     * been built, evicting images if needed. Images that are not cached are ignored.
+     *
+     * @param image The image.
+     */
+    static synchronized void resize(Image image) {
+        for (CachedImage cached : IMAGES.values()) {
+            if (cached.image == image) {
+                long bytesOfImage = image.getSizeBytes();
+                sizeBytes += bytesOfImage - cached.sizeBytes;
+                cached.sizeBytes = bytesOfImage;
+                evict();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets the largest total size of the cached images, evicting images if needed.
+     *
+     * @param maxBytes The largest total size in bytes.
+     */
+    public static synchronized void setMaxBytes(long maxBytes) {
+        ImageCache.maxBytes = maxBytes;
+        evict();
+    }
+
+    /**
+     * Returns the total size of the cached images.
+     *
+     * @return The total size in bytes.
+     */
+    public static synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Removes all images from the cache.
+     */
+    public static synchronized void clear() {
+        IMAGES.clear();
+        sizeBytes = 0;
+    }
+
+    /**
+     * Evicts the least recently used images until the cached images fit in the largest total size.
+     */
+    private static void evict() {
+        Iterator<CachedImage> images = IMAGES.values().iterator();
+        while (sizeBytes > maxBytes && images.hasNext()) {
+            sizeBytes -= images.next().sizeBytes;
+            images.remove();
+        }
+    }
+
+    /**
+     * Returns the SHA-256 hash of the contents of a file, as a hexadecimal string.
+     *
+     * @param bytes The contents of the file.
+     * @return The hash of the contents.
+     */
+    private static String getContentHash(byte[] bytes) {
+        try {
+            StringBuilder hash = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A cached image, with the size it is charged to the cache with.
+     */
+    private static final class CachedImage {
+        private final Image image;
+        private long sizeBytes;
+
+        CachedImage(Image image, long sizeBytes) {
+            this.image = image;
+            this.sizeBytes = sizeBytes;
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.p3;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.awt.*;
-import java.util.Set;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
 
 /**
  * The ImageReader class provides utility methods for reading and writing images.
@@ -20,52 +25,129 @@ public class ImageReaderWriter {
     }
 
     /**
-     * Reads the pixels of an image from the specified file path.
-     * Each pixel is represented as a list of three integers (RGB values).
+     * Reads an image from the specified file path. The file is decoded once, and the pixels
+     * are copied from the raster of the decoded image in bulk.
      *
      * @param imagePath the path to the image file
-     * @return a list of lists representing the RGB values of each pixel in the image
+     * @return the image
+     * @throws UncheckedIOException if the file cannot be read or is not an image
      */
-    public static List<List<Integer>> getImagePixels(String imagePath) {
-        List<List<Integer>> pixels = new ArrayList<>();
-
+    public static Image readImage(String imagePath) {
         try {
-            BufferedImage image = ImageIO.read(new File(imagePath));
-
-            for (int y = 0; y < image.getHeight(); y++) {
-                for (int x = 0; x < image.getWidth(); x++) {
-                    int color = image.getRGB(x, y);
+            return decodeImage(Files.readAllBytes(Paths.get(imagePath)), imagePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read image " + imagePath, e);
+        }
+    }
 
-                    int red = (color >> 16) & 0xff;
-                    int green = (color >> 8) & 0xff;
-                    int blue = color & 0xff;
+    /**
+     * Decodes an image from the contents of an image file.
+     *
+     * @param bytes the contents of the image file
+     * @param source the name of the image file, for error messages
+     * @return the image
+     * @throws UncheckedIOException if the contents are not an image
+     */
+    static Image decodeImage(byte[] bytes, String source) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode image " + source, e);
+        }
+        if (image == null) {
+            throw new UncheckedIOException(new IOException(source + " is not an image in a supported format"));
+        }
+        return new Image(getPackedPixels(image), image.getHeight(), image.getWidth());
+    }
 
-                    List<Integer> pixel = new ArrayList<>();
-                    pixel.add(red);
-                    pixel.add(green);
-                    pixel.add(blue);
+    /**
+     * Returns the pixels of a decoded image, packed as 0xRRGGBB and stored row by row. The pixels of
+     * the common layouts are copied straight from the data buffer of the raster, other layouts are
+     * converted by the color model in a single bulk call. The pixels of a gray image have the stored
+     * gray value in all three channels.
+     *
+     * @param image the decoded image
+     * @return the packed pixels of the image
+     */
+    private static int[] getPackedPixels(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = new int[width * height];
+        Raster raster = image.getRaster();
+        boolean isPlain = raster.getParent() == null && raster.getSampleModelTranslateX() == 0
+            && raster.getSampleModelTranslateY() == 0;
+
+        if (isPlain && (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB)) {
+            int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+            if (data.length == pixels.length) {
+                for (int i = 0; i < pixels.length; i++) {
+                    pixels[i] = data[i] & 0xffffff;
+                }
+                return pixels;
+            }
+        }
+        if (isPlain && image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            if (data.length == 3 * pixels.length) {
+                for (int i = 0, j = 0; i < pixels.length; i++, j += 3) {
+                    pixels[i] = (data[j + 2] & 0xff) << 16 | (data[j + 1] & 0xff) << 8 | (data[j] & 0xff);
+                }
+                return pixels;
+            }
+        }
 
-                    pixels.add(pixel);
+        if (isPlain && image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            // The stored gray values, without the gamma conversion of getRGB, as other tools read them
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            if (data.length == pixels.length) {
+                for (int i = 0; i < pixels.length; i++) {
+                    int gray = data[i] & 0xff;
+                    pixels[i] = gray << 16 | gray << 8 | gray;
                 }
+                return pixels;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
 
+        image.getRGB(0, 0, width, height, pixels, 0, width);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] &= 0xffffff;
+        }
+        return pixels;
+    }
+
+    /**
+     * Reads the pixels of an image from the specified file path.
+     * Each pixel is packed into a single int as 0xRRGGBB.
+     *
+     * @param imagePath the path to the image file
+     * @return an array holding the packed RGB value of each pixel in the image, row by row
+     */
+    public static int[] getImagePixels(String imagePath) {
+        int[] pixels = readImage(imagePath).getPixels();
         System.out.println("Image pixels are read successfully.");
         return pixels;
     }
 
     /**
-     * Retrieves the dimensions (width and height) of an image from the specified file path.
+     * Retrieves the dimensions (height and width) of an image from the specified file path.
+     * Only the header of the image is read, the image is not decoded.
      *
      * @param imagePath the path to the image file
-     * @return an array containing the width and height of the image
+     * @return an array containing the height and width of the image
      */
     public static int[] getImageDimensions(String imagePath) {
-        try {
-            BufferedImage image = ImageIO.read(new File(imagePath));
-            return new int[]{image.getHeight(), image.getWidth()};
+        try (ImageInputStream input = ImageIO.createImageInputStream(new File(imagePath))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers != null && readers.hasNext()) {
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(input);
+                    return new int[]{reader.getHeight(0), reader.getWidth(0)};
+                } finally {
+                    reader.dispose();
+                }
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -75,24 +157,18 @@ public class ImageReaderWriter {
     /**
      * Writes an image using the specified pixel values, width, height, and output path.
      *
-     * @param pixels     a list of lists representing the RGB values of each pixel in the image
+     * @param pixels     an array holding the packed RGB value (0xRRGGBB) of each pixel in the image
      * @param width      the width of the image
      * @param height     the height of the image
      * @param outputPath the path to write the output image file
      */
-    public static void writeImage(List<List<Integer>> pixels, int width, int height, String outputPath) {
+    public static void writeImage(int[] pixels, int width, int height, String outputPath) {
         BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
 
         int pixelIndex = 0;
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                List<Integer> pixel = pixels.get(pixelIndex++);
-                int red = pixel.get(0);
-                int green = pixel.get(1);
-                int blue = pixel.get(2);
-
-                int rgb = (red << 16) | (green << 8) | blue;
-                image.setRGB(x, y, rgb);
+                image.setRGB(x, y, pixels[pixelIndex++]);
             }
         }
 
@@ -110,102 +186,46 @@ public class ImageReaderWriter {
      * @param outputPath  The path where the image will be saved.
      * @param individual  The individual containing the segments.
      * @param isWhite     A boolean indicating whether the image should be saved with white or original background.
+     * @throws UncheckedIOException if the image cannot be written
      */
     public static void writeImageWithSegments(String outputPath, Individual individual, boolean isWhite) {
-        List<Set<Integer>> segments = individual.getSegments();
-        int width = Parameters.IMAGE.getImageWith();
-        int height = Parameters.IMAGE.getImageHeight();
-        List<List<Integer>> pixels = Parameters.IMAGE.getPixels();
-
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g = image.createGraphics();
-
-        int x;
-        int y;
-        int borderColor;
-
-        // Draw pixels
-        for (int i = 0; i < pixels.size(); i++) {
-            List<Integer> pixel = pixels.get(i);
-            x = i % width;
-            y = i / width;
-            if (isWhite) {
-                g.setColor(Color.WHITE);
-            } else {
-                Color color = new Color(pixel.get(0), pixel.get(1), pixel.get(2));
-                g.setColor(color);
-            }
-            g.fillRect(x, y, 1, 1);
-        }
-
-        // Draw segment borders
-        if (isWhite) {
-            g.setColor(Color.BLACK);
-            borderColor = Color.BLACK.getRGB();
-        } else {
-            g.setColor(Color.GREEN);
-            borderColor = Color.GREEN.getRGB();
-        }
-
-        boolean nextToBorderPixel;
-        Map<Integer, Integer> segmentMap;
-        Integer indexSegment;
-        int numberOfNeighborsInSegment;
-        Color color;
-
-        for (Set<Integer> segment : segments) {
-            for (int index : segment) {
-                List<Integer> neighbors = individual.getNeighboringPixelIndexes(index, height, width);
-                
-                if (neighbors.size() < 8) {
-                    x = index % width;
-                    y = index / width;
-                    g.drawRect(x, y, 1, 1);
-                    continue;
-                }
-
-                nextToBorderPixel = false;
-                segmentMap = individual.getSegmentMap();
-                indexSegment = segmentMap.get(index);
-                numberOfNeighborsInSegment = 0;
-
-                for (int pixelNeighbor : neighbors) {
-                    if (segmentMap.get(pixelNeighbor).equals(indexSegment)) {
-                        numberOfNeighborsInSegment++;
-                    } else {                        
-                        x = pixelNeighbor % width;
-                        y = pixelNeighbor / width;
-
-                        color = new Color(image.getRGB(x, y));
-                        
-                        if (color.getRGB() == borderColor) {
-                            nextToBorderPixel = true;
-                            break;
-                        }
-                    }
-                }
-                if (!nextToBorderPixel && numberOfNeighborsInSegment < 8) {
-                    x = index % width;
-                    y = index / width;
-                    
-                    g.drawRect(x, y, 1, 1);
-                }
-            }
-        }
+        BufferedImage[] images = SegmentRenderer.render(individual);
+        writePng(images[isWhite ? 1 : 0], outputPath);
+    }
 
-        g.dispose();
+    /**
+     * Writes both images with segments of an individual, rendered in one pass: the image with green segment
+     * borders on the original background, and the image with black segment borders on white.
+     *
+     * @param overlayPath  The path where the image with the original background will be saved.
+     * @param outlinePath  The path where the image with white background will be saved.
+     * @param individual   The individual containing the segments.
+     * @throws UncheckedIOException if an image cannot be written
+     */
+    public static void writeImagesWithSegments(String overlayPath, String outlinePath, Individual individual) {
+        BufferedImage[] images = SegmentRenderer.render(individual);
+        writePng(images[0], overlayPath);
+        writePng(images[1], outlinePath);
+    }
 
-        // Save image
+    /**
+     * Saves an image in the PNG format.
+     *
+     * @param image       The image to save.
+     * @param outputPath  The path where the image will be saved.
+     * @throws UncheckedIOException if the image cannot be written
+     */
+    private static void writePng(BufferedImage image, String outputPath) {
         try {
             ImageIO.write(image, "png", new File(outputPath));
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new UncheckedIOException("Could not write image " + outputPath, e);
         }
     }
 
     public static void main(String[] args) {
         String imagePath = "training_images/118035/Test image.jpg";
-        List<List<Integer>> pixels = ImageReaderWriter.getImagePixels(imagePath);
+        int[] pixels = ImageReaderWriter.getImagePixels(imagePath);
 
         int[] dimensions = ImageReaderWriter.getImageDimensions(imagePath);
 
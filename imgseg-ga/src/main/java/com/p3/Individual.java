@@ -1,14 +1,13 @@
 package com.p3;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Random;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents an individual in the population. Each individual has a graph representation (undirected)
@@ -25,7 +24,11 @@ import java.util.HashSet;
  */
 public class Individual {
     
-    private List<Integer> chromosome;
+    private final RunContext context;
+    private Genome genome;
+    private Segmentation segmentation;
+    private SegmentStrips strips;
+    private int genomeVersion;
     private List<Set<Integer>> segments;
     private Map<Integer, Integer> segmentMap;
 
@@ -35,75 +38,218 @@ public class Individual {
 
     /**
      * Constructs a new Individual object. The individual is created by creating a minimum spanning tree (MST)
-     * of the image set for the genetic algorithm. The number of trees in the MST is determined by the
-     * numTrees parameter.
+     * of the image of the run. The number of trees in the MST is determined by the numTrees parameter.
      * 
+     * @param context The run context the individual belongs to.
      * @param numTrees The number of trees for the MST.
      */
-    public Individual(int numTrees) {
-        int imageHeight = Parameters.IMAGE.getImageHeight();
-        int imageWidth = Parameters.IMAGE.getImageWith();
-
+    public Individual(RunContext context, int numTrees) {
+        this.context = context;
         this.edgeValue = null;
         this.connectivityMeasure = null;
         this.overallDeviation = null;
 
-        List<List<Edge>> adjacencyList = this.getAdjacencyList(Parameters.IMAGE);
-        this.chromosome = this.getChromosomeFromMST(adjacencyList, imageHeight, imageWidth, numTrees);
+        // The trees are grown from random pixels, see PrimMST
+        Image image = context.getImage();
+        NeighborWeights neighborWeights = image.getNeighborWeights();
+        Random random = ThreadLocalRandom.current();
+        int[] seeds = new int[numTrees];
+        for (int i = 0; i < numTrees; i++) {
+            seeds[i] = random.nextInt(image.getPixelCount());
+        }
+        this.genome = PrimMST.build(neighborWeights, seeds);
 
         this.setSegments();
-        this.setSegmentMap();
     }
 
     /**
-     * Constructs a new Individual object. The individual is created by setting the chromosome to the given chromosome.
+     * Constructs a new Individual object. The individual is created by setting the chromosome to the given genome.
      * 
-     * @param chromosome The chromosome of the individual.
+     * @param context The run context the individual belongs to.
+     * @param genome The genome of the individual.
      */
-    public Individual(List<Integer> chromosome) {
-        this.chromosome = chromosome;
+    public Individual(RunContext context, Genome genome) {
+        this.context = context;
+        this.genome = genome;
         this.setSegments();
-        this.setSegmentMap();
     }
 
     /**
-     * Returns a copy of the chromosome of the individual.
+     * Constructs a new Individual object from a genome and its strip summaries.
+     * 
+     * @param context The run context the individual belongs to.
+     * @param genome The genome of the individual.
+     * @param strips The strip summaries of the genome.
+     */
+    private Individual(RunContext context, Genome genome, SegmentStrips strips) {
+        this.context = context;
+        this.genome = genome;
+        this.strips = strips;
+        this.segmentation = strips.toSegmentation(genome);
+        this.genomeVersion = genome.getVersion();
+    }
+
+    /**
+     * Creates an individual whose genome consists of consecutive gene ranges copied from other individuals,
+     * as made by crossover. Range k spans the genes [boundaries[k], boundaries[k + 1]) and was copied from
+     * sources[k]. The segmentation is built from the connectivity summaries of the sources (see SegmentStrips),
+     * so only the parts of the image around the range boundaries are decoded again. The individual belongs
+     * to the run context of the first source.
      * 
-     * @return A copy of the chromosome of the individual.
+     * @param genome The genome of the individual.
+     * @param boundaries The first gene of every range, followed by the length of the genome.
+     * @param sources The individual each range was copied from.
+     * @return The new individual.
      */
-    public List<Integer> getChromosome() {
-        return new ArrayList<>(this.chromosome);
+    public static Individual fromRanges(Genome genome, int[] boundaries, Individual[] sources) {
+        SegmentStrips[] sourceStrips = new SegmentStrips[sources.length];
+        for (int k = 0; k < sources.length; k++) {
+            sourceStrips[k] = sources[k].strips;
+        }
+        RunContext context = sources[0].context;
+        RunMetrics.Phase previous = context.getMetrics().enter(RunMetrics.Phase.SEGMENTATION);
+        Individual individual = new Individual(context, genome, SegmentStrips.compose(genome, context.getImage().getNeighborWeights(), boundaries, sourceStrips));
+        context.getMetrics().exit(previous);
+        return individual;
+    }
+
+    /**
+     * Returns a copy of the individual, with a copy of its genome and the same objective values.
+     * The copy shares no mutable state with the individual, so it can be handed to another thread.
+     * Its segmentation is built from the strip summaries of the individual, without decoding the genome again.
+     * 
+     * @return A copy of the individual.
+     */
+    public Individual copy() {
+        this.ensureCurrent();
+        Genome genomeCopy = this.genome.copy();
+        Individual copy = fromRanges(genomeCopy, new int[] {0, genomeCopy.length()}, new Individual[] {this});
+        if (this.edgeValue != null) {
+            copy.setObjectiveValues(this.edgeValue, this.connectivityMeasure, this.overallDeviation);
+        }
+        return copy;
     }
 
     /**
-     * Sets the chromosome of the individual to the given chromosome.
+     * Returns the run context the individual belongs to.
      * 
-     * @param chromosome The chromosome to set.
+     * @return The run context of the individual.
      */
-    public void setChromosome(List<Integer> chromosome) {
-        this.chromosome = chromosome;
+    public RunContext getContext() {
+        return this.context;
+    }
+
+    /**
+     * Returns the genome (chromosome) of the individual. The genome is not copied. Changes to it are
+     * detected through the version of the genome, and the segments and objective values are then
+     * recalculated on their next use.
+     * 
+     * @return The genome of the individual.
+     */
+    public Genome getGenome() {
+        return this.genome;
+    }
+
+    /**
+     * Sets the genome (chromosome) of the individual to the given genome.
+     * 
+     * @param genome The genome to set.
+     */
+    public void setGenome(Genome genome) {
+        this.genome = genome;
         this.setSegments();
-        this.setSegmentMap();
+    }
+
+    /**
+     * Sets a single gene of the genome. Instead of decoding the whole genome again, only the segments
+     * touched by the old and new edge of the pixel are relabeled. If the objective values are already
+     * known, they are updated by the change in the relabeled region rather than recalculated.
+     * 
+     * @param index The index of the gene.
+     * @param direction The new direction of the gene, from 0 to 8.
+     */
+    public void setGene(int index, int direction) {
+        this.ensureCurrent();
+        int previousDirection = this.genome.get(index);
+        if (previousDirection == direction) {
+            return;
+        }
+        this.genome.set(index, direction);
+        RunMetrics metrics = this.context.getMetrics();
+        RunMetrics.Phase previous = metrics.enter(RunMetrics.Phase.SEGMENTATION);
+        Segmentation.Change change = this.segmentation.applyGeneChange(this.genome, index, previousDirection, this.context.getImage().getNeighborWeights());
+        this.strips.invalidate(index);
+        this.genomeVersion = this.genome.getVersion();
+        this.segments = null;
+        this.segmentMap = null;
+
+        if (this.edgeValue != null) {
+            metrics.enter(RunMetrics.Phase.EVALUATION);
+            ObjectiveEvaluator.evaluateChange(this, change);
+        }
+        metrics.exit(previous);
+    }
+
+    /**
+     * Returns the segmentation of the individual, i.e. the segment index of every pixel and
+     * the pixels of every segment.
+     * 
+     * @return The segmentation of the individual.
+     */
+    public Segmentation getSegmentation() {
+        this.ensureCurrent();
+        return this.segmentation;
+    }
+
+    /**
+     * Returns the segment index of every pixel in the image of the run.
+     * The returned array must not be modified.
+     * 
+     * @return The segment index of every pixel.
+     */
+    public int[] getLabels() {
+        this.ensureCurrent();
+        return this.segmentation.getLabels();
+    }
+
+    /**
+     * Returns the number of segments of the individual.
+     * 
+     * @return The number of segments of the individual.
+     */
+    public int getSegmentCount() {
+        this.ensureCurrent();
+        return this.segmentation.getSegmentCount();
     }
 
     /**
      * Returns the segments of the individual. Each segment is represented as a set of pixels indexes,
-     * referring to the pixels in the image set for the genetic algorithm.
+     * referring to the pixels in the image of the run.
+     * The segments are built from the segmentation on first use.
      * 
      * @return The segments of the individual.
      */
     public List<Set<Integer>> getSegments() {
+        this.ensureCurrent();
+        if (this.segments == null) {
+            this.setSegmentList();
+        }
         return this.segments;
     }
 
     /**
      * Returns the segment map of the individual. The segment map is a mapping of each pixel to its
      * corresponding segment index. Each segment is represented as a set of pixels indexes,
-     * referring to the pixels in the image set for the genetic algorithm.
+     * referring to the pixels in the image of the run.
+     * The segment map is built from the segmentation on first use.
      * 
      * @return The segment map of the individual.
      */
     public Map<Integer, Integer> getSegmentMap() {
+        this.ensureCurrent();
+        if (this.segmentMap == null) {
+            this.setSegmentMap();
+        }
         return this.segmentMap;
     }
 
@@ -113,8 +259,9 @@ public class Individual {
      * @return The edge value of the individual.
      */
     public double getEdgeValue() {
+        this.ensureCurrent();
         if (this.edgeValue == null) {
-            this.edgeValue = ObjectiveFunctions.edgeValue(this);
+            ObjectiveEvaluator.evaluate(this);
         }
         return this.edgeValue;
     }
@@ -125,8 +272,9 @@ public class Individual {
      * @return The connectivity measure of the individual.
      */
     public double getConnectivityMeasure() {
+        this.ensureCurrent();
         if (this.connectivityMeasure == null) {
-            this.connectivityMeasure = ObjectiveFunctions.connectivityMeasure(this);
+            ObjectiveEvaluator.evaluate(this);
         }
         return this.connectivityMeasure;
     }
@@ -137,356 +285,133 @@ public class Individual {
      * @return The overall deviation of the individual.
      */
     public double getOverallDeviation() {
+        this.ensureCurrent();
         if (this.overallDeviation == null) {
-            this.overallDeviation = ObjectiveFunctions.overallDeviation(this);
+            ObjectiveEvaluator.evaluate(this);
         }
         return this.overallDeviation;
     }
 
     /**
-     * Returns the weighted fitness of the individual. The weighted fitness is calculated 
-     * as a sum of weighted values of the edge value, connectivity measure, and overall deviation.
-     * The weights are set in the Parameters class.
+     * Returns true if the objective values of the individual are known for its current genome.
      * 
-     * @return The weighted fitness of the individual.
+     * @return True if the individual has been evaluated, false otherwise.
      */
-    public Double getWeightedFitness() {
-        return Parameters.EDGE_WEIGHT * this.getEdgeValue() - Parameters.CONNECTIVITY_WEIGHT * this.getConnectivityMeasure() - Parameters.DEVIATION_WEIGHT * this.getOverallDeviation();
-    }
-
-    /**
-     * Resets the objective values of the individual, so that they are recalculated 
-     * the next time they are accessed.
-     */
-    public void resetObjectiveValues() {
-        this.edgeValue = null;
-        this.connectivityMeasure = null;
-        this.overallDeviation = null;
+    public boolean isEvaluated() {
+        this.ensureCurrent();
+        return this.edgeValue != null;
     }
 
     /**
-     * Returns the adjacency list representation of the image.
-     * The weight of the edge between two pixels is the Euclidean 
-     * distance between the RGB values of the pixels.
-     *
-     * @param image The image the individual is based on.
-     * @return the adjacency list representation of the image
+     * Sets all three objective values of the individual at once.
+     * 
+     * @param edgeValue The edge value of the individual.
+     * @param connectivityMeasure The connectivity measure of the individual.
+     * @param overallDeviation The overall deviation of the individual.
      */
-    private List<List<Edge>> getAdjacencyList(Image image) {
-        List<List<Integer>> pixels = image.getPixels();
-        int imageHeight = image.getImageHeight();
-        int imageWidth = image.getImageWith();
-
-        List<List<Edge>> adjacencyList = new ArrayList<>(pixels.size());
-
-        for (int i = 0; i < pixels.size(); i++) {
-            List<Integer> pixel = pixels.get(i);
-            List<Integer> neighbors = this.getNeighboringPixelIndexes(i, imageHeight, imageWidth);
-
-            List<Edge> edges = new ArrayList<>();
-            for (int neighborIndex : neighbors) {
-                List<Integer> neighbor = pixels.get(neighborIndex);
-                double weight = ObjectiveFunctions.euclideanDistance(pixel, neighbor);
-                edges.add(new Edge(i, neighborIndex, weight));
-            }
-            adjacencyList.add(edges);
-        }
-
-        return adjacencyList;
+    void setObjectiveValues(double edgeValue, double connectivityMeasure, double overallDeviation) {
+        this.edgeValue = edgeValue;
+        this.connectivityMeasure = connectivityMeasure;
+        this.overallDeviation = overallDeviation;
     }
 
     /**
-     * Creates a chromosome from several minimum spanning trees (MST) of the image. The MST is created using
-     * Prim's algorithm, where the weight of the edge between two pixels is the Euclidean distance between
-     * the RGB values of the pixels. 
-     * The MSTs together contains all pixels of the image
+     * Returns the weighted fitness of the individual. The weighted fitness is calculated 
+     * as a sum of weighted values of the edge value, connectivity measure, and overall deviation.
+     * The weights are taken from the parameters of the run.
      * 
-     * @param adjacencyList The adjacency list representation of the image.
-     * @param imageHeight The height of the image in pixels.
-     * @param imageWidth The width of the image in pixels.
-     * @param numTrees The number of trees in the MST.
-     * @return The chromosome of the individual.
+     * @return The weighted fitness of the individual.
      */
-    private List<Integer> getChromosomeFromMST(List<List<Edge>> adjacencyList, int imageHeight, int imageWidth, int numTrees) {
-        int pixelCount = imageHeight * imageWidth;
-        List<Integer> chromosome = new ArrayList<>(Collections.nCopies(pixelCount, 0));
-
-        Random random = new Random();
-        Set<Integer> visitedIndexes = new HashSet<>();
-        PriorityQueue<Edge> queue = new PriorityQueue<>();
-
-        for (int i = 0; i < numTrees; i++) {
-            int randomPixelIndex = random.nextInt(pixelCount);
-            visitedIndexes.add(randomPixelIndex);
-            addEdgesToQueue(queue, randomPixelIndex, adjacencyList, visitedIndexes);
-        }
-
-        while (visitedIndexes.size() < pixelCount) {
-            Edge minEdge = queue.poll();
-            while (minEdge != null && visitedIndexes.contains(minEdge.getTo())) {
-                minEdge = queue.poll();
-            }
-            if (minEdge == null) {
-                break;
-            }
-
-            int originPixelIndex = minEdge.getFrom();
-            int minPixelIndex = minEdge.getTo();
-            visitedIndexes.add(minPixelIndex);
-            addEdgesToQueue(queue, minPixelIndex, adjacencyList, visitedIndexes);
-
-            if (chromosome.get(originPixelIndex) == 0) {
-                int graphDirection = getGraphDirection(originPixelIndex, minPixelIndex, imageHeight, imageWidth);
-                chromosome.set(originPixelIndex, graphDirection);
-            } else {
-                int graphDirection = getGraphDirection(minPixelIndex, originPixelIndex, imageHeight, imageWidth);
-                chromosome.set(minPixelIndex, graphDirection);
-            }
-        }
-        return chromosome;
+    public Double getWeightedFitness() {
+        Parameters parameters = this.context.getParameters();
+        return parameters.edgeWeight * this.getEdgeValue() - parameters.connectivityWeight * this.getConnectivityMeasure() - parameters.deviationWeight * this.getOverallDeviation();
     }
 
     /**
-     * Adds the edges of a given node to a priority queue, if the destination node has not been visited.
-     *
-     * @param queue         The priority queue to add the edges to.
-     * @param node           The node whose edges are to be added to the queue.
-     * @param adjacencyList The adjacency list representing the graph.
-     * @param visited       The set of visited nodes.
+     * Resets the objective values of the individual, so that they are recalculated 
+     * the next time they are accessed. Not needed after changes to the genome, which
+     * reset the objective values by themselves.
      */
-    private void addEdgesToQueue(PriorityQueue<Edge> queue, int node, List<List<Edge>> adjacencyList, Set<Integer> visited) {
-        for (Edge edge : adjacencyList.get(node)) {
-            if (!visited.contains(edge.getTo())) {
-                queue.add(edge);
-            }
-        }
+    public void resetObjectiveValues() {
+        this.edgeValue = null;
+        this.connectivityMeasure = null;
+        this.overallDeviation = null;
     }
 
     /**
-     * Returns the direction of the edge from the origin pixel to the target pixel (Moore neighborhood).
-     * The direction is represented as an integer from 1 to 8, where 1 is right, 2 is left, 3 is up, 4 is down,
-     * 5 is top right, 6 is bottom right, 7 is top left, and 8 is bottom left.
-     * 
-     * @param originPixelIndex The index of the origin pixel in the image.
-     * @param targetPixel The index of the target pixel in the image.
-     * @param imageHeight The height of the image in pixels.
-     * @param imageWidth The length of the image in pixels.
-     * @return The direction of the edge from the origin pixel to the target pixel.
+     * Decodes the genome again if it has changed since the segmentation was made,
+     * i.e. if its version no longer matches the version stamp of the individual.
      */
-    public int getGraphDirection(int originPixelIndex, int targetPixel, int imageHeight, int imageWidth) {
-        int originRow = originPixelIndex / imageWidth;
-        int originCol = originPixelIndex % imageWidth;
-        
-        int targetRow = targetPixel / imageWidth;
-        int targetCol = targetPixel % imageWidth;
-        
-        if (targetRow == originRow - 1) {
-            if (targetCol == originCol - 1) {
-                return 7; // target is directly top left of origin
-            } else if (targetCol == originCol) {
-                return 3; // target is directly above origin
-            } else if (targetCol == originCol + 1) {
-                return 5; // target is directly top right of origin
-            }
-        } else if (targetRow == originRow) {
-            if (targetCol == originCol - 1) {
-                return 2; // target is directly left of origin
-            } else if (targetCol == originCol + 1) {
-                return 1; // target is directly right of origin
-            }
-        } else if (targetRow == originRow + 1) {
-            if (targetCol == originCol - 1) {
-                return 8; // target is directly bottom left of origin
-            } else if (targetCol == originCol) {
-                return 4; // target is directly below origin
-            } else if (targetCol == originCol + 1) {
-                return 6; // target is directly bottom right of origin
-            }
+    private void ensureCurrent() {
+        if (this.genome.getVersion() != this.genomeVersion) {
+            this.setSegments();
         }
-        
-        // If none of the above conditions match, the target is not a Moore neighbor of the origin
-        throw new IllegalArgumentException("Target pixel is not a Moore neighbor of the origin pixel");
     }
 
     /**
-     * Returns the indexes of the neighboring pixels of the pixel at index pixelIndex in the image (Moore neighborhood).
-     * 
-     * @param pixelIndex The index of the pixel in the image.
-     * @param imageHeight The height of the image in pixels.
-     * @param imageWidth The width of the image in pixels.
-     * @return A list of the indexes of the neighboring pixels of the pixel at index pixelIndex.
+     * Sets the segmentation of the individual based on the genome and image, and stamps it with the version
+     * of the genome. The objective values are recalculated, and the segment list and segment map rebuilt,
+     * on their next use.
      */
-    public List<Integer> getNeighboringPixelIndexes(int pixelIndex, int imageHeight, int imageWidth) {
-        if (pixelIndex < 0 || pixelIndex >= imageHeight * imageWidth) {
-            throw new IllegalArgumentException("Invalid pixel index");
-        }
-
-        List<Integer> neighbors = new ArrayList<>();
-        int row = pixelIndex / imageWidth;
-        int col = pixelIndex % imageWidth;
-
-        int[] offsets = {-1, 0, 1};
-
-        for (int rowOffset : offsets) {
-            for (int colOffset : offsets) {
-                int newRow = row + rowOffset;
-                int newCol = col + colOffset;
-
-                if (newRow >= 0 && newRow < imageHeight && newCol >= 0 && newCol < imageWidth) {
-                    int neighborIndex = newRow * imageWidth + newCol;
-                    if (neighborIndex != pixelIndex) {
-                        neighbors.add(neighborIndex);
-                    }
-                }
-            }
-        }
-        return neighbors;
+    private void setSegments() {
+        RunMetrics.Phase previous = this.context.getMetrics().enter(RunMetrics.Phase.SEGMENTATION);
+        this.genomeVersion = this.genome.getVersion();
+        this.resetObjectiveValues();
+        this.strips = SegmentStrips.of(this.genome, this.context.getImage().getNeighborWeights());
+        this.segmentation = this.strips.toSegmentation(this.genome);
+        this.segments = null;
+        this.segmentMap = null;
+        this.context.getMetrics().exit(previous);
     }
 
- 
     /**
-     * Sets the segments of the individual based on the chromosome and image.
+     * Sets the segment list of the individual from the segmentation.
      * Each segment is represented as a set of pixels.
      */
-    private void setSegments() {
-        int pixelCount = this.chromosome.size();
-        DisjointSet ds = new DisjointSet(pixelCount);
-
-        for (int i = 0; i < pixelCount; i++) {
-            int neighbor = getNeighborFromGraph(i, Parameters.IMAGE.getImageHeight(), Parameters.IMAGE.getImageWith(), chromosome.get(i));
-            if (neighbor != -1) {
-                ds.union(i, neighbor);
+    private void setSegmentList() {
+        int[] segmentOffsets = this.segmentation.getSegmentOffsets();
+        int[] segmentPixels = this.segmentation.getSegmentPixels();
+        List<Set<Integer>> segments = new ArrayList<>(this.segmentation.getSegmentCount());
+        for (int s = 0; s < this.segmentation.getLabelCount(); s++) {
+            if (this.segmentation.getSegmentSize(s) == 0) {
+                continue;
             }
+            Set<Integer> segment = new HashSet<>();
+            for (int i = segmentOffsets[s]; i < segmentOffsets[s + 1]; i++) {
+                segment.add(segmentPixels[i]);
+            }
+            segments.add(segment);
         }
-
-        Map<Integer, Set<Integer>> segmentsMap = new HashMap<>();
-        for (int i = 0; i < pixelCount; i++) {
-            int root = ds.find(i);
-            segmentsMap.computeIfAbsent(root, k -> new HashSet<>()).add(i);
-        }
-
-        this.segments = new ArrayList<>(segmentsMap.values());
+        this.segments = segments;
     }
 
     /**
      * Sets the segment map for the individual.
-     * The segment map is a mapping of each pixel to its corresponding segment index.
-     * This method iterates over each segment and assigns the segment index to each pixel in the segment.
+     * The segment map is a mapping of each pixel to its corresponding segment index, i.e. the position of
+     * its segment in the segment list. Labels left unused by single gene changes are skipped, as in the
+     * segment list.
      */
     private void setSegmentMap() {
-        this.segmentMap = new HashMap<>();
-        for (int i = 0; i < this.segments.size(); i++) {
-            for (int pixel : this.segments.get(i)) {
-                this.segmentMap.put(pixel, i);
+        int[] labels = this.segmentation.getLabels();
+        int[] positions = new int[this.segmentation.getLabelCount()];
+        int position = 0;
+        for (int s = 0; s < positions.length; s++) {
+            if (this.segmentation.getSegmentSize(s) > 0) {
+                positions[s] = position++;
             }
         }
-    }
-
-    /**
-     * Returns the index of the neighboring pixel of the pixel at index pixelIndex in the image based on the direction.
-     * The direction is represented as an integer from 1 to 8, where 1 is right, 2 is left, 3 is up, 4 is down,
-     * 5 is top right, 6 is bottom right, 7 is top left, and 8 is bottom left.
-     * 
-     * @param pixelIndex The index of the pixel in the image.
-     * @param imageHeight The height of the image in pixels.
-     * @param imageWidth The length of the image in pixels.
-     * @param direction The direction of the neighboring pixel.
-     * @return The index of the neighboring pixel of the pixel at index pixelIndex based on the direction.
-     */
-    private int getNeighborFromGraph(int pixelIndex, int imageHeight, int imageWidth, int direction) {
-        int row = pixelIndex / imageWidth;
-        int col = pixelIndex % imageWidth;
-
-        switch (direction) {
-            case 1: // right
-                if (col + 1 < imageWidth) {
-                    return pixelIndex + 1;
-                }
-                break;
-            case 2: // left
-                if (col - 1 >= 0) {
-                    return pixelIndex - 1;
-                }
-                break;
-            case 3: // up
-                if (row - 1 >= 0) {
-                    return pixelIndex - imageWidth;
-                }
-                break;
-            case 4: // down
-                if (row + 1 < imageHeight) {
-                    return pixelIndex + imageWidth;
-                }
-                break;
-            case 5: // top right
-                if (row - 1 >= 0 && col + 1 < imageWidth) {
-                    return pixelIndex - imageWidth + 1;
-                }
-                break;
-            case 6: // bottom right
-                if (row + 1 < imageHeight && col + 1 < imageWidth) {
-                    return pixelIndex + imageWidth + 1;
-                }
-                break;
-            case 7: // top left
-                if (row - 1 >= 0 && col - 1 >= 0) {
-                    return pixelIndex - imageWidth - 1;
-                }
-                break;
-            case 8: // bottom left
-                if (row + 1 < imageHeight && col - 1 >= 0) {
-                    return pixelIndex + imageWidth - 1;
-                }
-                break;
-            default:
-                return -1;
-        }
-
-        return -1;
-    }
-
-    class DisjointSet {
-        private int[] parent;
-        private int[] rank;
-    
-        public DisjointSet(int size) {
-            parent = new int[size];
-            rank = new int[size];
-            for (int i = 0; i < size; i++) {
-                parent[i] = i;
-                rank[i] = 0;
-            }
-        }
-    
-        public int find(int x) {
-            if (parent[x] != x) {
-                parent[x] = find(parent[x]);
-            }
-            return parent[x];
-        }
-    
-        public void union(int x, int y) {
-            int xRoot = find(x);
-            int yRoot = find(y);
-            if (xRoot == yRoot) {
-                return;
-            }
-            if (rank[xRoot] < rank[yRoot]) {
-                parent[xRoot] = yRoot;
-            } else if (rank[xRoot] > rank[yRoot]) {
-                parent[yRoot] = xRoot;
-            } else {
-                parent[yRoot] = xRoot;
-                rank[xRoot]++;
-            }
+        Map<Integer, Integer> segmentMap = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            segmentMap.put(i, positions[labels[i]]);
         }
+        this.segmentMap = segmentMap;
     }
 
     public static void main(String[] args) {
         String imagePath = "training_images/118035/Test image.jpg";
-        Image image = new Image(imagePath);
-        Parameters.IMAGE = image;
-        Individual individual = new Individual(5);
+        Parameters parameters = new Parameters();
+        parameters.image = new Image(imagePath);
+        Individual individual = new Individual(new RunContext(parameters), 5);
         System.out.println(individual.getSegmentMap());
     }
 }
@@ -0,0 +1,203 @@
+package com.p3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.p3.interfaces.MigrationTransport;
+
+/**
+ * Class for running the NSGA-II algorithm as an island model.
+ *
+ * Every island evolves its own population of populationSize individuals on its own thread, one generation at
+ * a time by NSGAII.evolve. Every migrationInterval generations, an island sends copies of the migrantCount least
+ * crowded individuals of its first Pareto front to its neighbors in the migration topology, and takes in the
+ * migrants that have arrived from its neighbors. The migrants join the population before survivor selection,
+ * so they only stay if they are good enough.
+ *
+ * The migrants are passed through a MigrationTransport, which never makes an island wait for another: migrants
+ * that arrive after an island has taken in its migrants are taken in at its next migration. In a single process,
+ * the islands pass copies of their migrants through lock-free queues, and share the run context, i.e. the image,
+ * the operators and the evaluation counters. MultiProcessNSGAII runs every island in its own process instead.
+ *
+ * At the end, the populations of all islands are merged, and the first Pareto front of the merged population
+ * is written to files as by NSGAII.
+ */
+public class IslandNSGAII {
+
+    // Private constructor to prevent instantiation
+    private IslandNSGAII() {
+        throw new UnsupportedOperationException("IslandNSGAII is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Run the island model of the NSGA-II algorithm and write the results.
+     *
+     * @param context The run context, holding the image and the parameters of the run.
+     * @return A future that completes when the results have been written.
+     */
+    public static CompletableFuture<Void> runGA(RunContext context) {
+        Population population = evolveIslands(context);
+
+        System.out.println("Size of first pareto front of all islands: " +
+            NSGAII.getNonDominatedIndividuals(population).size());
+
+        population = NSGAII.reduceToUniqueIndividuals(population);
+        CompletableFuture<Void> results = NSGAII.writeResults(population);
+        NSGAII.printFinalResults(population);
+        return results;
+    }
+
+    /**
+     * Evolves the islands for the given number of generations, each island on its own thread.
+     *
+     * @param context The run context, holding the image and the parameters of the run.
+     * @return The merged final populations of all islands.
+     */
+    public static Population evolveIslands(RunContext context) {
+        int islandCount = Math.max(1, context.getParameters().islandCount);
+        QueueMigrationTransport[] transports = QueueMigrationTransport.connect(islandCount);
+
+        ExecutorService executor = Executors.newFixedThreadPool(islandCount);
+        try {
+            List<Future<Population>> islands = new ArrayList<>();
+            for (int i = 0; i < islandCount; i++) {
+                int island = i;
+                islands.add(executor.submit(() -> evolveIsland(context, island, islandCount, transports[island])));
+            }
+
+            List<Individual> individuals = new ArrayList<>();
+            for (Future<Population> island : islands) {
+                individuals.addAll(island.get().getIndividuals());
+            }
+            return new Population(context, individuals);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the islands", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("An island failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Evolves the population of one island, exchanging migrants with its neighbors through a transport.
+     *
+     * @param context The run context of the island.
+     * @param island The index of the island.
+     * @param islandCount The number of islands.
+     * @param transport The transport of the island.
+     * @return The final population of the island.
+     */
+    static Population evolveIsland(RunContext context, int island, int islandCount, MigrationTransport transport) {
+        Parameters parameters = context.getParameters();
+        int[] neighbors = getNeighbors(parameters.migrationTopology, island, islandCount);
+
+        Population population = new Population(context);
+        PopulationEvaluator.evaluate(context, population.getIndividuals());
+
+        for (int gen = 1; gen <= parameters.generations; gen++) {
+            population = NSGAII.evolve(population);
+
+            if (parameters.migrationInterval > 0 && gen % parameters.migrationInterval == 0 && neighbors.length > 0) {
+                List<Individual> migrants = getMigrants(population, parameters.migrantCount);
+                for (int neighbor : neighbors) {
+                    transport.send(neighbor, migrants);
+                }
+
+                List<Individual> immigrants = transport.receive(context);
+                if (!immigrants.isEmpty()) {
+                    population = SurvivorSelector.selectSurvivors(
+                        new Population(population, new Population(context, immigrants)));
+                }
+                System.out.println("Island " + island + " - Gen " + gen + " - Immigrants: " + immigrants.size()
+                    + " - Size of first pareto front: " + population.getSelectionContext().getFront(0).length);
+            }
+        }
+        return population;
+    }
+
+    /**
+     * Returns the migrants of a population, i.e. up to migrantCount individuals of its first Pareto front,
+     * those with the largest crowding distance first.
+     *
+     * @param population The population.
+     * @param migrantCount The largest number of migrants.
+     * @return The migrants of the population.
+     */
+    static List<Individual> getMigrants(Population population, int migrantCount) {
+        SelectionContext context = population.getSelectionContext();
+        int[] front = context.getFront(0);
+        Integer[] sortedFront = new Integer[front.length];
+        for (int i = 0; i < front.length; i++) {
+            sortedFront[i] = front[i];
+        }
+        Arrays.sort(sortedFront, Comparator.comparingDouble((Integer i) -> context.getCrowdingDistance(i)).reversed());
+
+        List<Individual> migrants = new ArrayList<>();
+        for (int i = 0; i < Math.min(migrantCount, sortedFront.length); i++) {
+            migrants.add(context.getIndividual(sortedFront[i]));
+        }
+        return migrants;
+    }
+
+    /**
+     * Returns the islands that receive the migrants of an island.
+     *
+     * @param topology The migration topology.
+     * @param island The index of the island.
+     * @param islandCount The number of islands.
+     * @return The indexes of the receiving islands.
+     */
+    static int[] getNeighbors(MigrationTopology topology, int island, int islandCount) {
+        if (islandCount <= 1) {
+            return new int[0];
+        }
+        switch (topology) {
+            case RING:
+                return new int[] {(island + 1) % islandCount};
+            case FULLY_CONNECTED:
+                int[] neighbors = new int[islandCount - 1];
+                for (int i = 0, k = 0; i < islandCount; i++) {
+                    if (i != island) {
+                        neighbors[k++] = i;
+                    }
+                }
+                return neighbors;
+            default:
+                throw new IllegalArgumentException("Unknown migration topology: " + topology);
+        }
+    }
+
+    public static void main(String[] args) {
+        Parameters parameters = new Parameters();
+        parameters.imageName = "86016";
+        parameters.image = Image.load("training_images/" + parameters.imageName + "/Test image.jpg");
+        parameters.segmentsLowerBound = 4;
+        parameters.segmentsUpperBound = 41;
+        parameters.populationSize = 100;
+        parameters.parentSelector = new TournamentParentSelector();
+        parameters.tournamentSize = 7;
+        parameters.isTournamentReplacementAllowed = false;
+        parameters.generations = 50;
+        parameters.crossoverHandler = new OnePointCrosser();
+        parameters.mutationProbability = 0.9;
+        parameters.mutationStepSize = 7;
+        parameters.mutationHandler = new StudassMutator();
+        // One island per processor, each evolved on its own thread only
+        parameters.islandCount = Runtime.getRuntime().availableProcessors();
+        parameters.threads = 1;
+        parameters.migrationInterval = 5;
+        parameters.migrantCount = 2;
+        parameters.migrationTopology = MigrationTopology.RING;
+
+        IslandNSGAII.runGA(new RunContext(parameters)).join();
+    }
+}
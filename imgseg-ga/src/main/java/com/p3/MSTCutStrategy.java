@@ -0,0 +1,23 @@
+package com.p3;
+
+/**
+ * The ways of choosing the edges to remove from the minimum spanning tree of the image,
+ * when creating the initial individuals (see MinimumSpanningTree).
+ */
+public enum MSTCutStrategy {
+
+    /**
+     * Removes edges chosen at random.
+     */
+    RANDOM,
+
+    /**
+     * Removes the heaviest edges, i.e. the edges between the most different neighboring pixels.
+     */
+    HEAVIEST,
+
+    /**
+     * Removes half of the edges by the HEAVIEST strategy and the rest by the RANDOM strategy.
+     */
+    MIXED
+}
@@ -0,0 +1,18 @@
+package com.p3;
+
+/**
+ * The ways of connecting the islands of the island model (see IslandNSGAII),
+ * i.e. which islands receive the migrants of an island.
+ */
+public enum MigrationTopology {
+
+    /**
+     * Every island sends its migrants to the next island, and the last island to the first.
+     */
+    RING,
+
+    /**
+     * Every island sends its migrants to all other islands.
+     */
+    FULLY_CONNECTED
+}
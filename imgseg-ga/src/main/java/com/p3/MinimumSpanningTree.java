@@ -0,0 +1,90 @@
+package com.p3;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The minimum spanning tree (MST) of an image, computed once with Prim's algorithm and shared by all
+ * individuals of the initial population (see Image.getMinimumSpanningTree()).
+ *
+ * The tree is rooted at the first pixel and encoded in a genome where every other pixel points to its parent.
+ * Removing k - 1 edges from the tree gives k trees, i.e. k segments, so an individual with k segments is made
+ * by copying the genome and clearing the genes of k - 1 pixels, in time proportional to the number of pixels.
+ */
+public final class MinimumSpanningTree {
+
+    private final Genome genome;
+    private final int[] heaviestFirst;
+
+    /**
+     * Computes the minimum spanning tree of an image.
+     *
+     * @param image The image.
+     */
+    MinimumSpanningTree(Image image) {
+        NeighborWeights neighborWeights = image.getNeighborWeights();
+        this.genome = PrimMST.build(neighborWeights, new int[] {0});
+        int pixelCount = genome.length();
+
+        // The pixels other than the root, ordered by the weight of the edge to their parent, heaviest first
+        double[] weights = new double[pixelCount];
+        Integer[] order = new Integer[pixelCount - 1];
+        for (int i = 1; i < pixelCount; i++) {
+            weights[i] = neighborWeights.getWeight(neighborWeights.toPadded(i), genome.get(i));
+            order[i - 1] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> Double.compare(weights[i2], weights[i1]));
+        this.heaviestFirst = new int[order.length];
+        for (int k = 0; k < order.length; k++) {
+            heaviestFirst[k] = order[k];
+        }
+    }
+
+    /**
+     * Returns the approximate size of the tree in memory, i.e. of its genome and the order of its edges.
+     *
+     * @return The size in bytes.
+     */
+    long getSizeBytes() {
+        return genome.length() + (long) heaviestFirst.length * Integer.BYTES;
+    }
+
+    /**
+     * Returns a genome encoding the tree, with edges removed so that it consists of the given number of segments.
+     *
+     * @param segmentCount The number of segments, at least 1.
+     * @param strategy The strategy for choosing the edges to remove.
+     * @param random The source of randomness for the RANDOM and MIXED strategies.
+     * @return A new genome with the given number of segments.
+     */
+    public Genome cut(int segmentCount, MSTCutStrategy strategy, Random random) {
+        Genome cutGenome = genome.copy();
+        int cuts = Math.max(0, Math.min(segmentCount - 1, heaviestFirst.length));
+
+        int heaviestCuts;
+        switch (strategy) {
+            case HEAVIEST:
+                heaviestCuts = cuts;
+                break;
+            case MIXED:
+                heaviestCuts = cuts / 2;
+                break;
+            default:
+                heaviestCuts = 0;
+                break;
+        }
+
+        for (int k = 0; k < heaviestCuts; k++) {
+            cutGenome.set(heaviestFirst[k], 0);
+        }
+        // Pixels without an edge are the root and the pixels already cut off, so they are skipped
+        for (int k = heaviestCuts; k < cuts; k++) {
+            int pixel = random.nextInt(cutGenome.length());
+            while (cutGenome.get(pixel) == 0) {
+                pixel = random.nextInt(cutGenome.length());
+            }
+            cutGenome.set(pixel, 0);
+        }
+        return cutGenome;
+    }
+}
@@ -0,0 +1,329 @@
+package com.p3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import com.p3.interfaces.MigrationTransport;
+
+/**
+ * Class for running the island model of the NSGA-II algorithm with every island in its own process,
+ * so that the islands are not limited to the memory and processors of one JVM.
+ *
+ * The coordinator writes the parameters and the pixels of the image to a work directory, and starts one JVM
+ * per island with the same class path. Every island evolves as by IslandNSGAII, and exchanges migrants with the
+ * other islands over TCP on the loopback interface or through files in the work directory. The migrants are sent
+ * in the compact encoding of GenomeCodec, with their objective values, so they are not evaluated again.
+ * When all islands have finished, the coordinator merges their final populations and writes the first Pareto
+ * front as by NSGAII.
+ *
+ * The output of every island is written to island-i.log in the work directory.
+ */
+public class MultiProcessNSGAII {
+
+    /**
+     * The transport of the migrants between the island processes.
+     */
+    public enum Transport {
+        /** TCP connections on the loopback interface, one port per island. */
+        TCP,
+        /** Files in inbox directories of the islands in the work directory. */
+        DIRECTORY
+    }
+
+    private static final String ISLAND_ARGUMENT = "island";
+    private static final String PROPERTIES_FILE = "run.properties";
+    private static final String IMAGE_FILE = "image.pixels";
+    private static final String MIGRATION_DIRECTORY = "migration";
+
+    // Private constructor to prevent instantiation
+    private MultiProcessNSGAII() {
+        throw new UnsupportedOperationException("MultiProcessNSGAII is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Run the island model with every island in its own process, and write the results.
+     *
+     * @param context The run context, holding the image and the parameters of the run.
+     * @param transport The transport of the migrants between the islands.
+     * @param workDirectory The directory for the files of the run.
+     * @return A future that completes when the results have been written.
+     */
+    public static CompletableFuture<Void> runGA(RunContext context, Transport transport, Path workDirectory) {
+        Population population = evolveIslands(context, transport, workDirectory);
+
+        System.out.println("Size of first pareto front of all islands: " +
+            NSGAII.getNonDominatedIndividuals(population).size());
+
+        population = NSGAII.reduceToUniqueIndividuals(population);
+        CompletableFuture<Void> results = NSGAII.writeResults(population);
+        NSGAII.printFinalResults(population);
+        return results;
+    }
+
+    /**
+     * Starts a process for every island, waits for all of them to finish and merges their final populations.
+     *
+     * @param context The run context, holding the image and the parameters of the run.
+     * @param transport The transport of the migrants between the islands.
+     * @param workDirectory The directory for the files of the run.
+     * @return The merged final populations of all islands.
+     * @throws IllegalStateException If an island process fails.
+     */
+    public static Population evolveIslands(RunContext context, Transport transport, Path workDirectory) {
+        int islandCount = Math.max(1, context.getParameters().islandCount);
+        try {
+            Files.createDirectories(workDirectory);
+            deleteFilesOfPreviousRun(workDirectory, islandCount);
+            writeImage(context.getImage(), workDirectory.resolve(IMAGE_FILE));
+            writeProperties(context.getParameters(), transport, islandCount, workDirectory.resolve(PROPERTIES_FILE));
+
+            List<Process> processes = new ArrayList<>();
+            for (int i = 0; i < islandCount; i++) {
+                processes.add(startIsland(workDirectory, i));
+            }
+
+            List<Individual> individuals = new ArrayList<>();
+            for (int i = 0; i < islandCount; i++) {
+                int exitCode = processes.get(i).waitFor();
+                if (exitCode != 0) {
+                    for (Process process : processes) {
+                        process.destroy();
+                    }
+                    throw new IllegalStateException("Island " + i + " failed with exit code " + exitCode
+                        + ", see " + getLogFile(workDirectory, i));
+                }
+                byte[] bytes = Files.readAllBytes(getPopulationFile(workDirectory, i));
+                individuals.addAll(GenomeCodec.decodeIndividuals(context, bytes));
+            }
+            return new Population(context, individuals);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not run the islands in " + workDirectory, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the islands", e);
+        }
+    }
+
+    /**
+     * Deletes the final populations and the undelivered migrants of a previous run in the work directory,
+     * so that they are not mistaken for those of this run.
+     *
+     * @param workDirectory The directory for the files of the run.
+     * @param islandCount The number of islands.
+     * @throws IOException If a file cannot be deleted.
+     */
+    private static void deleteFilesOfPreviousRun(Path workDirectory, int islandCount) throws IOException {
+        for (int i = 0; i < islandCount; i++) {
+            Files.deleteIfExists(getPopulationFile(workDirectory, i));
+        }
+        Path migrationDirectory = workDirectory.resolve(MIGRATION_DIRECTORY);
+        if (Files.isDirectory(migrationDirectory)) {
+            List<Path> paths = new ArrayList<>();
+            try (Stream<Path> stream = Files.walk(migrationDirectory)) {
+                stream.forEach(paths::add);
+            }
+            // Files before the directories holding them
+            Collections.reverse(paths);
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Starts the process of an island, with the same JVM and class path as this process.
+     *
+     * @param workDirectory The directory for the files of the run.
+     * @param island The index of the island.
+     * @return The process of the island.
+     * @throws IOException If the process cannot be started.
+     */
+    private static Process startIsland(Path workDirectory, int island) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+            MultiProcessNSGAII.class.getName(), ISLAND_ARGUMENT, workDirectory.toAbsolutePath().toString(),
+            Integer.toString(island));
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(getLogFile(workDirectory, island).toFile());
+        return builder.start();
+    }
+
+    /**
+     * Runs one island in this process, and writes its final population to the work directory.
+     *
+     * @param workDirectory The directory for the files of the run, written by the coordinator.
+     * @param island The index of the island.
+     * @throws IOException If the files of the run cannot be read or written.
+     */
+    static void runIsland(Path workDirectory, int island) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(workDirectory.resolve(PROPERTIES_FILE))) {
+            properties.load(in);
+        }
+        Parameters parameters = Parameters.fromProperties(properties);
+        parameters.image = readImage(workDirectory.resolve(IMAGE_FILE));
+        RunContext context = new RunContext(parameters);
+
+        int islandCount = Integer.parseInt(properties.getProperty("islandCount"));
+        Transport transport = Transport.valueOf(properties.getProperty("transport"));
+        Population population;
+        try (MigrationTransport migrationTransport = createTransport(transport, island, properties, workDirectory)) {
+            population = IslandNSGAII.evolveIsland(context, island, islandCount, migrationTransport);
+        }
+
+        // Written under a temporary name first, so the coordinator never reads a partly written population
+        Path populationFile = getPopulationFile(workDirectory, island);
+        Path temporary = populationFile.resolveSibling(populationFile.getFileName() + ".tmp");
+        Files.write(temporary, GenomeCodec.encodeIndividuals(population.getIndividuals()));
+        Files.move(temporary, populationFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Creates the migration transport of an island.
+     *
+     * @param transport The transport of the run.
+     * @param island The index of the island.
+     * @param properties The properties of the run, holding the ports of the islands.
+     * @param workDirectory The directory for the files of the run.
+     * @return The migration transport of the island.
+     */
+    private static MigrationTransport createTransport(Transport transport, int island, Properties properties, Path workDirectory) {
+        switch (transport) {
+            case TCP:
+                String[] portValues = properties.getProperty("ports").split(",");
+                int[] ports = new int[portValues.length];
+                for (int i = 0; i < ports.length; i++) {
+                    ports[i] = Integer.parseInt(portValues[i]);
+                }
+                return new SocketMigrationTransport(island, ports);
+            case DIRECTORY:
+                return new DirectoryMigrationTransport(island, workDirectory.resolve(MIGRATION_DIRECTORY));
+            default:
+                throw new IllegalArgumentException("Unknown transport: " + transport);
+        }
+    }
+
+    /**
+     * Writes the parameters of the run to a properties file, with the transport of the migrants.
+     *
+     * @param parameters The parameters of the run.
+     * @param transport The transport of the migrants between the islands.
+     * @param islandCount The number of islands.
+     * @param file The properties file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeProperties(Parameters parameters, Transport transport, int islandCount, Path file) throws IOException {
+        Properties properties = parameters.toProperties();
+        properties.setProperty("islandCount", Integer.toString(islandCount));
+        properties.setProperty("transport", transport.name());
+        if (transport == Transport.TCP) {
+            StringBuilder ports = new StringBuilder();
+            for (int port : SocketMigrationTransport.findFreePorts(islandCount)) {
+                ports.append(ports.length() > 0 ? "," : "").append(port);
+            }
+            properties.setProperty("ports", ports.toString());
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            properties.store(out, "Parameters of a multi-process island run");
+        }
+    }
+
+    /**
+     * Writes the pixels of an image, so that all islands segment exactly the same pixels.
+     *
+     * @param image The image.
+     * @param file The file to write to.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeImage(Image image, Path file) throws IOException {
+        int[] pixels = image.getPixels();
+        ByteBuffer buffer = ByteBuffer.allocate((2 + pixels.length) * Integer.BYTES);
+        buffer.putInt(image.getImageHeight());
+        buffer.putInt(image.getImageWith());
+        buffer.asIntBuffer().put(pixels);
+        Files.write(file, buffer.array());
+    }
+
+    /**
+     * Reads the pixels of an image, written by writeImage.
+     *
+     * @param file The file to read from.
+     * @return The image.
+     * @throws IOException If the file cannot be read.
+     */
+    private static Image readImage(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int imageHeight = buffer.getInt();
+        int imageWidth = buffer.getInt();
+        int[] pixels = new int[imageHeight * imageWidth];
+        buffer.asIntBuffer().get(pixels);
+        return new Image(pixels, imageHeight, imageWidth);
+    }
+
+    /**
+     * Returns the file the output of an island is written to.
+     *
+     * @param workDirectory The directory for the files of the run.
+     * @param island The index of the island.
+     * @return The log file of the island.
+     */
+    private static Path getLogFile(Path workDirectory, int island) {
+        return workDirectory.resolve("island-" + island + ".log");
+    }
+
+    /**
+     * Returns the file the final population of an island is written to.
+     *
+     * @param workDirectory The directory for the files of the run.
+     * @param island The index of the island.
+     * @return The population file of the island.
+     */
+    private static Path getPopulationFile(Path workDirectory, int island) {
+        return workDirectory.resolve("island-" + island + ".population");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals(ISLAND_ARGUMENT)) {
+            runIsland(Paths.get(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+
+        Parameters parameters = new Parameters();
+        parameters.imageName = "86016";
+        parameters.image = Image.load("training_images/" + parameters.imageName + "/Test image.jpg");
+        parameters.segmentsLowerBound = 4;
+        parameters.segmentsUpperBound = 41;
+        parameters.populationSize = 100;
+        parameters.parentSelector = new TournamentParentSelector();
+        parameters.tournamentSize = 7;
+        parameters.isTournamentReplacementAllowed = false;
+        parameters.generations = 50;
+        parameters.crossoverHandler = new OnePointCrosser();
+        parameters.mutationProbability = 0.9;
+        parameters.mutationStepSize = 7;
+        parameters.mutationHandler = new StudassMutator();
+        // One island process per processor, each evolved on its own thread only
+        parameters.islandCount = Runtime.getRuntime().availableProcessors();
+        parameters.threads = 1;
+        parameters.migrationInterval = 5;
+        parameters.migrantCount = 2;
+        parameters.migrationTopology = MigrationTopology.RING;
+
+        Transport transport = args.length > 0 ? Transport.valueOf(args[0]) : Transport.TCP;
+        MultiProcessNSGAII.runGA(new RunContext(parameters), transport,
+            Paths.get("islands_MOEA", parameters.imageName)).join();
+    }
+}
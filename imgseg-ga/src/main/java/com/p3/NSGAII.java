@@ -2,32 +2,81 @@ package com.p3;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.io.File;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Class for running our second version of the NSGA-II algorithm.
  */
 public class NSGAII {
 
+    static final String CHECKPOINT_ALGORITHM = "NSGAII";
+
     /**
-     * Run the NSGA-II algorithm.
+     * Run the NSGA-II algorithm. Runs with different run contexts are independent of each other,
+     * and can be run at the same time on different threads. If the checkpoint interval of the parameters
+     * is set, a checkpoint of the run is written every checkpointInterval generations. If the metrics file
+     * of the parameters is set, the metrics of every generation are written to it (see RunMetrics).
      * 
-     * NB! The parameters in the Parameters class must be set before running this method.
+     * @param context The run context, holding the image and the parameters of the run.
+     * @return A future that completes when the results have been written.
      */
-    public static void runGA() {
-        Population population = new Population();
+    public static CompletableFuture<Void> runGA(RunContext context) {
+        Population population = new Population(context);
+        PopulationEvaluator.evaluate(context, population.getIndividuals());
         System.out.println("Initial population generated");
 
-        for (int gen = 1; gen <= Parameters.GENERATIONS; gen++) {
+        return runGA(population, 0);
+    }
+
+    /**
+     * Resume a run of the NSGA-II algorithm from a checkpoint, without evaluating the checkpointed
+     * population again.
+     *
+     * @param checkpointFile The checkpoint file written by the run.
+     * @return A future that completes when the results have been written.
+     * @throws IllegalArgumentException If the checkpoint was not written by a run of the NSGA-II algorithm.
+     */
+    public static CompletableFuture<Void> resumeGA(Path checkpointFile) {
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+        if (!CHECKPOINT_ALGORITHM.equals(checkpoint.getAlgorithm())) {
+            throw new IllegalArgumentException(checkpointFile + " is a checkpoint of " + checkpoint.getAlgorithm() + ", not of " + CHECKPOINT_ALGORITHM);
+        }
+        System.out.println("Resuming from checkpoint of generation " + checkpoint.getGeneration());
+        return runGA(checkpoint.getPopulation(), checkpoint.getGeneration());
+    }
+
+    /**
+     * Evolves an evaluated population for the remaining generations of the run, writing checkpoints
+     * and metrics as set by the parameters, and writes the results.
+     *
+     * @param population The evaluated population after the completed generations.
+     * @param completedGenerations The number of completed generations.
+     * @return A future that completes when the results have been written.
+     */
+    static CompletableFuture<Void> runGA(Population population, int completedGenerations) {
+        RunContext context = population.getContext();
+        Parameters parameters = context.getParameters();
+        RunMetrics metrics = context.getMetrics();
+        for (int gen = completedGenerations + 1; gen <= parameters.generations; gen++) {
 
             printStats(population, gen);
+            long evaluationCount = context.getEvaluationCount();
+            long incrementalEvaluationCount = context.getIncrementalEvaluationCount();
             
-            Population parents = Parameters.PARENT_SELECTOR.selectParents(population); 
-            Population offspring = OffspringGenerator.generateOffspring(parents);
-            population = new Population(parents, offspring);
-            population = SurvivorSelector.selectSurvivors(population);
+            metrics.startGeneration(gen);
+            population = evolve(population);
+            metrics.endGeneration();
+
+            printEvaluations(gen, context.getEvaluationCount() - evaluationCount,
+                context.getIncrementalEvaluationCount() - incrementalEvaluationCount);
+            Checkpoint.writeIfDue(CHECKPOINT_ALGORITHM, gen, population);
         }
+        metrics.write();
 
         System.out.println("Size of first pareto front before population reduction: " +
             getNonDominatedIndividuals(population).size());
@@ -36,8 +85,35 @@ public class NSGAII {
             getNonDominatedIndividuals(population).size());
 
         population = reduceToUniqueIndividuals(population);
-        writeResults(population);
+        CompletableFuture<Void> results = writeResults(population);
         printFinalResults(population);
+        return results;
+    }
+
+    /**
+     * Evolves a population by one generation: selects parents, creates and evaluates their offspring,
+     * and selects the survivors among the parents and the offspring.
+     * 
+     * @param population the evaluated population of the current generation.
+     * @return the evaluated population of the next generation.
+     */
+    public static Population evolve(Population population) {
+        RunContext context = population.getContext();
+        RunMetrics metrics = context.getMetrics();
+        RunMetrics.Phase previous = metrics.enter(RunMetrics.Phase.PARENT_SELECTION);
+        Population parents = context.getParameters().parentSelector.selectParents(population);
+        metrics.exit(previous);
+
+        Population offspring = OffspringGenerator.generateOffspring(parents);
+        PopulationEvaluator.evaluate(context, offspring.getIndividuals());
+
+        Population parentsAndOffspring = new Population(parents, offspring);
+        metrics.enter(RunMetrics.Phase.SORTING);
+        parentsAndOffspring.getSelectionContext();
+        metrics.enter(RunMetrics.Phase.SURVIVOR_SELECTION);
+        Population survivors = SurvivorSelector.selectSurvivors(parentsAndOffspring);
+        metrics.exit(previous);
+        return survivors;
     }
 
     /**
@@ -46,8 +122,8 @@ public class NSGAII {
      * @param population the population.
      * @return a list of non-dominated individuals.
      */
-    private static List<Individual> getNonDominatedIndividuals(Population population) {
-        return ObjectiveFunctions.getParetoFronts(population.getIndividuals()).get(0);
+    static List<Individual> getNonDominatedIndividuals(Population population) {
+        return population.getSelectionContext().getFrontIndividuals(0);
     }
 
     /**
@@ -71,7 +147,7 @@ public class NSGAII {
             edgeValueValueSum += individual.getEdgeValue();
             connectivityMeasureSum += individual.getConnectivityMeasure();
             overallDeviationSum += individual.getOverallDeviation();
-            numSegmentsSum += individual.getSegments().size();
+            numSegmentsSum += individual.getSegmentCount();
         }
 
         DecimalFormat df = new DecimalFormat("#.###");
@@ -79,6 +155,17 @@ public class NSGAII {
         + " - Avg. best OD: " + df.format(overallDeviationSum / numInd) + " - Avg. best num segments: " + df.format(numSegmentsSum / numInd));
     }
 
+    /**
+     * Print the number of objective evaluations done during a generation.
+     * 
+     * @param generation the generation.
+     * @param evaluations the number of full evaluations.
+     * @param incrementalEvaluations the number of incremental updates after single gene changes.
+     */
+    private static void printEvaluations(int generation, long evaluations, long incrementalEvaluations) {
+        System.out.println("Gen " + generation + " - Evaluations: " + evaluations + " - Incremental evaluations: " + incrementalEvaluations);
+    }
+
     /**
      * Print the final results of the algorithm, i.e. the edge value, connectivity measure
      * and overall deviation of up to five individuals in the first pareto front of the
@@ -86,97 +173,73 @@ public class NSGAII {
      * 
      * @param population the final population.
      */
-    private static void printFinalResults(Population population) {
+    static void printFinalResults(Population population) {
         List<Individual> currentBestIndividuals = getNonDominatedIndividuals(population);
         int indCountToPrint = currentBestIndividuals.size() > 5 ? 5 : currentBestIndividuals.size();
         DecimalFormat df = new DecimalFormat("#.###");
         for (int i = 1; i <= indCountToPrint; i++) {
             Individual individual = currentBestIndividuals.get(i - 1);
-            System.out.println("Solution " + i + " - Edge value: " + df.format(ObjectiveFunctions.edgeValue(individual)) + ", Connectivity measure: " + df.format(ObjectiveFunctions.connectivityMeasure(individual)) + ", Overall deviation: " + df.format(ObjectiveFunctions.overallDeviation(individual)));
+            System.out.println("Solution " + i + " - Edge value: " + df.format(individual.getEdgeValue()) + ", Connectivity measure: " + df.format(individual.getConnectivityMeasure()) + ", Overall deviation: " + df.format(individual.getOverallDeviation()));
         }
     }
 
     /**
      * Writes the phenotype of the individuals in the first pareto front of the
-     * final population to files, i.e. the segmented images.
+     * final population to files, i.e. the segmented images. The images are written
+     * in the background by ResultWriter.
      * 
      * @param population the final population.
+     * @return a future that completes when all images have been written.
      */
-    private static void writeResults(Population population) {
+    static CompletableFuture<Void> writeResults(Population population) {
         List<Individual> currentBestIndividuals = getNonDominatedIndividuals(population);
-        
-        // Delete previous results of type 1
-        File type1Dir = new File("results_MOEA/" + Parameters.IMAGE_NAME + "/type_1/");
-        File[] type1Files = type1Dir != null ? type1Dir.listFiles() : null;
-        if (type1Files != null) {
-            for (File file : type1Files) {
-                file.delete();
-            }
-        }
-
-        // Delete previous results of type 2
-        File type2Dir = new File("results_MOEA/" + Parameters.IMAGE_NAME + "/type_2/");
-        File[] type2Files = type2Dir != null ? type2Dir.listFiles() : null;
-        if (type2Files != null) {
-            for (File file : type2Files) {
-                file.delete();
-            }
-        }
-
-        System.out.println("Writing results of segmentations of image " + Parameters.IMAGE_NAME + " to files...");
-        for (int i = 0; i < currentBestIndividuals.size(); i++) {
+        String imageName = population.getContext().getParameters().imageName;
 
-            // Make sure directories exist
-            if (!type1Dir.exists()) {
-                type1Dir.mkdirs();
-            }
-            if (!type2Dir.exists()) {
-                type2Dir.mkdirs();
-            }
-
-            Individual ind = currentBestIndividuals.get(i);
-            ImageReaderWriter.writeImageWithSegments("results_MOEA/" + Parameters.IMAGE_NAME + "/type_1/" + i + ".jpg", ind, false);
-            ImageReaderWriter.writeImageWithSegments("results_MOEA/" + Parameters.IMAGE_NAME + "/type_2/" + i + ".jpg", ind, true);
-        }
+        System.out.println("Writing results of segmentations of image " + imageName + " to files...");
+        return ResultWriter.writeResults("results_MOEA/" + imageName, currentBestIndividuals);
     }
 
     /**
-     * Reduces the population to unique individuals, i.e. individuals with unique chromosomes.
+     * Reduces the population to unique individuals, i.e. individuals with unique genomes.
      * 
      * @param population the population to reduce.
      * @return a new population with unique individuals.
      */
     public static Population reduceToUniqueIndividuals(Population population) {
-        List<List<Integer>> uniqueChromosomes = new ArrayList<>();
+        Set<Genome> uniqueGenomes = new HashSet<>();
+        List<Individual> uniqueIndividuals = new ArrayList<>();
         for (Individual individual : population.getIndividuals()) {
-            if (!uniqueChromosomes.contains(individual.getChromosome())) {
-                uniqueChromosomes.add(individual.getChromosome());
+            if (uniqueGenomes.add(individual.getGenome())) {
+                uniqueIndividuals.add(individual);
             }
         }
-        List<Individual> uniqueIndividuals = new ArrayList<>();
-        for (List<Integer> chromosome : uniqueChromosomes) {
-            uniqueIndividuals.add(new Individual(chromosome));
-        }
         System.out.println("Reduced population to " + uniqueIndividuals.size() + " unique individuals");
-        return new Population(uniqueIndividuals);
+        return new Population(population.getContext(), uniqueIndividuals);
     }
 
     public static void main(String[] args) {
-        Parameters.IMAGE_NAME = "86016";
-        Parameters.IMAGE = new Image("training_images/" + Parameters.IMAGE_NAME + "/Test image.jpg");
-        Parameters.SEGMENTS_LOWEBOUND = 4;
-        Parameters.SEGMENTS_UPPERBOUND = 41;
-        Parameters.POPULATION_SIZE = 100;
-        Parameters.PARENT_SELECTOR = new TournamentParentSelector();
-        Parameters.TOURNAMENT_SIZE = 7;
-        Parameters.IS_TOURNAMENT_REPLACEMENT_ALLOWED = false;
-        Parameters.GENERATIONS = 50;
-        Parameters.CROSSOVER_HANDLER = new OnePointCrosser();
-        Parameters.MUTATION_PROBABILITY = 0.9;
-        Parameters.MUTATION_STEP_SIZE = 7;
-        Parameters.MUTATION_HANDLER = new StudassMutator();
-
-        NSGAII.runGA();
+        // Resume the run from its checkpoint file if one is given
+        if (args.length > 0) {
+            NSGAII.resumeGA(Paths.get(args[0])).join();
+            return;
+        }
+
+        Parameters parameters = new Parameters();
+        parameters.imageName = "86016";
+        parameters.image = Image.load("training_images/" + parameters.imageName + "/Test image.jpg");
+        parameters.segmentsLowerBound = 4;
+        parameters.segmentsUpperBound = 41;
+        parameters.populationSize = 100;
+        parameters.parentSelector = new TournamentParentSelector();
+        parameters.tournamentSize = 7;
+        parameters.isTournamentReplacementAllowed = false;
+        parameters.generations = 50;
+        parameters.crossoverHandler = new OnePointCrosser();
+        parameters.mutationProbability = 0.9;
+        parameters.mutationStepSize = 7;
+        parameters.mutationHandler = new StudassMutator();
+
+        NSGAII.runGA(new RunContext(parameters)).join();
     }
     
 }
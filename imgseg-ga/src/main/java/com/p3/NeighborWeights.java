@@ -0,0 +1,208 @@
+package com.p3;
+
+import java.util.Arrays;
+
+/**
+ * Holds the weights of the edges between every pixel of an image and its eight neighbors (Moore neighborhood).
+ * The weight of an edge is the Euclidean distance between the RGB values of the two pixels.
+ *
+ * The table is laid out on a padded grid, i.e. the image surrounded by a border of one pixel on every side.
+ * Every pixel of the image therefore has eight neighbors in the padded grid, which lets neighbor loops step
+ * through fixed index offsets without bounds checks. Edges leading into the padding have a weight of 0.
+ *
+ * Directions follow the chromosome encoding: 1 is right, 2 is left, 3 is up, 4 is down, 5 is top right,
+ * 6 is bottom right, 7 is top left, and 8 is bottom left. Direction 0 means no edge.
+ *
+ * The table is immutable and shared by all individuals, see Image.getNeighborWeights().
+ */
+public final class NeighborWeights {
+
+    public static final int DIRECTIONS = 8;
+    public static final int PADDING_LABEL = -1;
+
+    private final int imageWidth;
+    private final int imageHeight;
+    private final int paddedWidth;
+    private final int paddedHeight;
+    private final int[] offsets;
+    private final int[] pixelIndexes;
+    private final double[] weights;
+
+    /**
+     * Creates the neighbor weight table of an image.
+     *
+     * @param image The image to create the table for.
+     */
+    NeighborWeights(Image image) {
+        this.imageWidth = image.getImageWith();
+        this.imageHeight = image.getImageHeight();
+        this.paddedWidth = imageWidth + 2;
+        this.paddedHeight = imageHeight + 2;
+
+        this.offsets = new int[] {
+            0,                  // no edge
+            1,                  // right
+            -1,                 // left
+            -paddedWidth,       // up
+            paddedWidth,        // down
+            -paddedWidth + 1,   // top right
+            paddedWidth + 1,    // bottom right
+            -paddedWidth - 1,   // top left
+            paddedWidth - 1     // bottom left
+        };
+
+        this.pixelIndexes = new int[paddedWidth * paddedHeight];
+        Arrays.fill(pixelIndexes, -1);
+        for (int y = 0; y < imageHeight; y++) {
+            for (int x = 0; x < imageWidth; x++) {
+                pixelIndexes[(y + 1) * paddedWidth + x + 1] = y * imageWidth + x;
+            }
+        }
+
+        int[] pixels = image.getPixels();
+        this.weights = new double[paddedWidth * paddedHeight * DIRECTIONS];
+        for (int i = 0; i < pixels.length; i++) {
+            int paddedIndex = toPadded(i);
+            for (int direction = 1; direction <= DIRECTIONS; direction++) {
+                int neighbor = pixelIndexes[paddedIndex + offsets[direction]];
+                if (neighbor != -1) {
+                    weights[paddedIndex * DIRECTIONS + direction - 1] = ObjectiveFunctions.euclideanDistance(pixels[i], pixels[neighbor]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the width of the image the table belongs to.
+     *
+     * @return The width of the image in pixels.
+     */
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    /**
+     * Returns the height of the image the table belongs to.
+     *
+     * @return The height of the image in pixels.
+     */
+    public int getImageHeight() {
+        return imageHeight;
+    }
+
+    /**
+     * Returns the width of the padded grid, i.e. the image width plus two.
+     *
+     * @return The width of the padded grid.
+     */
+    public int getPaddedWidth() {
+        return paddedWidth;
+    }
+
+    /**
+     * Returns the number of cells in the padded grid.
+     *
+     * @return The number of cells in the padded grid.
+     */
+    public int getPaddedSize() {
+        return paddedWidth * paddedHeight;
+    }
+
+    /**
+     * Returns the approximate size of the table in memory, i.e. of its weight and pixel index arrays.
+     *
+     * @return The size in bytes.
+     */
+    long getSizeBytes() {
+        return (long) weights.length * Double.BYTES + (long) (pixelIndexes.length + offsets.length) * Integer.BYTES;
+    }
+
+    /**
+     * Returns the index in the padded grid of the pixel at the given index in the image.
+     *
+     * @param pixelIndex The index of the pixel in the image.
+     * @return The index of the pixel in the padded grid.
+     */
+    public int toPadded(int pixelIndex) {
+        return (pixelIndex / imageWidth + 1) * paddedWidth + pixelIndex % imageWidth + 1;
+    }
+
+    /**
+     * Returns the index in the image of the cell at the given index in the padded grid.
+     *
+     * @param paddedIndex The index of the cell in the padded grid.
+     * @return The index of the pixel in the image, or -1 if the cell is part of the padding.
+     */
+    public int toPixel(int paddedIndex) {
+        return pixelIndexes[paddedIndex];
+    }
+
+    /**
+     * Returns the index offset in the padded grid of the neighbor in the given direction.
+     *
+     * @param direction The direction, from 0 to 8.
+     * @return The index offset of the neighbor in the padded grid.
+     */
+    public int getOffset(int direction) {
+        return offsets[direction];
+    }
+
+    /**
+     * Returns the weight of the edge from the cell at the given index in the padded grid to its neighbor
+     * in the given direction.
+     *
+     * @param paddedIndex The index of the cell in the padded grid.
+     * @param direction The direction, from 1 to 8.
+     * @return The weight of the edge, or 0 if the neighbor is part of the padding.
+     */
+    public double getWeight(int paddedIndex, int direction) {
+        return weights[paddedIndex * DIRECTIONS + direction - 1];
+    }
+
+    /**
+     * Returns the index of the neighboring pixel of the pixel at index pixelIndex in the image based on the direction.
+     *
+     * @param pixelIndex The index of the pixel in the image.
+     * @param direction The direction of the neighboring pixel, from 0 to 8.
+     * @return The index of the neighboring pixel, or -1 if there is no edge or the neighbor is outside the image.
+     */
+    public int getNeighbor(int pixelIndex, int direction) {
+        if (direction == 0) {
+            return -1;
+        }
+        return pixelIndexes[toPadded(pixelIndex) + offsets[direction]];
+    }
+
+    /**
+     * Returns the direction from a pixel to one of its neighbors.
+     *
+     * @param pixelIndex The index of the pixel in the image.
+     * @param neighbor The index of a neighboring pixel.
+     * @return The direction of the neighbor, from 1 to 8.
+     * @throws IllegalArgumentException If the pixels are not neighbors.
+     */
+    public int getDirection(int pixelIndex, int neighbor) {
+        int offset = toPadded(neighbor) - toPadded(pixelIndex);
+        for (int direction = 1; direction <= DIRECTIONS; direction++) {
+            if (offsets[direction] == offset) {
+                return direction;
+            }
+        }
+        throw new IllegalArgumentException("Pixel " + neighbor + " is not a neighbor of pixel " + pixelIndex);
+    }
+
+    /**
+     * Spreads a label per pixel out on the padded grid. The padding gets the label PADDING_LABEL.
+     *
+     * @param labels The label of each pixel in the image.
+     * @return The labels laid out on the padded grid.
+     */
+    public int[] padLabels(int[] labels) {
+        int[] paddedLabels = new int[getPaddedSize()];
+        Arrays.fill(paddedLabels, PADDING_LABEL);
+        for (int y = 0; y < imageHeight; y++) {
+            System.arraycopy(labels, y * imageWidth, paddedLabels, (y + 1) * paddedWidth + 1, imageWidth);
+        }
+        return paddedLabels;
+    }
+}
@@ -0,0 +1,165 @@
+package com.p3;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sorts solutions into Pareto fronts (non-dominated sorting) by their three objective values.
+ *
+ * The solutions are given as an objective matrix with one row per solution, where every objective is to be
+ * minimized (the edge value, which is maximized, is negated, see getObjectiveMatrix). The rows are sorted
+ * lexicographically, so that a solution can only be dominated by solutions before it. Each solution is then
+ * placed in the first front that has no solution dominating it, found by a binary search over the fronts.
+ *
+ * Based on:
+ * Zhang, X., Tian, Y., Cheng, R., & Jin, Y. (2015). An Efficient Approach to Nondominated Sorting for
+ * Evolutionary Multiobjective Optimization (ENS-BS). IEEE Transactions on Evolutionary Computation, 19(2), 201-213.
+ * https://doi.org/10.1109/TEVC.2014.2308305
+ */
+public class NonDominatedSorter {
+
+    public static final int OBJECTIVES = 3;
+
+    // Private constructor to prevent instantiation
+    private NonDominatedSorter() {
+        throw new UnsupportedOperationException("NonDominatedSorter is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Returns the objective matrix of a list of individuals, with one row per individual holding the negated
+     * edge value, the connectivity measure and the overall deviation, i.e. three objectives to be minimized.
+     *
+     * @param individuals The individuals.
+     * @return The objective matrix of the individuals.
+     */
+    public static double[][] getObjectiveMatrix(List<Individual> individuals) {
+        double[][] objectives = new double[individuals.size()][OBJECTIVES];
+        for (int i = 0; i < objectives.length; i++) {
+            Individual individual = individuals.get(i);
+            objectives[i][0] = -individual.getEdgeValue();
+            objectives[i][1] = individual.getConnectivityMeasure();
+            objectives[i][2] = individual.getOverallDeviation();
+        }
+        return objectives;
+    }
+
+    /**
+     * Returns the Pareto front rank of every solution, where rank 0 is the non-dominated front.
+     * Solutions with equal objective values get the same rank.
+     *
+     * @param objectives The objective matrix, one row of three objectives (to be minimized) per solution.
+     * @return The rank of every solution.
+     */
+    public static int[] sort(double[][] objectives) {
+        int n = objectives.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> compareLexicographically(objectives[i1], objectives[i2]));
+
+        int[] ranks = new int[n];
+        int[][] fronts = new int[4][];
+        int[] frontSizes = new int[4];
+        int frontCount = 0;
+
+        for (int k = 0; k < n; k++) {
+            int solution = order[k];
+
+            // The fronts that dominate the solution come before the ones that do not
+            int low = 0;
+            int high = frontCount;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (isDominatedByFront(objectives, solution, fronts[middle], frontSizes[middle])) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            if (low == frontCount) {
+                if (frontCount == fronts.length) {
+                    fronts = Arrays.copyOf(fronts, frontCount * 2);
+                    frontSizes = Arrays.copyOf(frontSizes, frontCount * 2);
+                }
+                fronts[frontCount] = new int[8];
+                frontCount++;
+            }
+            if (frontSizes[low] == fronts[low].length) {
+                fronts[low] = Arrays.copyOf(fronts[low], frontSizes[low] * 2);
+            }
+            fronts[low][frontSizes[low]++] = solution;
+            ranks[solution] = low;
+        }
+        return ranks;
+    }
+
+    /**
+     * Checks if any solution in a front dominates the given solution. All solutions in the front come before
+     * the given solution in lexicographic order. The front is searched from its last solution, which is the
+     * closest to the given solution in that order and the most likely to dominate it.
+     *
+     * @param objectives The objective matrix.
+     * @param solution The index of the solution to check.
+     * @param front The indexes of the solutions in the front.
+     * @param frontSize The number of solutions in the front.
+     * @return True if the solution is dominated by a solution in the front, false otherwise.
+     */
+    private static boolean isDominatedByFront(double[][] objectives, int solution, int[] front, int frontSize) {
+        double[] values = objectives[solution];
+        for (int k = frontSize - 1; k >= 0; k--) {
+            double[] other = objectives[front[k]];
+            // The first objective of the other solution is already known to be less than or equal
+            if (other[1] <= values[1] && other[2] <= values[2]
+                    && (other[0] < values[0] || other[1] < values[1] || other[2] < values[2])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares two rows of the objective matrix lexicographically.
+     *
+     * @param values1 The first row.
+     * @param values2 The second row.
+     * @return A negative number, zero or a positive number if the first row is less than, equal to or greater than the second.
+     */
+    private static int compareLexicographically(double[] values1, double[] values2) {
+        // Not Double.compare, which orders -0.0 before 0.0 while dominance treats them as equal
+        for (int m = 0; m < OBJECTIVES; m++) {
+            if (values1[m] < values2[m]) {
+                return -1;
+            }
+            if (values1[m] > values2[m]) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        for (int n : new int[] {300, 1000, 3000, 10000}) {
+            // Random objectives on a sphere segment, so that many fronts of various sizes occur
+            double[][] objectives = new double[n][OBJECTIVES];
+            for (int i = 0; i < n; i++) {
+                double radius = 1 + random.nextDouble();
+                double a = random.nextDouble() * Math.PI / 2;
+                double b = random.nextDouble() * Math.PI / 2;
+                objectives[i][0] = radius * Math.cos(a) * Math.cos(b);
+                objectives[i][1] = radius * Math.sin(a) * Math.cos(b);
+                objectives[i][2] = radius * Math.sin(b);
+            }
+
+            long start = System.nanoTime();
+            int[] ranks = sort(objectives);
+            long elapsed = System.nanoTime() - start;
+
+            int frontCount = Arrays.stream(ranks).max().getAsInt() + 1;
+            System.out.println("n = " + n + ": " + frontCount + " fronts in " + elapsed / 1000000.0 + " ms");
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.p3;
+
+import java.util.Arrays;
+
+/**
+ * Computes all three objective values of an individual (edge value, connectivity measure and overall deviation)
+ * together, as a faster alternative to calling the separate functions in ObjectiveFunctions.
+ *
+ * The first pass walks the label array on the padded grid of the neighbor weight table. For every pixel it
+ * compares the label with the neighbors to the right and below (each pair of neighbors is visited once and
+ * counted for both pixels), and adds the pixel's color to running sums for its segment. The second pass
+ * walks the pixels in the same order and sums the distances to the segment centroids.
+ *
+ * The number of full evaluations and incremental updates is counted in the run context of the individual,
+ * so that the genetic algorithms can report how many evaluations each generation needs.
+ */
+public class ObjectiveEvaluator {
+
+    private static final int[] FORWARD_DIRECTIONS = {1, 4, 6, 8}; // right, down, bottom right, bottom left
+
+    private static final ThreadLocal<PaddedLabels> PADDED_LABELS = new ThreadLocal<>();
+
+    // Private constructor to prevent instantiation
+    private ObjectiveEvaluator() {
+        throw new UnsupportedOperationException("ObjectiveEvaluator is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Calculates the edge value, connectivity measure and overall deviation of an individual,
+     * and stores them in the individual.
+     *
+     * @param individual The individual to evaluate.
+     */
+    public static void evaluate(Individual individual) {
+        RunContext context = individual.getContext();
+        context.countEvaluation();
+        Image image = context.getImage();
+        NeighborWeights neighborWeights = image.getNeighborWeights();
+        Segmentation segmentation = individual.getSegmentation();
+        int[] pixels = image.getPixels();
+        int imageHeight = image.getImageHeight();
+        int imageWidth = image.getImageWith();
+        int paddedWidth = neighborWeights.getPaddedWidth();
+        int[] labels = getPaddedLabels(segmentation.getLabels(), neighborWeights, imageHeight, imageWidth);
+
+        int segmentCount = segmentation.getLabelCount();
+        long[] redSums = new long[segmentCount];
+        long[] greenSums = new long[segmentCount];
+        long[] blueSums = new long[segmentCount];
+
+        int[] offsets = new int[FORWARD_DIRECTIONS.length];
+        for (int d = 0; d < offsets.length; d++) {
+            offsets[d] = neighborWeights.getOffset(FORWARD_DIRECTIONS[d]);
+        }
+
+        double edgeValue = 0.0;
+        int differentNeighbors = 0;
+
+        for (int row = 0; row < imageHeight; row++) {
+            int pixelIndex = row * imageWidth;
+            int paddedIndex = (row + 1) * paddedWidth + 1;
+            for (int col = 0; col < imageWidth; col++, pixelIndex++, paddedIndex++) {
+                int label = labels[paddedIndex];
+
+                int pixel = pixels[pixelIndex];
+                redSums[label] += (pixel >> 16) & 0xff;
+                greenSums[label] += (pixel >> 8) & 0xff;
+                blueSums[label] += pixel & 0xff;
+
+                for (int d = 0; d < offsets.length; d++) {
+                    int neighborLabel = labels[paddedIndex + offsets[d]];
+                    if (neighborLabel != label && neighborLabel != NeighborWeights.PADDING_LABEL) {
+                        edgeValue += neighborWeights.getWeight(paddedIndex, FORWARD_DIRECTIONS[d]);
+                        differentNeighbors++;
+                    }
+                }
+            }
+        }
+
+        // Every pair of neighbors in different segments counts once for each of the two pixels
+        edgeValue *= 2;
+        double connectivityMeasure = differentNeighbors * 2 / 8.0;
+
+        int[] centroids = new int[segmentCount];
+        for (int s = 0; s < segmentCount; s++) {
+            long segmentSize = segmentation.getSegmentSize(s);
+            if (segmentSize == 0) {
+                continue;
+            }
+            centroids[s] = (int) (redSums[s] / segmentSize) << 16
+                | (int) (greenSums[s] / segmentSize) << 8
+                | (int) (blueSums[s] / segmentSize);
+        }
+
+        int[] pixelLabels = segmentation.getLabels();
+        double overallDeviation = 0.0;
+        for (int i = 0; i < pixels.length; i++) {
+            overallDeviation += ObjectiveFunctions.euclideanDistance(pixels[i], centroids[pixelLabels[i]]);
+        }
+
+        individual.setObjectiveValues(edgeValue, connectivityMeasure, overallDeviation);
+    }
+
+    /**
+     * Updates the objective values of an individual after a change to a single gene, given the pixels
+     * relabeled by the change. Only pairs of neighbors with at least one relabeled pixel can change
+     * whether they lie in different segments, and only the segments of the relabeled pixels can change
+     * their deviation, so the work is proportional to the relabeled region.
+     *
+     * @param individual The individual, with objective values from before the change.
+     * @param change The pixels relabeled by the change.
+     */
+    public static void evaluateChange(Individual individual, Segmentation.Change change) {
+        RunContext context = individual.getContext();
+        context.countIncrementalEvaluation();
+        Image image = context.getImage();
+        NeighborWeights neighborWeights = image.getNeighborWeights();
+        int[] pixels = image.getPixels();
+        int[] labels = individual.getLabels();
+        int[] region = change.getPixels();
+
+        double edgeValueChange = 0.0;
+        int differentNeighborsChange = 0;
+
+        for (int k = 0; k < change.getSize(); k++) {
+            int pixelIndex = region[k];
+            int paddedIndex = neighborWeights.toPadded(pixelIndex);
+            int label = labels[pixelIndex];
+            int previousLabel = change.getPreviousLabel(pixelIndex);
+
+            for (int direction = 1; direction <= NeighborWeights.DIRECTIONS; direction++) {
+                int neighbor = neighborWeights.toPixel(paddedIndex + neighborWeights.getOffset(direction));
+                if (neighbor == -1) {
+                    continue;
+                }
+                int neighborLabel = labels[neighbor];
+                boolean isDifferent = label != neighborLabel;
+                boolean wasDifferent;
+                int count;
+                if (change.isRelabeled(neighborLabel)) {
+                    // Both pixels are in the region, the pair is visited from both sides
+                    wasDifferent = previousLabel != change.getPreviousLabel(neighbor);
+                    count = 1;
+                } else {
+                    // The neighbor kept its label, the pair is only visited from this side
+                    wasDifferent = previousLabel != neighborLabel;
+                    count = 2;
+                }
+                if (isDifferent != wasDifferent) {
+                    int sign = isDifferent ? 1 : -1;
+                    edgeValueChange += sign * count * neighborWeights.getWeight(paddedIndex, direction);
+                    differentNeighborsChange += sign * count;
+                }
+            }
+        }
+
+        double deviationBefore = regionDeviation(pixels, region, change.getSize(), change, true, labels);
+        double deviationAfter = regionDeviation(pixels, region, change.getSize(), change, false, labels);
+
+        individual.setObjectiveValues(
+            individual.getEdgeValue() + edgeValueChange,
+            individual.getConnectivityMeasure() + differentNeighborsChange / 8.0,
+            individual.getOverallDeviation() - deviationBefore + deviationAfter);
+    }
+
+    /**
+     * Returns the summed deviation of the segments formed by the pixels in a relabeled region, either
+     * before or after the change. The region holds at most two segments both before and after.
+     * Helper method for evaluateChange.
+     *
+     * @param pixels The pixels of the image.
+     * @param region The relabeled pixels.
+     * @param regionSize The number of relabeled pixels.
+     * @param change The change that relabeled the pixels.
+     * @param isBefore True to use the labels from before the change, false to use the current labels.
+     * @param labels The current labels of the pixels.
+     * @return The summed deviation of the segments in the region.
+     */
+    private static double regionDeviation(int[] pixels, int[] region, int regionSize, Segmentation.Change change, boolean isBefore, int[] labels) {
+        int[] segmentLabels = {-1, -1};
+        long[][] sums = new long[2][4]; // red, green, blue, size
+
+        for (int k = 0; k < regionSize; k++) {
+            int pixelIndex = region[k];
+            int slot = getSlot(segmentLabels, isBefore ? change.getPreviousLabel(pixelIndex) : labels[pixelIndex]);
+            int pixel = pixels[pixelIndex];
+            sums[slot][0] += (pixel >> 16) & 0xff;
+            sums[slot][1] += (pixel >> 8) & 0xff;
+            sums[slot][2] += pixel & 0xff;
+            sums[slot][3]++;
+        }
+
+        int[] centroids = new int[2];
+        for (int slot = 0; slot < 2; slot++) {
+            if (sums[slot][3] > 0) {
+                centroids[slot] = (int) (sums[slot][0] / sums[slot][3]) << 16
+                    | (int) (sums[slot][1] / sums[slot][3]) << 8
+                    | (int) (sums[slot][2] / sums[slot][3]);
+            }
+        }
+
+        double deviation = 0.0;
+        for (int k = 0; k < regionSize; k++) {
+            int pixelIndex = region[k];
+            int slot = getSlot(segmentLabels, isBefore ? change.getPreviousLabel(pixelIndex) : labels[pixelIndex]);
+            deviation += ObjectiveFunctions.euclideanDistance(pixels[pixelIndex], centroids[slot]);
+        }
+        return deviation;
+    }
+
+    /**
+     * Returns the slot (0 or 1) of a segment label, assigning the first free slot to new labels.
+     *
+     * @param segmentLabels The labels assigned to the two slots, -1 for free slots.
+     * @param label The label to look up.
+     * @return The slot of the label.
+     */
+    private static int getSlot(int[] segmentLabels, int label) {
+        if (segmentLabels[0] == label || segmentLabels[0] == -1) {
+            segmentLabels[0] = label;
+            return 0;
+        }
+        segmentLabels[1] = label;
+        return 1;
+    }
+
+    /**
+     * Copies the labels of the pixels onto the padded grid of the neighbor weight table, reusing a
+     * buffer kept per thread and image. The padding of a buffer is filled once, when the buffer is created.
+     *
+     * @param pixelLabels The segment index of every pixel.
+     * @param neighborWeights The neighbor weight table of the image.
+     * @param imageHeight The height of the image.
+     * @param imageWidth The width of the image.
+     * @return The labels laid out on the padded grid.
+     */
+    private static int[] getPaddedLabels(int[] pixelLabels, NeighborWeights neighborWeights, int imageHeight, int imageWidth) {
+        PaddedLabels buffer = PADDED_LABELS.get();
+        if (buffer == null || buffer.neighborWeights != neighborWeights) {
+            int[] labels = new int[neighborWeights.getPaddedSize()];
+            Arrays.fill(labels, NeighborWeights.PADDING_LABEL);
+            buffer = new PaddedLabels(neighborWeights, labels);
+            PADDED_LABELS.set(buffer);
+        }
+        int paddedWidth = neighborWeights.getPaddedWidth();
+        for (int row = 0; row < imageHeight; row++) {
+            System.arraycopy(pixelLabels, row * imageWidth, buffer.labels, (row + 1) * paddedWidth + 1, imageWidth);
+        }
+        return buffer.labels;
+    }
+
+    /**
+     * A label buffer on the padded grid of one image.
+     */
+    private static class PaddedLabels {
+        private final NeighborWeights neighborWeights;
+        private final int[] labels;
+
+        PaddedLabels(NeighborWeights neighborWeights, int[] labels) {
+            this.neighborWeights = neighborWeights;
+            this.labels = labels;
+        }
+    }
+}
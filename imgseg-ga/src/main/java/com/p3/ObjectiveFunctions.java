@@ -1,9 +1,9 @@
 package com.p3;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * The ObjectiveFunctions class provides static methods for calculating objective function values
@@ -27,17 +27,22 @@ public class ObjectiveFunctions {
      */
     public static double edgeValue(Individual individual) {
         double edgeValue = 0.0;
-        List<List<Integer>> pixels = Parameters.IMAGE.getPixels();
-        int imageHeight = Parameters.IMAGE.getImageHeight();
-        int imageWidth = Parameters.IMAGE.getImageWith();
-        Map<Integer, Integer> segmentMap = individual.getSegmentMap();
-
-        for (int i = 0; i < pixels.size(); i++) {
-            int segmentIndex = segmentMap.get(i);
-            List<Integer> neighboringPixelIndexes = individual.getNeighboringPixelIndexes(i, imageHeight, imageWidth);
-            for (int j : neighboringPixelIndexes) {
-                if (segmentIndex != segmentMap.get(j)) {
-                    edgeValue += euclideanDistance(pixels.get(i), pixels.get(j));
+        Image image = individual.getContext().getImage();
+        NeighborWeights neighborWeights = image.getNeighborWeights();
+        int imageHeight = image.getImageHeight();
+        int imageWidth = image.getImageWith();
+        int paddedWidth = neighborWeights.getPaddedWidth();
+        int[] labels = getPaddedLabels(individual, neighborWeights);
+
+        // Edges into the padding have weight 0, so border pixels need no special treatment
+        for (int row = 1; row <= imageHeight; row++) {
+            int rowEnd = row * paddedWidth + imageWidth;
+            for (int i = row * paddedWidth + 1; i <= rowEnd; i++) {
+                int segmentIndex = labels[i];
+                for (int direction = 1; direction <= NeighborWeights.DIRECTIONS; direction++) {
+                    if (segmentIndex != labels[i + neighborWeights.getOffset(direction)]) {
+                        edgeValue += neighborWeights.getWeight(i, direction);
+                    }
                 }
             }
         }
@@ -56,17 +61,22 @@ public class ObjectiveFunctions {
      */
     public static double connectivityMeasure(Individual individual) {
         double connectivityMeasure = 0.0;
-        List<List<Integer>> pixels = Parameters.IMAGE.getPixels();
-        int imageHeight = Parameters.IMAGE.getImageHeight();
-        int imageWidth = Parameters.IMAGE.getImageWith();
-        Map<Integer, Integer> segmentMap = individual.getSegmentMap();
-
-        for (int i = 0; i < pixels.size(); i++) {
-            int segmentIndex = segmentMap.get(i);
-            List<Integer> neighboringPixelIndexes = individual.getNeighboringPixelIndexes(i, imageHeight, imageWidth);
-            for (Integer j : neighboringPixelIndexes) {
-                if (segmentIndex != segmentMap.get(j)) {
-                    connectivityMeasure += 1.0 / 8; // alernatively: (double) 1 / individual.getGraphDirection(i, j, imageHeight, imageLength);
+        Image image = individual.getContext().getImage();
+        NeighborWeights neighborWeights = image.getNeighborWeights();
+        int imageHeight = image.getImageHeight();
+        int imageWidth = image.getImageWith();
+        int paddedWidth = neighborWeights.getPaddedWidth();
+        int[] labels = getPaddedLabels(individual, neighborWeights);
+
+        for (int row = 1; row <= imageHeight; row++) {
+            int rowEnd = row * paddedWidth + imageWidth;
+            for (int i = row * paddedWidth + 1; i <= rowEnd; i++) {
+                int segmentIndex = labels[i];
+                for (int direction = 1; direction <= NeighborWeights.DIRECTIONS; direction++) {
+                    int neighborSegmentIndex = labels[i + neighborWeights.getOffset(direction)];
+                    if (segmentIndex != neighborSegmentIndex && neighborSegmentIndex != NeighborWeights.PADDING_LABEL) {
+                        connectivityMeasure += 1.0 / 8;
+                    }
                 }
             }
         }
@@ -74,6 +84,18 @@ public class ObjectiveFunctions {
         return connectivityMeasure;
     }
 
+    /**
+     * Returns the segment index of every pixel of an individual, laid out on the padded grid
+     * of the neighbor weight table. Helper method for edgeValue and connectivityMeasure.
+     *
+     * @param individual The individual representing the image.
+     * @param neighborWeights The neighbor weight table of the image.
+     * @return The segment index of every pixel on the padded grid.
+     */
+    private static int[] getPaddedLabels(Individual individual, NeighborWeights neighborWeights) {
+        return neighborWeights.padLabels(individual.getLabels());
+    }
+
     /**
      * Calculates the overall deviation of an individual based on its current segments.
      * The overall deviation is the sum of the Euclidean distances between each pixel in a segment
@@ -85,12 +107,18 @@ public class ObjectiveFunctions {
      */
     public static double overallDeviation(Individual individual) {
         double segmentDeviation = 0.0;
-        List<List<Integer>> pixels = Parameters.IMAGE.getPixels();
-
-        for (Set<Integer> segment : individual.getSegments()) {
-            List<Integer> centroid = getCentroid(segment);
-            for (Integer pixelIndex : segment) {
-                segmentDeviation += euclideanDistance(pixels.get(pixelIndex), centroid);
+        int[] pixels = individual.getContext().getImage().getPixels();
+        Segmentation segmentation = individual.getSegmentation();
+        int[] segmentOffsets = segmentation.getSegmentOffsets();
+        int[] segmentPixels = segmentation.getSegmentPixels();
+
+        for (int s = 0; s < segmentation.getLabelCount(); s++) {
+            if (segmentation.getSegmentSize(s) == 0) {
+                continue;
+            }
+            int centroid = getCentroid(pixels, segmentPixels, segmentOffsets[s], segmentOffsets[s + 1]);
+            for (int i = segmentOffsets[s]; i < segmentOffsets[s + 1]; i++) {
+                segmentDeviation += euclideanDistance(pixels[segmentPixels[i]], centroid);
             }
         }
         return segmentDeviation;
@@ -101,96 +129,66 @@ public class ObjectiveFunctions {
      * The centroid is the average RGB values of the pixels in the segment.
      * Helper method for overallDeviation.
      * 
-     * @param segment The segment of the image.
-     * @return The centroid of the segment.
+     * @param pixels The pixels of the image.
+     * @param segmentPixels The pixel indexes of the segments, grouped by segment.
+     * @param from The position of the first pixel of the segment in segmentPixels, inclusive.
+     * @param to The position of the last pixel of the segment in segmentPixels, exclusive.
+     * @return The centroid of the segment, packed as 0xRRGGBB.
      */
-    private static List<Integer> getCentroid(Set<Integer> segment) {        
+    private static int getCentroid(int[] pixels, int[] segmentPixels, int from, int to) {
         int redSum = 0;
         int greenSum = 0;
         int blueSum = 0;
-        List<List<Integer>> pixels = Parameters.IMAGE.getPixels();
+        int segmentSize = to - from;
 
-        for (Integer i : segment) {
-            List<Integer> pixel = pixels.get(i);
-            redSum += pixel.get(0);
-            greenSum += pixel.get(1);
-            blueSum += pixel.get(2);
+        for (int i = from; i < to; i++) {
+            int pixel = pixels[segmentPixels[i]];
+            redSum += (pixel >> 16) & 0xff;
+            greenSum += (pixel >> 8) & 0xff;
+            blueSum += pixel & 0xff;
         }
 
-        int redCentroid = redSum / segment.size();
-        int greenCentroid = greenSum / segment.size();
-        int blueCentroid = blueSum / segment.size();
+        int redCentroid = redSum / segmentSize;
+        int greenCentroid = greenSum / segmentSize;
+        int blueCentroid = blueSum / segmentSize;
 
-        return List.of(redCentroid, greenCentroid, blueCentroid);
+        return (redCentroid << 16) | (greenCentroid << 8) | blueCentroid;
     }
 
     /**
      * Returns the Euclidean distance between two pixels in the image. The Euclidean distance is calculated
      * as the square root of the sum of the squared differences of the RGB values of the pixels.
      * 
-     * @param pixel1 The RGB values of the first pixel.
-     * @param pixel2 The RGB values of the second pixel.
+     * @param pixel1 The packed RGB value (0xRRGGBB) of the first pixel.
+     * @param pixel2 The packed RGB value (0xRRGGBB) of the second pixel.
      * @return The Euclidean distance between the two pixels.
      */
-    public static double euclideanDistance(List<Integer> pixel1, List<Integer> pixel2) {
-        return Math.sqrt(Math.pow(pixel1.get(0) - pixel2.get(0), 2)
-            + Math.pow(pixel1.get(1) - pixel2.get(1), 2)
-            + Math.pow(pixel1.get(2) - pixel2.get(2), 2));
+    public static double euclideanDistance(int pixel1, int pixel2) {
+        int redDifference = ((pixel1 >> 16) & 0xff) - ((pixel2 >> 16) & 0xff);
+        int greenDifference = ((pixel1 >> 8) & 0xff) - ((pixel2 >> 8) & 0xff);
+        int blueDifference = (pixel1 & 0xff) - (pixel2 & 0xff);
+        return Math.sqrt(redDifference * redDifference + greenDifference * greenDifference + blueDifference * blueDifference);
     }
 
     /**
-     * Calculates the Pareto fronts for a given list of individuals.
+     * Calculates the Pareto fronts for a given list of individuals. The objective values cached in the
+     * individuals are used, so only individuals that have not been evaluated since their genome last
+     * changed are evaluated. The sorting itself is done by NonDominatedSorter.
      *
      * @param individuals the list of individuals
      * @return a list of lists, where each inner lists represents a Pareto front, ordered by rank
      */
     public static List<List<Individual>> getParetoFronts(List<Individual> individuals) {
-        
-        // Resetting objective values of individuals
-        for (Individual individual : individuals) {
-            individual.resetObjectiveValues();
-        }
+        int[] ranks = NonDominatedSorter.sort(NonDominatedSorter.getObjectiveMatrix(individuals));
 
-        int n = individuals.size();
-        int[] dominatedCount = new int[n];
-        List<Integer>[] dominates = new ArrayList[n];
-    
-        for (int i = 0; i < n; i++) {
-            dominates[i] = new ArrayList<>();
-            for (int j = 0; j < n; j++) {
-                if (i != j) {
-                    if (dominates(individuals.get(i), individuals.get(j))) {
-                        dominates[i].add(j);
-                    } else if (dominates(individuals.get(j), individuals.get(i))) {
-                        dominatedCount[i]++;
-                    }
-                }
-            }
-        }
-    
         List<List<Individual>> paretoFronts = new ArrayList<>();
-        while (true) {
-            List<Individual> paretoFront = new ArrayList<>();
-            for (int i = 0; i < n; i++) {
-                if (dominatedCount[i] == 0) {
-                    paretoFront.add(individuals.get(i));
-                    dominatedCount[i] = -1;
-                }
+        for (int i = 0; i < ranks.length; i++) {
+            while (paretoFronts.size() <= ranks[i]) {
+                paretoFronts.add(new ArrayList<>());
             }
-    
-            if (paretoFront.isEmpty()) {
-                break;
-            }
-    
-            for (Individual individual : paretoFront) {
-                for (int i : dominates[individuals.indexOf(individual)]) {
-                    dominatedCount[i]--;
-                }
-            }
-    
-            paretoFronts.add(paretoFront);
+            paretoFronts.get(ranks[i]).add(individuals.get(i));
         }
-    
+
         return paretoFronts;
     }
 
@@ -202,13 +200,10 @@ public class ObjectiveFunctions {
      */
     public static Map<Individual, Integer> getParetoFrontsMap(List<Individual> individuals) {
         Map<Individual, Integer> paretoFrontsMap = new HashMap<>();
-        List<List<Individual>> paretoFronts = getParetoFronts(individuals);
+        int[] ranks = NonDominatedSorter.sort(NonDominatedSorter.getObjectiveMatrix(individuals));
 
-        for (int i = 0; i < paretoFronts.size(); i++) {
-            List<Individual> paretoFront = paretoFronts.get(i);
-            for (Individual individual : paretoFront) {
-                paretoFrontsMap.put(individual, i);
-            }
+        for (int i = 0; i < ranks.length; i++) {
+            paretoFrontsMap.put(individuals.get(i), ranks[i]);
         }
 
         return paretoFrontsMap;
@@ -261,52 +256,58 @@ public class ObjectiveFunctions {
      * @return Map where the keys are individuals and the values are their crowding distances.
      */
     public static Map<Individual, Double> getCrowdingDistances(List<Individual> individuals) {
-        Map<Individual, Double> distances = new HashMap<>(); 
-        int l = individuals.size();
-
-        for (Individual individual : individuals) {
-            distances.put(individual, 0.0);
+        Map<Individual, Double> distances = new HashMap<>();
+        int[] front = new int[individuals.size()];
+        for (int i = 0; i < front.length; i++) {
+            front[i] = i;
         }
-        
-        List<Individual> individualsCopy = new ArrayList<>(individuals);
-
-        // Edge value
-        individualsCopy.sort((i1, i2) -> Double.compare(i2.getEdgeValue(), i1.getEdgeValue())); // best first, i.e. max value first
-        distances.replace(individualsCopy.get(0), Double.POSITIVE_INFINITY);
-        distances.replace(individualsCopy.get(l - 1), Double.POSITIVE_INFINITY);
-        double minEdgeValue = individualsCopy.get(l - 1).getEdgeValue();
-        double maxEdgeValue = individualsCopy.get(0).getEdgeValue();
-        for (int i = 1; i < l - 1; i++) {
-            double distanceValue = distances.get(individualsCopy.get(i));
-            double edgeValueOfNext = individualsCopy.get(i + 1).getEdgeValue();
-            double edgeValueOfPrev = individualsCopy.get(i - 1).getEdgeValue();
-            distances.replace(individualsCopy.get(i), (distanceValue + edgeValueOfNext - edgeValueOfPrev) / maxEdgeValue - minEdgeValue);
+        double[] frontDistances = getCrowdingDistances(NonDominatedSorter.getObjectiveMatrix(individuals), front);
+        for (int i = 0; i < front.length; i++) {
+            distances.put(individuals.get(i), frontDistances[i]);
         }
+        return distances;
+    }
 
-        // Connectivity measure
-        individualsCopy.sort((i1, i2) -> Double.compare(i1.getConnectivityMeasure(), i2.getConnectivityMeasure())); // best first, i.e. min value first
-        distances.replace(individualsCopy.get(0), Double.POSITIVE_INFINITY);
-        distances.replace(individualsCopy.get(l - 1), Double.POSITIVE_INFINITY);
-        double minConnectivityMeasure = individualsCopy.get(0).getConnectivityMeasure();
-        double maxConnectivityMeasure = individualsCopy.get(l - 1).getConnectivityMeasure();
-        for (int i = 1; i < l - 1; i++) {
-            double distanceValue = distances.get(individualsCopy.get(i));
-            double connectivityMeasureOfNext = individualsCopy.get(i + 1).getConnectivityMeasure();
-            double connectivityMeasureOfPrev = individualsCopy.get(i - 1).getConnectivityMeasure();
-            distances.replace(individualsCopy.get(i), (distanceValue + connectivityMeasureOfNext - connectivityMeasureOfPrev) / maxConnectivityMeasure - minConnectivityMeasure);
+    /**
+     * Returns the crowding distances of the solutions in one front, given as rows of an objective matrix
+     * (see NonDominatedSorter.getObjectiveMatrix). The objectives are visited in the order edge value,
+     * connectivity measure, overall deviation, and each sort starts from the order left by the previous one.
+     * 
+     * @param objectives The objective matrix.
+     * @param front The rows of the solutions in the front.
+     * @return The crowding distance of every solution, in the order of the front.
+     */
+    public static double[] getCrowdingDistances(double[][] objectives, int[] front) {
+        int l = front.length;
+        double[] distances = new double[l];
+        if (l == 0) {
+            return distances;
+        }
+
+        // Positions in the front, sorted by each objective in turn (stable, ties keep their previous order)
+        Integer[] sorted = new Integer[l];
+        for (int i = 0; i < l; i++) {
+            sorted[i] = i;
         }
 
-        // Overall deviation
-        individualsCopy.sort((i1, i2) -> Double.compare(i1.getOverallDeviation(), i2.getOverallDeviation())); // best first, i.e. min value first
-        distances.replace(individualsCopy.get(0), Double.POSITIVE_INFINITY);
-        distances.replace(individualsCopy.get(l - 1), Double.POSITIVE_INFINITY);
-        double minOverallDeviationValue = individualsCopy.get(0).getOverallDeviation();
-        double maxOverallDeviationValue = individualsCopy.get(l - 1).getOverallDeviation();
-        for (int i = 1; i < l - 1; i++) {
-            double distanceValue = distances.get(individualsCopy.get(i));
-            double overallDeviationValueNext = individualsCopy.get(i + 1).getOverallDeviation();
-            double overallDeviationValuePrev = individualsCopy.get(i - 1).getOverallDeviation();
-            distances.replace(individualsCopy.get(i), (distanceValue + overallDeviationValueNext - overallDeviationValuePrev) / maxOverallDeviationValue - minOverallDeviationValue);
+        for (int m = 0; m < NonDominatedSorter.OBJECTIVES; m++) {
+            final int objective = m;
+            // Best first, i.e. max edge value (min negated edge value), min connectivity measure and min overall deviation
+            Arrays.sort(sorted, (i1, i2) -> Double.compare(objectives[front[i1]][objective], objectives[front[i2]][objective]));
+            distances[sorted[0]] = Double.POSITIVE_INFINITY;
+            distances[sorted[l - 1]] = Double.POSITIVE_INFINITY;
+
+            // The edge value is stored negated in the objective matrix
+            double sign = objective == 0 ? -1 : 1;
+            double best = sign * objectives[front[sorted[0]]][objective];
+            double worst = sign * objectives[front[sorted[l - 1]]][objective];
+            double min = Math.min(best, worst);
+            double max = Math.max(best, worst);
+            for (int i = 1; i < l - 1; i++) {
+                double valueOfNext = sign * objectives[front[sorted[i + 1]]][objective];
+                double valueOfPrev = sign * objectives[front[sorted[i - 1]]][objective];
+                distances[sorted[i]] = (distances[sorted[i]] + valueOfNext - valueOfPrev) / max - min;
+            }
         }
 
         return distances;
@@ -314,15 +315,17 @@ public class ObjectiveFunctions {
     
     public static void main(String[] args) {
         String imagePath = "training_images/118035/Test image.jpg";
-        Parameters.IMAGE = new Image(imagePath);
-        Parameters.POPULATION_SIZE = 20;
-        Parameters.SEGMENTS_LOWEBOUND = 5;
-        Parameters.SEGMENTS_UPPERBOUND = 10;
-        Individual individual = new Individual(5);
+        Parameters parameters = new Parameters();
+        parameters.image = new Image(imagePath);
+        parameters.populationSize = 20;
+        parameters.segmentsLowerBound = 5;
+        parameters.segmentsUpperBound = 10;
+        RunContext context = new RunContext(parameters);
+        Individual individual = new Individual(context, 5);
         System.out.println(edgeValue(individual));
         System.out.println(connectivityMeasure(individual));
         System.out.println(overallDeviation(individual));
-        Population population = new Population();
+        Population population = new Population(context);
 
         List<List<Individual>> paretoRanks = getParetoFronts(population.getIndividuals());
 
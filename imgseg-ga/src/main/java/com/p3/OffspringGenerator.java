@@ -1,31 +1,48 @@
 package com.p3;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import com.p3.interfaces.CrossoverHandler;
+import com.p3.interfaces.MutationHandler;
+
 /**
  * A class that generates offspring from two parents by performing crossover and mutation.
+ *
+ * The parent pairs are independent of each other, so they are processed in parallel on the worker threads
+ * of WorkerPool. The operators draw their random numbers from ThreadLocalRandom, i.e. one random stream per
+ * worker, and the segmentation code keeps its scratch buffers per thread. The children of pair j are always
+ * placed at positions 2j and 2j + 1 of the offspring, whichever worker made them.
  */
 public class OffspringGenerator {
-    
+
     public static Population generateOffspring(Population parents) {
 
         // Might remove shuffling later
         List<Individual> parentIndividuals = parents.getIndividuals();
         Collections.shuffle(parentIndividuals);
 
-        List<Individual> offspringList = new ArrayList<>();
-        for (int j = 0; j < parentIndividuals.size(); j += 2) {
-            Individual parent1 = parentIndividuals.get(j);
-            Individual parent2 = parentIndividuals.get(j + 1);
-            Individual[] offspring = Parameters.CROSSOVER_HANDLER.cross(parent1, parent2);
-            Parameters.MUTATION_HANDLER.mutate(offspring[0]);
-            Parameters.MUTATION_HANDLER.mutate(offspring[1]);
-            offspringList.add(offspring[0]);
-            offspringList.add(offspring[1]);
-        }
+        RunContext context = parents.getContext();
+        CrossoverHandler crossoverHandler = context.getParameters().crossoverHandler;
+        MutationHandler mutationHandler = context.getParameters().mutationHandler;
+        int pairCount = parentIndividuals.size() / 2;
+        Individual[] offspring = new Individual[pairCount * 2];
+        RunMetrics metrics = context.getMetrics();
+        WorkerPool.forEach(context, pairCount, 1, j -> {
+            Individual parent1 = parentIndividuals.get(2 * j);
+            Individual parent2 = parentIndividuals.get(2 * j + 1);
+            RunMetrics.Phase previous = metrics.enter(RunMetrics.Phase.CROSSOVER);
+            Individual[] children = crossoverHandler.cross(parent1, parent2);
+            metrics.enter(RunMetrics.Phase.MUTATION);
+            mutationHandler.mutate(children[0]);
+            mutationHandler.mutate(children[1]);
+            metrics.exit(previous);
+            offspring[2 * j] = children[0];
+            offspring[2 * j + 1] = children[1];
+        });
 
-        return new Population(offspringList);
+        return new Population(context, new ArrayList<>(Arrays.asList(offspring)));
     }
 }
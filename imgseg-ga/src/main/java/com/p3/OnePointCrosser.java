@@ -1,7 +1,7 @@
 package com.p3;
 
-import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.p3.interfaces.CrossoverHandler;
 
@@ -18,34 +18,62 @@ import com.p3.interfaces.CrossoverHandler;
 public class OnePointCrosser implements CrossoverHandler{
 
     /**
-     * Crosses two individuals to create two children, using one-point crossover.
+     * Crosses two genomes to create two child genomes, using one-point crossover.
      */
     @Override
-    public Individual[] cross(Individual parent1, Individual parent2) {
-        Random random = new Random();
-        List<Integer> chromosome1 = parent1.getChromosome();
-        List<Integer> chromosome2 = parent2.getChromosome();
-
-        int crossoverPoint = random.nextInt(chromosome1.size() - 1);
+    public Genome[] cross(Genome genome1, Genome genome2) {
+        int crossoverPoint = getCrossoverPoint(genome1.length());
 
-        List<Integer> child1 = new java.util.ArrayList<>(chromosome1.subList(0, chromosome1.size()));
-        List<Integer> child2 = new java.util.ArrayList<>(chromosome2.subList(0, chromosome1.size()));
+        Genome child1 = combine(genome1, genome2, crossoverPoint);
+        Genome child2 = combine(genome2, genome1, crossoverPoint);
 
-        for (int i = 0; i < crossoverPoint; i++) {
-            child1.set(i, chromosome1.get(i));
-            child2.set(i, chromosome2.get(i));
-        }
+        return new Genome[] {child1, child2};
+    }
 
-        for (int i = crossoverPoint; i < chromosome1.size(); i++) {
-            child1.set(i, chromosome2.get(i));
-            child2.set(i, chromosome1.get(i));
-        }
+    /**
+     * Crosses two individuals to create two children, using one-point crossover.
+     * The segmentations of the children are built from the segmentations of the parents.
+     */
+    @Override
+    public Individual[] cross(Individual parent1, Individual parent2) {
+        Genome genome1 = parent1.getGenome();
+        Genome genome2 = parent2.getGenome();
+        int length = genome1.length();
+        int crossoverPoint = getCrossoverPoint(length);
+        int[] boundaries = {0, crossoverPoint, length};
 
         Individual[] children = new Individual[2];
-        children[0] = new Individual(child1);
-        children[1] = new Individual(child2);
+        children[0] = Individual.fromRanges(combine(genome1, genome2, crossoverPoint), boundaries, new Individual[] {parent1, parent2});
+        children[1] = Individual.fromRanges(combine(genome2, genome1, crossoverPoint), boundaries, new Individual[] {parent2, parent1});
 
         return children;
     }
-    
+
+    /**
+     * Returns a random crossover point for genomes of the given length.
+     *
+     * @param length The length of the genomes.
+     * @return The crossover point.
+     */
+    private int getCrossoverPoint(int length) {
+        Random random = ThreadLocalRandom.current();
+        return random.nextInt(length - 1);
+    }
+
+    /**
+     * Creates a genome with the genes before the crossover point from the first genome,
+     * and the rest from the second genome.
+     *
+     * @param first The genome to take the first genes from.
+     * @param second The genome to take the last genes from.
+     * @param crossoverPoint The crossover point.
+     * @return The combined genome.
+     */
+    private Genome combine(Genome first, Genome second, int crossoverPoint) {
+        int length = first.length();
+        Genome child = new Genome(length);
+        child.copyRange(first, 0, crossoverPoint);
+        child.copyRange(second, crossoverPoint, length);
+        return child;
+    }
 }
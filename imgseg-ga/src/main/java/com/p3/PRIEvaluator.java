@@ -0,0 +1,297 @@
+package com.p3;
+
+import java.io.File;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scores segmentations against ground truth segmentations, with the same scoring as the Python evaluator in
+ * evaluator/run.py, but fast enough to score many results, or to score results during a run.
+ *
+ * Images are compared by their gray values, i.e. the first channel, as read by the Python evaluator. A result
+ * is compared to a ground truth in both directions: for every black pixel of one image, i.e. with a gray value
+ * below BLACK_VALUE_THRESHOLD, the other image must have a pixel with a gray value within
+ * COLOR_VALUE_SLACK_RANGE of it at most PIXEL_RANGE_CHECK pixels away in both directions. The score of a
+ * direction is the share of black pixels that are matched, the score of a pair is the lower score of its two
+ * directions, and the score of a result is its best score against any of the ground truths.
+ *
+ * Instead of scanning the neighborhood of every black pixel, the smallest gray value in the neighborhood of
+ * every pixel is computed once per image. A black pixel darker than COLOR_VALUE_SLACK_RANGE is matched if and
+ * only if the smallest gray value in its neighborhood in the other image is below its gray value plus the slack.
+ * Only the rare black pixels that are lighter than that, e.g. from compression artifacts, are matched by
+ * scanning their neighborhood. Results given as individuals are compared by the borders of their segments,
+ * as in the outline images written by ResultWriter, without writing and reading the images. The pairs of
+ * results and ground truths are scored in parallel on the worker pool of the run.
+ */
+public class PRIEvaluator {
+
+    public static final int COLOR_VALUE_SLACK_RANGE = 40;
+    public static final int BLACK_VALUE_THRESHOLD = 100;
+    public static final int PIXEL_RANGE_CHECK = 4;
+
+    private static final int BLACK = 0;
+    private static final int WHITE = 255;
+
+    // Private constructor to prevent instantiation
+    private PRIEvaluator() {
+        throw new UnsupportedOperationException("PRIEvaluator is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Scores the segmentations of individuals against ground truth segmentations.
+     *
+     * @param individuals The individuals, which must belong to the same run.
+     * @param groundTruths The ground truth images, with black segment borders on white.
+     * @return The score of every individual, between 0 and 1.
+     * @throws IllegalArgumentException If a ground truth does not have the size of the image of the run.
+     */
+    public static double[] evaluate(List<Individual> individuals, List<Image> groundTruths) {
+        if (individuals.isEmpty()) {
+            return new double[0];
+        }
+        RunContext context = individuals.get(0).getContext();
+        List<int[]> results = new ArrayList<>();
+        for (Individual individual : individuals) {
+            results.add(getOutlineValues(individual));
+        }
+        return evaluate(context, results, getGrayValues(groundTruths, context.getImage()), context.getImage());
+    }
+
+    /**
+     * Scores segmentation images against ground truth segmentations.
+     *
+     * @param context The run context, which gives the number of threads and the size of the images.
+     * @param results The segmentation images, with black segment borders on white.
+     * @param groundTruths The ground truth images, with black segment borders on white.
+     * @return The score of every segmentation image, between 0 and 1.
+     * @throws IllegalArgumentException If an image does not have the size of the image of the run.
+     */
+    public static double[] evaluateImages(RunContext context, List<Image> results, List<Image> groundTruths) {
+        Image image = context.getImage();
+        return evaluate(context, getGrayValues(results, image), getGrayValues(groundTruths, image), image);
+    }
+
+    /**
+     * Loads the ground truth images in a directory, i.e. the files named GT_*.jpg or GT_*.png.
+     *
+     * @param directory The directory, e.g. a directory of the training images.
+     * @return The ground truth images, sorted by file name.
+     * @throws IllegalArgumentException If the directory does not have ground truth images.
+     */
+    public static List<Image> loadGroundTruths(String directory) {
+        File[] files = new File(directory).listFiles(
+            (dir, name) -> name.startsWith("GT_") && (name.endsWith(".jpg") || name.endsWith(".png")));
+        if (files == null || files.length == 0) {
+            throw new IllegalArgumentException("No ground truth images in " + directory);
+        }
+        Arrays.sort(files);
+        List<Image> groundTruths = new ArrayList<>();
+        for (File file : files) {
+            groundTruths.add(Image.load(file.getPath()));
+        }
+        return groundTruths;
+    }
+
+    /**
+     * Scores results against ground truths, given as gray values.
+     *
+     * @param context The run context, which gives the number of threads.
+     * @param results The gray values of the results.
+     * @param groundTruths The gray values of the ground truths.
+     * @param image An image with the size of the results and the ground truths.
+     * @return The score of every result.
+     */
+    private static double[] evaluate(RunContext context, List<int[]> results, List<int[]> groundTruths, Image image) {
+        int width = image.getImageWith();
+        int height = image.getImageHeight();
+        List<int[]> images = new ArrayList<>(results);
+        images.addAll(groundTruths);
+        int[][] windowMinimums = new int[images.size()][];
+        WorkerPool.forEach(context, images.size(), 1,
+            i -> windowMinimums[i] = getWindowMinimums(images.get(i), width, height));
+
+        int resultCount = results.size();
+        int groundTruthCount = groundTruths.size();
+        double[] pairScores = new double[resultCount * groundTruthCount];
+        WorkerPool.forEach(context, pairScores.length, 1, k -> {
+            int r = k / groundTruthCount;
+            int g = resultCount + k % groundTruthCount;
+            pairScores[k] = Math.min(
+                compare(images.get(g), images.get(r), windowMinimums[r], width, height),
+                compare(images.get(r), images.get(g), windowMinimums[g], width, height));
+        });
+
+        double[] scores = new double[resultCount];
+        for (int k = 0; k < pairScores.length; k++) {
+            int r = k / groundTruthCount;
+            scores[r] = Math.max(scores[r], pairScores[k]);
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the share of the black pixels of one image that are matched in another image, as comparePics
+     * of the Python evaluator.
+     *
+     * @param values The gray values of the image whose black pixels are matched.
+     * @param otherValues The gray values of the other image.
+     * @param otherWindowMinimums The smallest gray value in the neighborhood of every pixel of the other image.
+     * @param width The width of the images.
+     * @param height The height of the images.
+     * @return The share of matched black pixels, or 0 if there are no black pixels.
+     */
+    static double compare(int[] values, int[] otherValues, int[] otherWindowMinimums, int width, int height) {
+        int blackCount = 0;
+        int matchCount = 0;
+        for (int i = 0; i < values.length; i++) {
+            int value = values[i];
+            if (value >= BLACK_VALUE_THRESHOLD) {
+                continue;
+            }
+            blackCount++;
+            if (value < COLOR_VALUE_SLACK_RANGE) {
+                // Every gray value is above value - slack, so only the smallest one in the neighborhood matters
+                if (otherWindowMinimums[i] < value + COLOR_VALUE_SLACK_RANGE) {
+                    matchCount++;
+                }
+            } else if (hasValueInRange(otherValues, width, height, i % width, i / width, value)) {
+                matchCount++;
+            }
+        }
+        return (double) matchCount / Math.max(blackCount, 1);
+    }
+
+    /**
+     * Returns whether an image has a pixel with a gray value within the slack range of a value in the
+     * neighborhood of a pixel.
+     *
+     * @param values The gray values of the image.
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @param x The column of the pixel.
+     * @param y The row of the pixel.
+     * @param value The value to match.
+     * @return True if a pixel in the neighborhood matches the value.
+     */
+    private static boolean hasValueInRange(int[] values, int width, int height, int x, int y, int value) {
+        for (int y2 = Math.max(0, y - PIXEL_RANGE_CHECK); y2 <= Math.min(height - 1, y + PIXEL_RANGE_CHECK); y2++) {
+            for (int x2 = Math.max(0, x - PIXEL_RANGE_CHECK); x2 <= Math.min(width - 1, x + PIXEL_RANGE_CHECK); x2++) {
+                int other = values[y2 * width + x2];
+                if (value - COLOR_VALUE_SLACK_RANGE < other && other < value + COLOR_VALUE_SLACK_RANGE) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the smallest gray value in the neighborhood of every pixel, i.e. within PIXEL_RANGE_CHECK pixels
+     * in both directions, computed along the rows and then along the columns.
+     *
+     * @param values The gray values of the image.
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @return The smallest gray value in the neighborhood of every pixel.
+     */
+    static int[] getWindowMinimums(int[] values, int width, int height) {
+        int[] rowMinimums = new int[values.length];
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int minimum = Integer.MAX_VALUE;
+                for (int x2 = Math.max(0, x - PIXEL_RANGE_CHECK); x2 <= Math.min(width - 1, x + PIXEL_RANGE_CHECK); x2++) {
+                    minimum = Math.min(minimum, values[row + x2]);
+                }
+                rowMinimums[row + x] = minimum;
+            }
+        }
+
+        int[] minimums = new int[values.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int minimum = Integer.MAX_VALUE;
+                for (int y2 = Math.max(0, y - PIXEL_RANGE_CHECK); y2 <= Math.min(height - 1, y + PIXEL_RANGE_CHECK); y2++) {
+                    minimum = Math.min(minimum, rowMinimums[y2 * width + x]);
+                }
+                minimums[y * width + x] = minimum;
+            }
+        }
+        return minimums;
+    }
+
+    /**
+     * Returns the gray values of the outline image of an individual, i.e. black segment borders on white.
+     *
+     * @param individual The individual.
+     * @return The gray value of every pixel.
+     */
+    static int[] getOutlineValues(Individual individual) {
+        boolean[] borders = SegmentRenderer.getBorderPixels(individual);
+        int[] values = new int[borders.length];
+        for (int i = 0; i < borders.length; i++) {
+            values[i] = borders[i] ? BLACK : WHITE;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the gray values of images, i.e. their first (red) channel.
+     *
+     * @param images The images.
+     * @param image An image with the size all images must have.
+     * @return The gray value of every pixel of every image.
+     * @throws IllegalArgumentException If an image does not have the size of the given image.
+     */
+    private static List<int[]> getGrayValues(List<Image> images, Image image) {
+        List<int[]> grayValues = new ArrayList<>();
+        for (Image other : images) {
+            if (other.getImageHeight() != image.getImageHeight() || other.getImageWith() != image.getImageWith()) {
+                throw new IllegalArgumentException("Image of " + other.getImageWith() + "x" + other.getImageHeight()
+                    + " pixels does not have the size of the segmented image");
+            }
+            int[] values = new int[other.getPixelCount()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = other.getRed(i);
+            }
+            grayValues.add(values);
+        }
+        return grayValues;
+    }
+
+    public static void main(String[] args) {
+        // Scores the outline images of the results of a run, as evaluator/run.py scores the student segments
+        String imageName = args.length > 0 ? args[0] : "86016";
+        String resultsDirectory = args.length > 1 ? args[1] : "results_MOEA/" + imageName + "/type_2";
+        String directory = "training_images/" + imageName;
+        Parameters parameters = new Parameters();
+        parameters.image = Image.load(directory + "/Test image.jpg");
+        RunContext context = new RunContext(parameters);
+
+        File[] files = new File(resultsDirectory).listFiles((dir, name) -> name.endsWith(".jpg") || name.endsWith(".png"));
+        if (files == null || files.length == 0) {
+            System.out.println("No results to score in " + resultsDirectory);
+            return;
+        }
+        Arrays.sort(files);
+        List<Image> results = new ArrayList<>();
+        for (File file : files) {
+            results.add(Image.load(file.getPath()));
+        }
+
+        long start = System.nanoTime();
+        double[] scores = evaluateImages(context, results, loadGroundTruths(directory));
+        long time = System.nanoTime() - start;
+
+        DecimalFormat df = new DecimalFormat("0.00");
+        double totalScore = 0;
+        for (int i = 0; i < scores.length; i++) {
+            totalScore += scores[i];
+            System.out.println(files[i].getName() + " - Score: " + df.format(scores[i] * 100) + "%");
+        }
+        System.out.println("Total Average Score: " + df.format(totalScore / scores.length * 100) + "%");
+        System.out.println("Scored in " + df.format(time / 1e6) + " ms");
+    }
+}
@@ -1,27 +1,191 @@
 package com.p3;
 
+import java.util.Properties;
+
 import com.p3.interfaces.CrossoverHandler;
 import com.p3.interfaces.MutationHandler;
 import com.p3.interfaces.ParentSelector;
 
 /**
  * A class that holds the parameters for the genetic algorithm.
+ *
+ * The parameters are set on an instance, which is given to a RunContext to start a run. The run context
+ * keeps its own copy, so the same instance can be changed and reused for the next run, e.g. for another image,
+ * while earlier runs continue with the values they were started with.
  */
 public class Parameters {
-    public static int SEGMENTS_LOWEBOUND;
-    public static int SEGMENTS_UPPERBOUND;
-    public static int POPULATION_SIZE;
-    public static String IMAGE_NAME;
-    public static Image IMAGE;
-    public static ParentSelector PARENT_SELECTOR;
-    public static int TOURNAMENT_SIZE;
-    public static boolean IS_TOURNAMENT_REPLACEMENT_ALLOWED;
-    public static int GENERATIONS;
-    public static CrossoverHandler CROSSOVER_HANDLER;
-    public static MutationHandler MUTATION_HANDLER;
-    public static double MUTATION_PROBABILITY;
-    public static int MUTATION_STEP_SIZE;
-    public static double EDGE_WEIGHT;
-    public static double CONNECTIVITY_WEIGHT;
-    public static double DEVIATION_WEIGHT;
+    public int segmentsLowerBound;
+    public int segmentsUpperBound;
+    public int populationSize;
+    public String imageName;
+    public Image image;
+    public ParentSelector parentSelector;
+    public int tournamentSize;
+    public boolean isTournamentReplacementAllowed;
+    public int generations;
+    public CrossoverHandler crossoverHandler;
+    public MutationHandler mutationHandler;
+    public double mutationProbability;
+    public int mutationStepSize;
+    public double edgeWeight;
+    public double connectivityWeight;
+    public double deviationWeight;
+    public MSTCutStrategy mstCutStrategy = MSTCutStrategy.RANDOM;
+    public int threads = Runtime.getRuntime().availableProcessors();
+    public int evaluationChunkSize = 4;
+    public int islandCount = 4;
+    public int migrationInterval = 5;
+    public int migrantCount = 2;
+    public MigrationTopology migrationTopology = MigrationTopology.RING;
+    public int checkpointInterval = 0;
+    public String checkpointFile;
+    public String metricsFile;
+    public int pyramidLevels = 3;
+
+    /**
+     * Returns a copy of the parameters. The image and the operators are not copied,
+     * they hold no state of a run and can be shared between runs.
+     *
+     * @return A copy of the parameters.
+     */
+    public Parameters copy() {
+        Parameters copy = new Parameters();
+        copy.segmentsLowerBound = segmentsLowerBound;
+        copy.segmentsUpperBound = segmentsUpperBound;
+        copy.populationSize = populationSize;
+        copy.imageName = imageName;
+        copy.image = image;
+        copy.parentSelector = parentSelector;
+        copy.tournamentSize = tournamentSize;
+        copy.isTournamentReplacementAllowed = isTournamentReplacementAllowed;
+        copy.generations = generations;
+        copy.crossoverHandler = crossoverHandler;
+        copy.mutationHandler = mutationHandler;
+        copy.mutationProbability = mutationProbability;
+        copy.mutationStepSize = mutationStepSize;
+        copy.edgeWeight = edgeWeight;
+        copy.connectivityWeight = connectivityWeight;
+        copy.deviationWeight = deviationWeight;
+        copy.mstCutStrategy = mstCutStrategy;
+        copy.threads = threads;
+        copy.evaluationChunkSize = evaluationChunkSize;
+        copy.islandCount = islandCount;
+        copy.migrationInterval = migrationInterval;
+        copy.migrantCount = migrantCount;
+        copy.migrationTopology = migrationTopology;
+        copy.checkpointInterval = checkpointInterval;
+        copy.checkpointFile = checkpointFile;
+        copy.metricsFile = metricsFile;
+        copy.pyramidLevels = pyramidLevels;
+        return copy;
+    }
+
+    /**
+     * Returns the parameters as properties, e.g. to pass them to another process or to store them in a
+     * checkpoint. The operators are stored as their class names, and the image is not stored.
+     *
+     * @return The parameters as properties.
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("segmentsLowerBound", Integer.toString(segmentsLowerBound));
+        properties.setProperty("segmentsUpperBound", Integer.toString(segmentsUpperBound));
+        properties.setProperty("populationSize", Integer.toString(populationSize));
+        if (imageName != null) {
+            properties.setProperty("imageName", imageName);
+        }
+        if (parentSelector != null) {
+            properties.setProperty("parentSelector", parentSelector.getClass().getName());
+        }
+        properties.setProperty("tournamentSize", Integer.toString(tournamentSize));
+        properties.setProperty("isTournamentReplacementAllowed", Boolean.toString(isTournamentReplacementAllowed));
+        properties.setProperty("generations", Integer.toString(generations));
+        if (crossoverHandler != null) {
+            properties.setProperty("crossoverHandler", crossoverHandler.getClass().getName());
+        }
+        if (mutationHandler != null) {
+            properties.setProperty("mutationHandler", mutationHandler.getClass().getName());
+        }
+        properties.setProperty("mutationProbability", Double.toString(mutationProbability));
+        properties.setProperty("mutationStepSize", Integer.toString(mutationStepSize));
+        properties.setProperty("edgeWeight", Double.toString(edgeWeight));
+        properties.setProperty("connectivityWeight", Double.toString(connectivityWeight));
+        properties.setProperty("deviationWeight", Double.toString(deviationWeight));
+        if (mstCutStrategy != null) {
+            properties.setProperty("mstCutStrategy", mstCutStrategy.name());
+        }
+        properties.setProperty("threads", Integer.toString(threads));
+        properties.setProperty("evaluationChunkSize", Integer.toString(evaluationChunkSize));
+        properties.setProperty("islandCount", Integer.toString(islandCount));
+        properties.setProperty("migrationInterval", Integer.toString(migrationInterval));
+        properties.setProperty("migrantCount", Integer.toString(migrantCount));
+        properties.setProperty("migrationTopology", migrationTopology.name());
+        properties.setProperty("checkpointInterval", Integer.toString(checkpointInterval));
+        if (checkpointFile != null) {
+            properties.setProperty("checkpointFile", checkpointFile);
+        }
+        if (metricsFile != null) {
+            properties.setProperty("metricsFile", metricsFile);
+        }
+        properties.setProperty("pyramidLevels", Integer.toString(pyramidLevels));
+        return properties;
+    }
+
+    /**
+     * Creates parameters from properties returned by toProperties. The operators are created with their
+     * no-argument constructors, and the image has to be set separately.
+     *
+     * @param properties The properties.
+     * @return The parameters.
+     * @throws IllegalArgumentException If an operator cannot be created.
+     */
+    public static Parameters fromProperties(Properties properties) {
+        Parameters parameters = new Parameters();
+        parameters.segmentsLowerBound = Integer.parseInt(properties.getProperty("segmentsLowerBound"));
+        parameters.segmentsUpperBound = Integer.parseInt(properties.getProperty("segmentsUpperBound"));
+        parameters.populationSize = Integer.parseInt(properties.getProperty("populationSize"));
+        parameters.imageName = properties.getProperty("imageName");
+        parameters.parentSelector = newInstance(properties.getProperty("parentSelector"), ParentSelector.class);
+        parameters.tournamentSize = Integer.parseInt(properties.getProperty("tournamentSize"));
+        parameters.isTournamentReplacementAllowed = Boolean.parseBoolean(properties.getProperty("isTournamentReplacementAllowed"));
+        parameters.generations = Integer.parseInt(properties.getProperty("generations"));
+        parameters.crossoverHandler = newInstance(properties.getProperty("crossoverHandler"), CrossoverHandler.class);
+        parameters.mutationHandler = newInstance(properties.getProperty("mutationHandler"), MutationHandler.class);
+        parameters.mutationProbability = Double.parseDouble(properties.getProperty("mutationProbability"));
+        parameters.mutationStepSize = Integer.parseInt(properties.getProperty("mutationStepSize"));
+        parameters.edgeWeight = Double.parseDouble(properties.getProperty("edgeWeight"));
+        parameters.connectivityWeight = Double.parseDouble(properties.getProperty("connectivityWeight"));
+        parameters.deviationWeight = Double.parseDouble(properties.getProperty("deviationWeight"));
+        String mstCutStrategy = properties.getProperty("mstCutStrategy");
+        parameters.mstCutStrategy = mstCutStrategy == null ? null : MSTCutStrategy.valueOf(mstCutStrategy);
+        parameters.threads = Integer.parseInt(properties.getProperty("threads"));
+        parameters.evaluationChunkSize = Integer.parseInt(properties.getProperty("evaluationChunkSize"));
+        parameters.islandCount = Integer.parseInt(properties.getProperty("islandCount"));
+        parameters.migrationInterval = Integer.parseInt(properties.getProperty("migrationInterval"));
+        parameters.migrantCount = Integer.parseInt(properties.getProperty("migrantCount"));
+        parameters.migrationTopology = MigrationTopology.valueOf(properties.getProperty("migrationTopology"));
+        parameters.checkpointInterval = Integer.parseInt(properties.getProperty("checkpointInterval"));
+        parameters.checkpointFile = properties.getProperty("checkpointFile");
+        parameters.metricsFile = properties.getProperty("metricsFile");
+        parameters.pyramidLevels = Integer.parseInt(properties.getProperty("pyramidLevels", "3"));
+        return parameters;
+    }
+
+    /**
+     * Creates an operator from its class name, with its no-argument constructor.
+     *
+     * @param className The class name of the operator, or null if the operator is not set.
+     * @param type The interface of the operator.
+     * @return The operator, or null if the operator is not set.
+     */
+    private static <T> T newInstance(String className, Class<T> type) {
+        if (className == null) {
+            return null;
+        }
+        try {
+            return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Could not create " + type.getSimpleName() + " " + className, e);
+        }
+    }
 }
@@ -2,53 +2,92 @@ package com.p3;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a population of individuals.
  */
 public class Population {
     
+    private final RunContext context;
     private List<Individual> individuals;
+    private SelectionContext selectionContext;
 
     /**
      * Creates a population of individuals. The number of individuals in the population is determined by the
-     * Parameters.POPULATION_SIZE parameter. Individuals are created with a random number of segments between
-     * Parameters.SEGMENTS_LOWEBOUND and Parameters.SEGMENTS_UPPERBOUND, with at least one individual for each
-     * segment count.
+     * populationSize parameter of the run. Individuals are created with a random number of segments between
+     * segmentsLowerBound and segmentsUpperBound, with at least one individual for each segment count.
+     * 
+     * The individuals are cut from the minimum spanning tree of the image, which is computed once, by the
+     * strategy in the mstCutStrategy parameter. If the strategy is null, every individual grows its own
+     * minimum spanning forest from random pixels instead.
+     * 
+     * @param context The run context the population belongs to.
      */
-    public Population() {
+    public Population(RunContext context) {
+        Parameters parameters = context.getParameters();
         List<Individual> individuals = new ArrayList<>();
 
 
-        for (int i = 0; i < Parameters.POPULATION_SIZE; i++) {
+        for (int i = 0; i < parameters.populationSize; i++) {
             int numSegments = i;
             
             // Ensures that every segment count has at least one individual
-            if (numSegments >= Parameters.SEGMENTS_LOWEBOUND && numSegments <= Parameters.SEGMENTS_UPPERBOUND) {
-                individuals.add(new Individual(i));
-            } else {
+            if (!(numSegments >= parameters.segmentsLowerBound && numSegments <= parameters.segmentsUpperBound)) {
                 // pick a random number of segments between lowerBound and upperBound
-                numSegments = Parameters.SEGMENTS_LOWEBOUND + (int) (Math.random() * (Parameters.SEGMENTS_UPPERBOUND - Parameters.SEGMENTS_LOWEBOUND));
-                individuals.add(new Individual(numSegments));
+                numSegments = parameters.segmentsLowerBound + (int) (Math.random() * (parameters.segmentsUpperBound - parameters.segmentsLowerBound));
             }
-            System.out.println("Creating individual " + (i + 1) + " of " + Parameters.POPULATION_SIZE + ", with " + numSegments + " segments");
+            individuals.add(createIndividual(context, numSegments));
+            System.out.println("Creating individual " + (i + 1) + " of " + parameters.populationSize + ", with " + numSegments + " segments");
         }
 
+        this.context = context;
         this.individuals = individuals;
     }
 
 
+    /**
+     * Creates an individual with the given number of segments for the initial population.
+     * 
+     * @param context The run context the individual belongs to.
+     * @param numSegments The number of segments.
+     * @return The new individual.
+     */
+    private static Individual createIndividual(RunContext context, int numSegments) {
+        MSTCutStrategy strategy = context.getParameters().mstCutStrategy;
+        if (strategy == null) {
+            return new Individual(context, numSegments);
+        }
+        MinimumSpanningTree tree = context.getImage().getMinimumSpanningTree();
+        return new Individual(context, tree.cut(numSegments, strategy, ThreadLocalRandom.current()));
+    }
+
     /**
      * Creates a population of individuals from a list of individuals.
      * 
+     * @param context The run context the population belongs to.
+     * @param individuals A list of individuals.
+     */
+    public Population(RunContext context, List<Individual> individuals) {
+        this.context = context;
+        this.individuals = individuals;
+    }
+
+    /**
+     * Creates a population of individuals from a list of individuals and their already computed selection context.
+     * 
+     * @param context The run context the population belongs to.
      * @param individuals A list of individuals.
+     * @param selectionContext The selection context of the individuals, in the same order.
      */
-    public Population(List<Individual> individuals) {
+    Population(RunContext context, List<Individual> individuals, SelectionContext selectionContext) {
+        this.context = context;
         this.individuals = individuals;
+        this.selectionContext = selectionContext;
     }
 
     /**
-     * Creates a population of individuals from two populations.
+     * Creates a population of individuals from two populations of the same run.
      * 
      * @param population1 The first population.
      * @param population2 The second population.
@@ -56,9 +95,19 @@ public class Population {
     public Population(Population population1, Population population2) {
         List<Individual> individualsFromBoth = population1.getIndividuals();
         individualsFromBoth.addAll(population2.getIndividuals());
+        this.context = population1.context;
         this.individuals = individualsFromBoth;
     }
 
+    /**
+     * Returns the run context the population belongs to.
+     * 
+     * @return The run context of the population.
+     */
+    public RunContext getContext() {
+        return this.context;
+    }
+
     /**
      * Returns a list of copies of individuals in the population.
      * 
@@ -68,13 +117,28 @@ public class Population {
         return new ArrayList<>(this.individuals);
     }
 
+    /**
+     * Returns the Pareto front ranks and crowding distances of the individuals in the population, computed on
+     * the first call and reused by later calls. The individuals must be evaluated, and their objective values
+     * must not change afterwards.
+     * 
+     * @return The selection context of the population.
+     */
+    public SelectionContext getSelectionContext() {
+        if (selectionContext == null) {
+            selectionContext = SelectionContext.of(individuals);
+        }
+        return selectionContext;
+    }
+
     public static void main(String[] args) {
         String imagePath = "training_images/118035/Test image.jpg";
-        Parameters.POPULATION_SIZE = 2;
-        Parameters.IMAGE = new Image(imagePath);
-        Parameters.SEGMENTS_LOWEBOUND = 5;
-        Parameters.SEGMENTS_UPPERBOUND = 10;
-        Population population = new Population();
+        Parameters parameters = new Parameters();
+        parameters.populationSize = 2;
+        parameters.image = new Image(imagePath);
+        parameters.segmentsLowerBound = 5;
+        parameters.segmentsUpperBound = 10;
+        Population population = new Population(new RunContext(parameters));
         System.out.println(population.getIndividuals().size());
     }
 }
@@ -0,0 +1,108 @@
+package com.p3;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evaluates the objective values of many individuals in parallel, on the worker threads of WorkerPool.
+ * The individuals are split into chunks of evaluationChunkSize individuals (see Parameters),
+ * which are evaluated by the workers.
+ *
+ * Every individual is evaluated on its own by ObjectiveEvaluator, which keeps its buffers per thread,
+ * so the objective values do not depend on the number of threads or the order of evaluation.
+ */
+public class PopulationEvaluator {
+
+    // Private constructor to prevent instantiation
+    private PopulationEvaluator() {
+        throw new UnsupportedOperationException("PopulationEvaluator is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Evaluates every individual that has not been evaluated since its genome last changed.
+     * Individuals that appear several times in the list are evaluated once.
+     *
+     * @param context The run context, which gives the number of threads and the chunk size.
+     * @param individuals The individuals to evaluate.
+     */
+    public static void evaluate(RunContext context, List<Individual> individuals) {
+        Set<Individual> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Individual> unevaluated = new ArrayList<>();
+        for (Individual individual : individuals) {
+            if (seen.add(individual) && !individual.isEvaluated()) {
+                unevaluated.add(individual);
+            }
+        }
+        context.countEvaluationCacheHits(individuals.size() - unevaluated.size());
+        if (unevaluated.isEmpty()) {
+            return;
+        }
+
+        RunMetrics metrics = context.getMetrics();
+        WorkerPool.forEach(context, unevaluated.size(), context.getParameters().evaluationChunkSize, i -> {
+            RunMetrics.Phase previous = metrics.enter(RunMetrics.Phase.EVALUATION);
+            ObjectiveEvaluator.evaluate(unevaluated.get(i));
+            metrics.exit(previous);
+        });
+    }
+
+    /**
+     * Measures the speedup of evaluating a population in parallel, for every training image and thread count
+     * from 1 up to the number of available processors (doubling), or up to the thread count given as the
+     * first argument. Run from the root of the repository.
+     */
+    public static void main(String[] args) {
+        String[] imageNames = {"86016", "118035", "147091", "176035", "176039", "353013"};
+        int populationSize = 100;
+        int repetitions = 5;
+        int processors = Runtime.getRuntime().availableProcessors();
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : processors;
+        DecimalFormat df = new DecimalFormat("#.##");
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+
+        System.out.println("Available processors: " + processors);
+        for (String imageName : imageNames) {
+            Parameters parameters = new Parameters();
+            parameters.image = Image.load("training_images/" + imageName + "/Test image.jpg");
+            RunContext individualContext = new RunContext(parameters);
+            List<Individual> individuals = new ArrayList<>();
+            for (int i = 0; i < populationSize; i++) {
+                individuals.add(new Individual(individualContext, 3 + i % 20));
+            }
+
+            double singleThreadTime = 0.0;
+            for (int threads : threadCounts) {
+                parameters.threads = threads;
+                RunContext context = new RunContext(parameters);
+                long bestTime = Long.MAX_VALUE;
+                for (int r = 0; r <= repetitions; r++) {
+                    for (Individual individual : individuals) {
+                        individual.resetObjectiveValues();
+                    }
+                    long start = System.nanoTime();
+                    evaluate(context, individuals);
+                    long time = System.nanoTime() - start;
+                    // The first repetition warms up the JIT compiler
+                    if (r > 0) {
+                        bestTime = Math.min(bestTime, time);
+                    }
+                }
+                double milliseconds = bestTime / 1e6;
+                if (threads == 1) {
+                    singleThreadTime = milliseconds;
+                }
+                System.out.println("Image " + imageName + " - Threads: " + threads + " - Time: " + df.format(milliseconds)
+                    + " ms - Speedup: " + df.format(singleThreadTime / milliseconds));
+            }
+        }
+    }
+}
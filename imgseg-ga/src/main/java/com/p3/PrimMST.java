@@ -0,0 +1,257 @@
+package com.p3;
+
+import java.util.Arrays;
+
+/**
+ * Builds minimum spanning forests of the image with Prim's algorithm, where the weight of the edge between
+ * two neighboring pixels is the Euclidean distance between their RGB values (see NeighborWeights).
+ *
+ * The forest is grown from one or more seed pixels at once, so that every tree is grown from one seed and
+ * the trees together contain all pixels of the image. Every pixel except the seeds is reached from a parent,
+ * and the forest is encoded in a genome by letting every pixel point to its parent.
+ *
+ * The algorithm works on the padded grid of the neighbor weight table. The pixels that are not yet in the
+ * forest are kept in an indexed 4-ary heap, keyed by the weight of the lightest edge into the forest, which
+ * is lowered in place (decrease-key) when a lighter edge is found. Pixels in the forest are marked in a bitset
+ * in which the padding is marked from the start, so that neighbors can be visited without bounds checks.
+ * The heap and the bitset are kept per thread and image, and the only allocation per forest is the genome.
+ */
+public class PrimMST {
+
+    private static final int ARITY = 4;
+    private static final int[] OPPOSITE_DIRECTIONS = {0, 2, 1, 4, 3, 8, 7, 6, 5};
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<>();
+
+    // Private constructor to prevent instantiation
+    private PrimMST() {
+        throw new UnsupportedOperationException("PrimMST is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Grows a minimum spanning forest from the given seed pixels and encodes it in a genome, where the gene
+     * of every pixel points to its parent and the seeds have no edge.
+     *
+     * @param neighborWeights The neighbor weight table of the image.
+     * @param seeds The seed pixels, one per tree. Repeated seeds give a single tree. Without seeds,
+     *              no pixel has an edge.
+     * @return The genome encoding the forest.
+     */
+    public static Genome build(NeighborWeights neighborWeights, int[] seeds) {
+        return build(neighborWeights, seeds, null);
+    }
+
+    /**
+     * Grows a minimum spanning tree of every segment of a segmentation, using only edges between pixels of
+     * the same segment, and encodes the forest in a genome. The genome encodes the same segments as the labels,
+     * e.g. when a segmentation is carried over to an image of another resolution (see PyramidNSGAII).
+     *
+     * @param neighborWeights The neighbor weight table of the image.
+     * @param labels The segment label of every pixel, from 0. The pixels of every segment must be connected.
+     * @return The genome encoding the forest, where the first pixel of every segment has no edge.
+     */
+    public static Genome buildWithinSegments(NeighborWeights neighborWeights, int[] labels) {
+        int labelCount = 0;
+        for (int label : labels) {
+            labelCount = Math.max(labelCount, label + 1);
+        }
+        int[] firstPixels = new int[labelCount];
+        Arrays.fill(firstPixels, -1);
+        int segmentCount = 0;
+        for (int i = 0; i < labels.length; i++) {
+            if (firstPixels[labels[i]] == -1) {
+                firstPixels[labels[i]] = i;
+                segmentCount++;
+            }
+        }
+        int[] seeds = new int[segmentCount];
+        int s = 0;
+        for (int firstPixel : firstPixels) {
+            if (firstPixel != -1) {
+                seeds[s++] = firstPixel;
+            }
+        }
+        return build(neighborWeights, seeds, neighborWeights.padLabels(labels));
+    }
+
+    /**
+     * Grows a minimum spanning forest from the given seed pixels, optionally only along edges between pixels
+     * with the same label, and encodes it in a genome.
+     *
+     * @param neighborWeights The neighbor weight table of the image.
+     * @param seeds The seed pixels, one per tree.
+     * @param paddedLabels The label of every cell of the padded grid, or null to use all edges.
+     * @return The genome encoding the forest.
+     */
+    private static Genome build(NeighborWeights neighborWeights, int[] seeds, int[] paddedLabels) {
+        Scratch scratch = getScratch(neighborWeights);
+        long[] visited = scratch.visited;
+        System.arraycopy(scratch.padding, 0, visited, 0, visited.length);
+        byte[] genes = new byte[neighborWeights.getImageHeight() * neighborWeights.getImageWidth()];
+
+        int[] offsets = new int[NeighborWeights.DIRECTIONS + 1];
+        for (int direction = 1; direction <= NeighborWeights.DIRECTIONS; direction++) {
+            offsets[direction] = neighborWeights.getOffset(direction);
+        }
+
+        // All seeds are in the forest before any edge is added, so that no seed gets a parent
+        for (int seed : seeds) {
+            int paddedIndex = neighborWeights.toPadded(seed);
+            visited[paddedIndex >>> 6] |= 1L << paddedIndex;
+        }
+        for (int seed : seeds) {
+            addEdges(scratch, neighborWeights, offsets, paddedLabels, genes, neighborWeights.toPadded(seed));
+        }
+
+        while (scratch.heapSize > 0) {
+            int paddedIndex = scratch.poll();
+            visited[paddedIndex >>> 6] |= 1L << paddedIndex;
+            addEdges(scratch, neighborWeights, offsets, paddedLabels, genes, paddedIndex);
+        }
+        return new Genome(genes);
+    }
+
+    /**
+     * Offers the edges from a pixel that has joined the forest to its neighbors outside the forest.
+     * A neighbor enters the heap, or has its key lowered, if the edge is lighter than its current key,
+     * and its gene is then set to point back to the pixel.
+     *
+     * @param scratch The heap and bitset.
+     * @param neighborWeights The neighbor weight table of the image.
+     * @param offsets The index offset of every direction in the padded grid.
+     * @param paddedLabels The label of every cell of the padded grid, or null to use all edges.
+     * @param genes The genes of the forest being built.
+     * @param paddedIndex The index of the pixel in the padded grid.
+     */
+    private static void addEdges(Scratch scratch, NeighborWeights neighborWeights, int[] offsets, int[] paddedLabels, byte[] genes, int paddedIndex) {
+        long[] visited = scratch.visited;
+        for (int direction = 1; direction <= NeighborWeights.DIRECTIONS; direction++) {
+            int neighbor = paddedIndex + offsets[direction];
+            if ((visited[neighbor >>> 6] & (1L << neighbor)) != 0) {
+                continue;
+            }
+            if (paddedLabels != null && paddedLabels[neighbor] != paddedLabels[paddedIndex]) {
+                continue;
+            }
+            double weight = neighborWeights.getWeight(paddedIndex, direction);
+            int position = scratch.positions[neighbor];
+            if (position == -1) {
+                scratch.keys[neighbor] = weight;
+                scratch.add(neighbor);
+            } else if (weight < scratch.keys[neighbor]) {
+                scratch.keys[neighbor] = weight;
+                scratch.siftUp(position);
+            } else {
+                continue;
+            }
+            genes[neighborWeights.toPixel(neighbor)] = (byte) OPPOSITE_DIRECTIONS[direction];
+        }
+    }
+
+    /**
+     * Returns the heap and bitset of the current thread for the given image, creating them if needed.
+     *
+     * @param neighborWeights The neighbor weight table of the image.
+     * @return The heap and bitset, with an empty heap.
+     */
+    private static Scratch getScratch(NeighborWeights neighborWeights) {
+        Scratch scratch = SCRATCH.get();
+        if (scratch == null || scratch.neighborWeights != neighborWeights) {
+            scratch = new Scratch(neighborWeights);
+            SCRATCH.set(scratch);
+        }
+        scratch.heapSize = 0;
+        return scratch;
+    }
+
+    /**
+     * An indexed 4-ary min-heap over the cells of the padded grid, and the bitset of cells in the forest.
+     * Cells leave the heap only by being polled, so after a complete run every position is -1 again.
+     */
+    private static class Scratch {
+        private final NeighborWeights neighborWeights;
+        private final long[] padding;
+        private final long[] visited;
+        private final int[] heap;
+        private final int[] positions;
+        private final double[] keys;
+        private int heapSize;
+
+        Scratch(NeighborWeights neighborWeights) {
+            this.neighborWeights = neighborWeights;
+            int paddedSize = neighborWeights.getPaddedSize();
+            this.padding = new long[(paddedSize + 63) >>> 6];
+            for (int paddedIndex = 0; paddedIndex < paddedSize; paddedIndex++) {
+                if (neighborWeights.toPixel(paddedIndex) == -1) {
+                    padding[paddedIndex >>> 6] |= 1L << paddedIndex;
+                }
+            }
+            this.visited = new long[padding.length];
+            this.heap = new int[paddedSize];
+            this.positions = new int[paddedSize];
+            Arrays.fill(positions, -1);
+            this.keys = new double[paddedSize];
+        }
+
+        void add(int cell) {
+            heap[heapSize] = cell;
+            positions[cell] = heapSize;
+            siftUp(heapSize++);
+        }
+
+        int poll() {
+            int top = heap[0];
+            positions[top] = -1;
+            heapSize--;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                positions[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        void siftUp(int position) {
+            int cell = heap[position];
+            double key = keys[cell];
+            while (position > 0) {
+                int parentPosition = (position - 1) / ARITY;
+                int parent = heap[parentPosition];
+                if (keys[parent] <= key) {
+                    break;
+                }
+                heap[position] = parent;
+                positions[parent] = position;
+                position = parentPosition;
+            }
+            heap[position] = cell;
+            positions[cell] = position;
+        }
+
+        void siftDown(int position) {
+            int cell = heap[position];
+            double key = keys[cell];
+            while (true) {
+                int firstChild = position * ARITY + 1;
+                if (firstChild >= heapSize) {
+                    break;
+                }
+                int minChild = firstChild;
+                int lastChild = Math.min(firstChild + ARITY, heapSize);
+                for (int child = firstChild + 1; child < lastChild; child++) {
+                    if (keys[heap[child]] < keys[heap[minChild]]) {
+                        minChild = child;
+                    }
+                }
+                if (keys[heap[minChild]] >= key) {
+                    break;
+                }
+                heap[position] = heap[minChild];
+                positions[heap[position]] = position;
+                position = minChild;
+            }
+            heap[position] = cell;
+            positions[cell] = position;
+        }
+    }
+}
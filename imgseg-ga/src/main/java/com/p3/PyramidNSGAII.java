@@ -0,0 +1,209 @@
+package com.p3;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Class for running the NSGA-II algorithm coarse to fine, over a pyramid of downsampled images.
+ *
+ * The genome has one gene per pixel, so every operator and evaluation costs in proportion to the resolution.
+ * The run starts on the image downsampled pyramidLevels - 1 times, where every level has half the width and
+ * height, i.e. a quarter of the pixels, of the level above it. There, the population is evolved for the full
+ * number of generations. The surviving population is then projected up to the next level, where it is
+ * evolved for half as many generations, and so on up to the full resolution, which is evolved by NSGAII for
+ * generations / 2^(pyramidLevels - 1) generations and written to files as by NSGAII.
+ *
+ * An individual is projected by giving every pixel of the finer level the segment of the pixel of the coarser
+ * level it lies in, and growing a minimum spanning tree of every segment on the finer image (see
+ * PrimMST.buildWithinSegments). The projected individual has the same segments as the coarse individual, so
+ * its objective values are close to those of the coarse individual, scaled to the resolution, and its genes
+ * are laid out along the colors of the finer image, as those of the individuals of the initial population.
+ */
+public class PyramidNSGAII {
+
+    private static final int MIN_LEVEL_SIZE = 16;
+
+    // Private constructor to prevent instantiation
+    private PyramidNSGAII() {
+        throw new UnsupportedOperationException("PyramidNSGAII is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Run the NSGA-II algorithm coarse to fine and write the results. Checkpoints and metrics are only
+     * written for the generations at full resolution.
+     *
+     * @param context The run context, holding the image and the parameters of the run.
+     * @return A future that completes when the results have been written.
+     */
+    public static CompletableFuture<Void> runGA(RunContext context) {
+        Population population = evolveCoarseLevels(context);
+        return NSGAII.runGA(population, 0);
+    }
+
+    /**
+     * Evolves the levels of the pyramid below the full resolution, and projects the final population to the
+     * full resolution.
+     *
+     * @param context The run context, holding the image and the parameters of the run.
+     * @return The evaluated population at full resolution, in a run context for the generations that remain
+     *         to be run at full resolution.
+     */
+    static Population evolveCoarseLevels(RunContext context) {
+        Parameters parameters = context.getParameters();
+        List<Image> images = getPyramid(context.getImage(), parameters.pyramidLevels);
+        int[] generations = getLevelGenerations(parameters.generations, images.size());
+
+        Population population = null;
+        for (int level = images.size() - 1; level >= 0; level--) {
+            Parameters levelParameters = parameters.copy();
+            levelParameters.image = images.get(level);
+            levelParameters.generations = generations[level];
+            if (level > 0) {
+                levelParameters.checkpointInterval = 0;
+                levelParameters.metricsFile = null;
+            }
+            RunContext levelContext = new RunContext(levelParameters);
+
+            if (population == null) {
+                population = new Population(levelContext);
+            } else {
+                population = project(population, levelContext);
+            }
+            PopulationEvaluator.evaluate(levelContext, population.getIndividuals());
+            System.out.println("Level " + level + " - " + levelParameters.image.getImageWith() + "x"
+                + levelParameters.image.getImageHeight() + " pixels - " + generations[level] + " generations");
+            if (level == 0) {
+                break;
+            }
+
+            for (int gen = 1; gen <= generations[level]; gen++) {
+                population = NSGAII.evolve(population);
+            }
+            printStats(population, level);
+        }
+        return population;
+    }
+
+    /**
+     * Returns the images of the pyramid, from the full resolution down. Fewer levels are returned if the
+     * coarsest image would be smaller than MIN_LEVEL_SIZE pixels in either direction.
+     *
+     * @param image The image at full resolution.
+     * @param levels The number of levels, at least 1.
+     * @return The images of the pyramid, the full resolution first.
+     */
+    static List<Image> getPyramid(Image image, int levels) {
+        List<Image> images = new ArrayList<>();
+        images.add(image);
+        while (images.size() < levels) {
+            Image last = images.get(images.size() - 1);
+            if ((last.getImageWith() + 1) / 2 < MIN_LEVEL_SIZE || (last.getImageHeight() + 1) / 2 < MIN_LEVEL_SIZE) {
+                break;
+            }
+            images.add(last.downsample());
+        }
+        return images;
+    }
+
+    /**
+     * Returns the number of generations of every level: all generations at the coarsest level, and half as
+     * many at every finer level, but at least one.
+     *
+     * @param generations The number of generations of the run.
+     * @param levels The number of levels.
+     * @return The number of generations of every level, the full resolution first.
+     */
+    static int[] getLevelGenerations(int generations, int levels) {
+        int[] levelGenerations = new int[levels];
+        for (int level = 0; level < levels; level++) {
+            levelGenerations[level] = Math.max(1, generations >> (levels - 1 - level));
+        }
+        return levelGenerations;
+    }
+
+    /**
+     * Projects the individuals of a population to the next finer level of the pyramid.
+     *
+     * @param population The population at the coarser level.
+     * @param context The run context of the finer level.
+     * @return The projected population, not yet evaluated.
+     */
+    private static Population project(Population population, RunContext context) {
+        List<Individual> coarseIndividuals = population.getIndividuals();
+        Individual[] individuals = new Individual[coarseIndividuals.size()];
+        WorkerPool.forEach(context, individuals.length, 1, i -> individuals[i] = project(coarseIndividuals.get(i), context));
+        return new Population(context, new ArrayList<>(Arrays.asList(individuals)));
+    }
+
+    /**
+     * Projects an individual to a finer level of the pyramid, keeping its segments.
+     *
+     * @param individual The individual at the coarser level.
+     * @param context The run context of the finer level, whose image downsamples to the image of the individual.
+     * @return The projected individual.
+     */
+    static Individual project(Individual individual, RunContext context) {
+        Image coarseImage = individual.getContext().getImage();
+        Image image = context.getImage();
+        int coarseWidth = coarseImage.getImageWith();
+        int width = image.getImageWith();
+        int[] coarseLabels = individual.getLabels();
+        int[] labels = new int[image.getPixelCount()];
+        for (int y = 0; y < image.getImageHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                labels[y * width + x] = coarseLabels[(y / 2) * coarseWidth + x / 2];
+            }
+        }
+        return new Individual(context, PrimMST.buildWithinSegments(image.getNeighborWeights(), labels));
+    }
+
+    /**
+     * Print the average objective values and number of segments of the first Pareto front of a level.
+     *
+     * @param population The final population of the level.
+     * @param level The level.
+     */
+    private static void printStats(Population population, int level) {
+        List<Individual> front = NSGAII.getNonDominatedIndividuals(population);
+        double edgeValueSum = 0.0;
+        double connectivityMeasureSum = 0.0;
+        double overallDeviationSum = 0.0;
+        double numSegmentsSum = 0;
+        for (Individual individual : front) {
+            edgeValueSum += individual.getEdgeValue();
+            connectivityMeasureSum += individual.getConnectivityMeasure();
+            overallDeviationSum += individual.getOverallDeviation();
+            numSegmentsSum += individual.getSegmentCount();
+        }
+        int numInd = front.size();
+        DecimalFormat df = new DecimalFormat("#.###");
+        System.out.println("Level " + level + " - Avg. best EV: " + df.format(edgeValueSum / numInd) + " - Avg. best CM: " + df.format(connectivityMeasureSum / numInd)
+            + " - Avg. best OD: " + df.format(overallDeviationSum / numInd) + " - Avg. best num segments: " + df.format(numSegmentsSum / numInd));
+    }
+
+    public static void main(String[] args) {
+        Parameters parameters = new Parameters();
+        parameters.imageName = "86016";
+        parameters.image = Image.load("training_images/" + parameters.imageName + "/Test image.jpg");
+        parameters.segmentsLowerBound = 4;
+        parameters.segmentsUpperBound = 41;
+        parameters.populationSize = 100;
+        parameters.parentSelector = new TournamentParentSelector();
+        parameters.tournamentSize = 7;
+        parameters.isTournamentReplacementAllowed = false;
+        parameters.generations = 50;
+        parameters.crossoverHandler = new OnePointCrosser();
+        parameters.mutationProbability = 0.9;
+        parameters.mutationStepSize = 7;
+        parameters.mutationHandler = new StudassMutator();
+        // 50 generations at 1/16 of the pixels, 25 at 1/4 and 12 at full resolution
+        parameters.pyramidLevels = 3;
+
+        long start = System.currentTimeMillis();
+        PyramidNSGAII.runGA(new RunContext(parameters)).join();
+        System.out.println("Run took " + (System.currentTimeMillis() - start) / 1000.0 + " s");
+    }
+}
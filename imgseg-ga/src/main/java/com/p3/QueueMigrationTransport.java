@@ -0,0 +1,61 @@
+package com.p3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.p3.interfaces.MigrationTransport;
+
+/**
+ * Migration between islands in the same process, through one lock-free queue per island.
+ * The migrants are copied when they are sent, so the islands never share an individual.
+ */
+public class QueueMigrationTransport implements MigrationTransport {
+
+    private final int island;
+    private final List<ConcurrentLinkedQueue<Individual>> inboxes;
+
+    private QueueMigrationTransport(int island, List<ConcurrentLinkedQueue<Individual>> inboxes) {
+        this.island = island;
+        this.inboxes = inboxes;
+    }
+
+    /**
+     * Creates connected transports for the given number of islands, one per island.
+     *
+     * @param islandCount The number of islands.
+     * @return The transport of every island.
+     */
+    public static QueueMigrationTransport[] connect(int islandCount) {
+        List<ConcurrentLinkedQueue<Individual>> inboxes = new ArrayList<>();
+        for (int i = 0; i < islandCount; i++) {
+            inboxes.add(new ConcurrentLinkedQueue<>());
+        }
+        QueueMigrationTransport[] transports = new QueueMigrationTransport[islandCount];
+        for (int i = 0; i < islandCount; i++) {
+            transports[i] = new QueueMigrationTransport(i, inboxes);
+        }
+        return transports;
+    }
+
+    @Override
+    public void send(int island, List<Individual> migrants) {
+        for (Individual migrant : migrants) {
+            inboxes.get(island).offer(migrant.copy());
+        }
+    }
+
+    @Override
+    public List<Individual> receive(RunContext context) {
+        List<Individual> immigrants = new ArrayList<>();
+        Individual immigrant;
+        while ((immigrant = inboxes.get(island).poll()) != null) {
+            immigrants.add(immigrant);
+        }
+        return immigrants;
+    }
+
+    @Override
+    public void close() {
+    }
+}
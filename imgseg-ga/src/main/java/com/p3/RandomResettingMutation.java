@@ -1,32 +1,33 @@
 package com.p3;
 
-import java.util.List;
-
 import com.p3.interfaces.MutationHandler;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class RandomResettingMutation implements MutationHandler {
     
     /**
-     * Mutates an individual.
+     * Mutates a genome.
      * 
-     * @param child The individual to mutate.
-     * @return void
+     * @param context The run context, which gives the mutation probability.
+     * @param genome The genome to mutate.
+     * @return True if any gene was mutated, false otherwise.
      */
     @Override
-    public void mutate(Individual child) {
-        List<Integer> chromosome = child.getChromosome();
-        int length = chromosome.size();
-        Random random = new Random();
+    public boolean mutate(RunContext context, Genome genome) {
+        int length = genome.length();
+        Random random = ThreadLocalRandom.current();
+        boolean isMutated = false;
 
         for (int i = 0; i < length; i++) {
-            if (random.nextInt(1) < Parameters.MUTATION_PROBABILITY) { // 50/length) {
+            if (random.nextInt(1) < context.getParameters().mutationProbability) { // 50/length) {
                 // set to a random int in interval [0, 8]
-                chromosome.set(i, random.nextInt(9));
+                genome.set(i, random.nextInt(9));
+                isMutated = true;
             }
         }
 
-        child.setChromosome(chromosome);
+        return isMutated;
     }
 }
 
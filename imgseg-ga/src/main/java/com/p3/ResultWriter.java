@@ -0,0 +1,128 @@
+package com.p3;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Writes the segmented images of the results of runs in the background, so that a run does not wait for its
+ * images to be rendered and encoded, and the next run can start right away.
+ *
+ * The images are written by a pool of writer threads shared by all runs, one job per solution. The queue of
+ * jobs is bounded: when it is full, the run that submits a job writes the images itself, so runs that produce
+ * results faster than they can be written are slowed down instead of filling the memory with pending images.
+ * The writer threads stop when they have been idle for a while, and are not daemon threads, so a program does
+ * not exit before the results have been written.
+ */
+public class ResultWriter {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int QUEUE_CAPACITY = 4 * THREADS;
+    private static final long IDLE_SECONDS = 1;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    // Private constructor to prevent instantiation
+    private ResultWriter() {
+        throw new UnsupportedOperationException("ResultWriter is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Writes the segmented images of the solutions of a run to a results directory, i.e. for every solution
+     * the image with green segment borders on the original image to type_1, and the image with black segment
+     * borders on white to type_2. The results of an earlier run in the directory are deleted. Returns as soon
+     * as all jobs have been submitted.
+     *
+     * @param directory The results directory of the run.
+     * @param individuals The solutions, which must not be changed until the images have been written.
+     * @return A future that completes when all images have been written, or completes exceptionally with an
+     *         UncheckedIOException if an image cannot be written.
+     */
+    public static CompletableFuture<Void> writeResults(String directory, List<Individual> individuals) {
+        Path type1Directory = Paths.get(directory, "type_1");
+        Path type2Directory = Paths.get(directory, "type_2");
+
+        List<CompletableFuture<Void>> jobs = new ArrayList<>();
+        try {
+            jobs.add(deleteInBackground(type1Directory));
+            jobs.add(deleteInBackground(type2Directory));
+            Files.createDirectories(type1Directory);
+            Files.createDirectories(type2Directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not prepare the results directory " + directory, e);
+        }
+
+        for (int i = 0; i < individuals.size(); i++) {
+            Individual individual = individuals.get(i);
+            String type1File = type1Directory.resolve(i + ".jpg").toString();
+            String type2File = type2Directory.resolve(i + ".jpg").toString();
+            // Both images of a solution are rendered in one pass over its segmentation, in one job per solution
+            jobs.add(CompletableFuture.runAsync(
+                () -> ImageReaderWriter.writeImagesWithSegments(type1File, type2File, individual), EXECUTOR));
+        }
+        return CompletableFuture.allOf(jobs.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Moves a directory with earlier results out of the way, so that new results can be written right away,
+     * and deletes it in the background.
+     *
+     * @param directory The directory to delete.
+     * @return A future that completes when the directory has been deleted.
+     * @throws IOException If the directory cannot be moved.
+     */
+    private static CompletableFuture<Void> deleteInBackground(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Path deleted = directory.resolveSibling(directory.getFileName() + ".deleted-" + System.nanoTime());
+        Files.move(directory, deleted);
+        return CompletableFuture.runAsync(() -> deleteRecursively(deleted), EXECUTOR);
+    }
+
+    /**
+     * Deletes a directory and everything in it.
+     *
+     * @param directory The directory to delete.
+     */
+    private static void deleteRecursively(Path directory) {
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(directory)) {
+            stream.forEach(paths::add);
+            // Files before the directories holding them
+            Collections.reverse(paths);
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete earlier results in " + directory, e);
+        }
+    }
+
+    /**
+     * Creates the pool of writer threads, with a bounded queue of jobs that are run by the submitting thread
+     * when the queue is full.
+     *
+     * @return The pool of writer threads.
+     */
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, IDLE_SECONDS, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            task -> new Thread(task, "result-writer-" + threadCount.incrementAndGet()),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
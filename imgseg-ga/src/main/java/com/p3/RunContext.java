@@ -0,0 +1,113 @@
+package com.p3;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The state of one run of a genetic algorithm: the image, operators and parameters it was started with,
+ * the number of objective evaluations it has done so far, and its metrics (see RunMetrics).
+ *
+ * Every individual and population belongs to a run context, and the operators, selectors and objective
+ * functions take what they need from the context of the individuals they work on. Nothing of a run is kept
+ * in static fields, so several runs, e.g. on different images, can run at the same time in one JVM. The
+ * parallel stages of all runs with the same number of threads share the worker threads of WorkerPool.
+ */
+public final class RunContext {
+
+    private final Parameters parameters;
+    private final AtomicLong evaluationCount = new AtomicLong();
+    private final AtomicLong incrementalEvaluationCount = new AtomicLong();
+    private final AtomicLong evaluationCacheHitCount = new AtomicLong();
+    private final RunMetrics metrics;
+
+    /**
+     * Creates a run context. The parameters are copied, so later changes to them do not affect the run.
+     *
+     * @param parameters The parameters of the run. The image must be set.
+     */
+    public RunContext(Parameters parameters) {
+        if (parameters.image == null) {
+            throw new IllegalArgumentException("The image of the run must be set");
+        }
+        this.parameters = parameters.copy();
+        this.metrics = new RunMetrics(this);
+    }
+
+    /**
+     * Returns the parameters of the run. They must not be changed while the run is in progress.
+     *
+     * @return The parameters of the run.
+     */
+    public Parameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns the image segmented by the run.
+     *
+     * @return The image of the run.
+     */
+    public Image getImage() {
+        return parameters.image;
+    }
+
+    /**
+     * Counts a full evaluation of the objective values of an individual, see ObjectiveEvaluator.evaluate.
+     */
+    void countEvaluation() {
+        evaluationCount.incrementAndGet();
+    }
+
+    /**
+     * Counts an incremental update of the objective values of an individual, see ObjectiveEvaluator.evaluateChange.
+     */
+    void countIncrementalEvaluation() {
+        incrementalEvaluationCount.incrementAndGet();
+    }
+
+    /**
+     * Counts individuals whose objective values were already known when they were to be evaluated,
+     * see PopulationEvaluator.evaluate.
+     *
+     * @param count The number of individuals.
+     */
+    void countEvaluationCacheHits(int count) {
+        evaluationCacheHitCount.addAndGet(count);
+    }
+
+    /**
+     * Returns the number of full evaluations done in the run so far.
+     *
+     * @return The number of full evaluations.
+     */
+    public long getEvaluationCount() {
+        return evaluationCount.get();
+    }
+
+    /**
+     * Returns the number of incremental updates done in the run so far.
+     *
+     * @return The number of incremental updates.
+     */
+    public long getIncrementalEvaluationCount() {
+        return incrementalEvaluationCount.get();
+    }
+
+    /**
+     * Returns the number of individuals whose objective values were already known when they were to be
+     * evaluated, in the run so far.
+     *
+     * @return The number of evaluation cache hits.
+     */
+    public long getEvaluationCacheHitCount() {
+        return evaluationCacheHitCount.get();
+    }
+
+    /**
+     * Returns the metrics of the run.
+     *
+     * @return The metrics of the run.
+     */
+    public RunMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,369 @@
+package com.p3;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures where the time of a run goes: the time spent and the bytes allocated in every phase of every
+ * generation, with the number of evaluations and evaluation cache hits, written as a time series with one
+ * row per generation.
+ *
+ * A phase is entered and left by the thread doing the work, so phases run on the worker threads are measured
+ * on those threads. Phases nest: the time and allocations of a thread are charged to the innermost phase it is
+ * in, e.g. building the segmentation of a child is charged to the segmentation phase, not to the crossover
+ * that created the child. The time of a phase is summed over the threads that worked on it, so with several
+ * threads the phases of a generation can add up to more than its wall time. Allocations are measured per
+ * thread with the ThreadMXBean of the JVM, and are -1 if the JVM cannot measure them. The phase of every thread
+ * is kept by the metrics of the run, not in a ThreadLocal, so that the long-lived worker threads do not keep
+ * the run and its image alive after the run.
+ *
+ * The metrics are only measured if the metricsFile parameter is set. They are written as JSON if the file
+ * name ends in .json, and as CSV otherwise.
+ */
+public final class RunMetrics {
+
+    /**
+     * The phases of a generation.
+     */
+    public enum Phase {
+        PARENT_SELECTION,
+        CROSSOVER,
+        MUTATION,
+        SEGMENTATION,
+        EVALUATION,
+        SORTING,
+        SURVIVOR_SELECTION
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATIONS_SUPPORTED = enableAllocationMeasurement();
+
+    private final RunContext context;
+    private final boolean enabled;
+    private final LongAdder[] nanos = newAdders();
+    private final LongAdder[] allocatedBytes = newAdders();
+    private final Map<Thread, ThreadState> threadStates = new ConcurrentHashMap<>();
+    private final List<Generation> generations = new ArrayList<>();
+    private Generation current;
+
+    /**
+     * Creates the metrics of a run.
+     *
+     * @param context The run context, whose parameters tell whether the metrics are measured.
+     */
+    RunMetrics(RunContext context) {
+        this.context = context;
+        this.enabled = context.getParameters().metricsFile != null;
+    }
+
+    /**
+     * Returns whether the metrics are measured, i.e. whether the metricsFile parameter is set.
+     *
+     * @return True if the metrics are measured.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enters a phase on the current thread. The time and allocations of the thread are charged to the phase
+     * until it is left, or until another phase is entered.
+     *
+     * @param phase The phase.
+     * @return The phase the thread was in before, to be passed to exit.
+     */
+    Phase enter(Phase phase) {
+        if (!enabled) {
+            return null;
+        }
+        ThreadState state = getThreadState();
+        Phase previous = state.phase;
+        state.switchTo(phase, nanos, allocatedBytes);
+        return previous;
+    }
+
+    /**
+     * Leaves the current phase of the current thread, and returns to the phase it was in before.
+     *
+     * @param previous The phase returned by enter.
+     */
+    void exit(Phase previous) {
+        if (enabled) {
+            getThreadState().switchTo(previous, nanos, allocatedBytes);
+        }
+    }
+
+    /**
+     * Returns the phase of the current thread, and the time and allocated bytes of the thread when it entered it.
+     *
+     * @return The state of the current thread.
+     */
+    private ThreadState getThreadState() {
+        Thread thread = Thread.currentThread();
+        ThreadState state = threadStates.get(thread);
+        if (state == null) {
+            state = new ThreadState();
+            threadStates.put(thread, state);
+        }
+        return state;
+    }
+
+    /**
+     * Starts measuring a generation.
+     *
+     * @param generation The number of the generation.
+     */
+    public void startGeneration(int generation) {
+        if (enabled) {
+            current = new Generation(generation, snapshot());
+        }
+    }
+
+    /**
+     * Ends the generation started last, and adds its metrics to the time series.
+     */
+    public void endGeneration() {
+        if (enabled && current != null) {
+            current.end = snapshot();
+            generations.add(current);
+            current = null;
+        }
+    }
+
+    /**
+     * Writes the time series to the metrics file, if the metrics are measured.
+     *
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    public void write() {
+        if (!enabled) {
+            return;
+        }
+        Path file = Paths.get(context.getParameters().metricsFile);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                if (file.getFileName().toString().endsWith(".json")) {
+                    writeJson(writer);
+                } else {
+                    writeCsv(writer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the metrics to " + file, e);
+        }
+        threadStates.clear();
+        System.out.println("Metrics of " + generations.size() + " generations written to " + file);
+    }
+
+    /**
+     * Writes the time series as CSV, with one row per generation.
+     *
+     * @param writer The writer.
+     * @throws IOException If the time series cannot be written.
+     */
+    private void writeCsv(Writer writer) throws IOException {
+        StringBuilder header = new StringBuilder("image,width,height,threads,generation,wall_ms,evaluations,incremental_evaluations,evaluation_cache_hits");
+        for (Phase phase : PHASES) {
+            String name = phase.name().toLowerCase(Locale.ROOT);
+            header.append(',').append(name).append("_ms,").append(name).append("_allocated_bytes");
+        }
+        writer.write(header.append('\n').toString());
+
+        Image image = context.getImage();
+        for (Generation generation : generations) {
+            StringBuilder row = new StringBuilder();
+            row.append(context.getParameters().imageName).append(',')
+                .append(image.getImageWith()).append(',')
+                .append(image.getImageHeight()).append(',')
+                .append(context.getParameters().threads).append(',')
+                .append(generation.number).append(',')
+                .append(toMillis(generation.end.wallNanos - generation.start.wallNanos)).append(',')
+                .append(generation.end.evaluations - generation.start.evaluations).append(',')
+                .append(generation.end.incrementalEvaluations - generation.start.incrementalEvaluations).append(',')
+                .append(generation.end.cacheHits - generation.start.cacheHits);
+            for (Phase phase : PHASES) {
+                row.append(',').append(toMillis(generation.getNanos(phase)))
+                    .append(',').append(generation.getAllocatedBytes(phase));
+            }
+            writer.write(row.append('\n').toString());
+        }
+    }
+
+    /**
+     * Writes the time series as JSON, with the image and the number of threads of the run, and one object
+     * per generation.
+     *
+     * @param writer The writer.
+     * @throws IOException If the time series cannot be written.
+     */
+    private void writeJson(Writer writer) throws IOException {
+        Image image = context.getImage();
+        String imageName = context.getParameters().imageName;
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"image\": ").append(imageName == null ? "null" : "\"" + imageName.replace("\\", "\\\\").replace("\"", "\\\"") + "\"").append(",\n")
+            .append("  \"width\": ").append(image.getImageWith()).append(",\n")
+            .append("  \"height\": ").append(image.getImageHeight()).append(",\n")
+            .append("  \"threads\": ").append(context.getParameters().threads).append(",\n")
+            .append("  \"generations\": [");
+        for (int g = 0; g < generations.size(); g++) {
+            Generation generation = generations.get(g);
+            json.append(g == 0 ? "\n" : ",\n")
+                .append("    {\"generation\": ").append(generation.number)
+                .append(", \"wallMs\": ").append(toMillis(generation.end.wallNanos - generation.start.wallNanos))
+                .append(", \"evaluations\": ").append(generation.end.evaluations - generation.start.evaluations)
+                .append(", \"incrementalEvaluations\": ").append(generation.end.incrementalEvaluations - generation.start.incrementalEvaluations)
+                .append(", \"evaluationCacheHits\": ").append(generation.end.cacheHits - generation.start.cacheHits)
+                .append(", \"phases\": {");
+            for (int p = 0; p < PHASES.length; p++) {
+                json.append(p == 0 ? "" : ", ")
+                    .append('"').append(PHASES[p].name().toLowerCase(Locale.ROOT)).append("\": {\"ms\": ")
+                    .append(toMillis(generation.getNanos(PHASES[p])))
+                    .append(", \"allocatedBytes\": ").append(generation.getAllocatedBytes(PHASES[p])).append('}');
+            }
+            json.append("}}");
+        }
+        json.append(generations.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        writer.write(json.toString());
+    }
+
+    /**
+     * Returns the totals of the run so far.
+     *
+     * @return The totals.
+     */
+    private Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.wallNanos = System.nanoTime();
+        snapshot.evaluations = context.getEvaluationCount();
+        snapshot.incrementalEvaluations = context.getIncrementalEvaluationCount();
+        snapshot.cacheHits = context.getEvaluationCacheHitCount();
+        for (int p = 0; p < PHASES.length; p++) {
+            snapshot.nanos[p] = nanos[p].sum();
+            snapshot.allocatedBytes[p] = allocatedBytes[p].sum();
+        }
+        return snapshot;
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[PHASES.length];
+        for (int p = 0; p < adders.length; p++) {
+            adders[p] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Turns on the measurement of the allocations per thread, if the JVM supports it.
+     *
+     * @return True if the allocations per thread can be measured.
+     */
+    private static boolean enableAllocationMeasurement() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        try {
+            if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of bytes the current thread has allocated so far.
+     *
+     * @return The number of bytes, or 0 if the JVM cannot measure them.
+     */
+    private static long getAllocatedBytes() {
+        if (!ALLOCATIONS_SUPPORTED) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * The phase a thread is in, and the time and allocated bytes of the thread when it entered it.
+     */
+    private static final class ThreadState {
+        private Phase phase;
+        private long nanosMark;
+        private long allocatedBytesMark;
+
+        /**
+         * Charges the time and allocations since the last switch to the current phase, and switches to another phase.
+         *
+         * @param next The phase to switch to, or null if the thread leaves all phases.
+         * @param nanos The time spent in every phase, to charge the time to.
+         * @param allocatedBytes The bytes allocated in every phase, to charge the allocations to.
+         */
+        void switchTo(Phase next, LongAdder[] nanos, LongAdder[] allocatedBytes) {
+            long now = System.nanoTime();
+            long allocated = getAllocatedBytes();
+            if (phase != null) {
+                nanos[phase.ordinal()].add(now - nanosMark);
+                allocatedBytes[phase.ordinal()].add(allocated - allocatedBytesMark);
+            }
+            phase = next;
+            nanosMark = now;
+            allocatedBytesMark = allocated;
+        }
+    }
+
+    /**
+     * The totals of a run at one point in time.
+     */
+    private static final class Snapshot {
+        private long wallNanos;
+        private long evaluations;
+        private long incrementalEvaluations;
+        private long cacheHits;
+        private final long[] nanos = new long[PHASES.length];
+        private final long[] allocatedBytes = new long[PHASES.length];
+    }
+
+    /**
+     * The totals of a run at the start and the end of a generation.
+     */
+    private static final class Generation {
+        private final int number;
+        private final Snapshot start;
+        private Snapshot end;
+
+        Generation(int number, Snapshot start) {
+            this.number = number;
+            this.start = start;
+        }
+
+        long getNanos(Phase phase) {
+            return end.nanos[phase.ordinal()] - start.nanos[phase.ordinal()];
+        }
+
+        long getAllocatedBytes(Phase phase) {
+            return ALLOCATIONS_SUPPORTED ? end.allocatedBytes[phase.ordinal()] - start.allocatedBytes[phase.ordinal()] : -1;
+        }
+    }
+}
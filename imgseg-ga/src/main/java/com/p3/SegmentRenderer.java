@@ -0,0 +1,142 @@
+package com.p3;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Renders the segment borders of a segmentation straight into the pixel arrays of images, from the labels of
+ * the pixels.
+ *
+ * Both images of a result are rendered in one pass: the overlay image (type 1), with green borders on the
+ * original image, and the outline image (type 2), with black borders on white. A pixel is a border pixel if it
+ * lies on the edge of the image, or if one of its eight neighbors belongs to a segment with a larger label, so
+ * that a border between two segments is drawn on one side only. Every border pixel is drawn as a square of two
+ * by two pixels, extending right and down.
+ *
+ * The images are rendered in bands of rows, in parallel on the worker pool of the run.
+ */
+public class SegmentRenderer {
+
+    public static final int BORDER_COLOR_OVERLAY = 0x00ff00;
+    public static final int BORDER_COLOR_OUTLINE = 0x000000;
+    public static final int BACKGROUND_COLOR_OUTLINE = 0xffffff;
+
+    private static final int ROWS_PER_BAND = 16;
+
+    // Private constructor to prevent instantiation
+    private SegmentRenderer() {
+        throw new UnsupportedOperationException("SegmentRenderer is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Renders the overlay and the outline image of the segmentation of an individual.
+     *
+     * @param individual The individual.
+     * @return The overlay image at index 0 and the outline image at index 1.
+     */
+    public static BufferedImage[] render(Individual individual) {
+        RunContext context = individual.getContext();
+        Image image = context.getImage();
+        int width = image.getImageWith();
+        int height = image.getImageHeight();
+        int[] pixels = image.getPixels();
+        boolean[] borders = getBorderPixels(individual);
+
+        BufferedImage overlay = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        BufferedImage outline = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] overlayPixels = ((DataBufferInt) overlay.getRaster().getDataBuffer()).getData();
+        int[] outlinePixels = ((DataBufferInt) outline.getRaster().getDataBuffer()).getData();
+        WorkerPool.forEach(context, getBandCount(height), 1, band -> {
+            for (int i = band * ROWS_PER_BAND * width; i < Math.min(height, (band + 1) * ROWS_PER_BAND) * width; i++) {
+                overlayPixels[i] = borders[i] ? BORDER_COLOR_OVERLAY : pixels[i];
+                outlinePixels[i] = borders[i] ? BORDER_COLOR_OUTLINE : BACKGROUND_COLOR_OUTLINE;
+            }
+        });
+
+        return new BufferedImage[] {overlay, outline};
+    }
+
+    /**
+     * Returns the pixels drawn as borders in the images of the segmentation of an individual,
+     * i.e. the border pixels and the pixels they extend to.
+     *
+     * @param individual The individual.
+     * @return True for every pixel drawn as a border.
+     */
+    public static boolean[] getBorderPixels(Individual individual) {
+        RunContext context = individual.getContext();
+        Image image = context.getImage();
+        int width = image.getImageWith();
+        int height = image.getImageHeight();
+        int[] labels = individual.getSegmentation().getLabels();
+
+        // The border pixels of every row first, since a drawn pixel depends on the row above it
+        boolean[] borders = new boolean[labels.length];
+        boolean[] drawn = new boolean[labels.length];
+        int bandCount = getBandCount(height);
+        WorkerPool.forEach(context, bandCount, 1, band ->
+            findBorders(labels, width, height, band * ROWS_PER_BAND, Math.min(height, (band + 1) * ROWS_PER_BAND), borders));
+        WorkerPool.forEach(context, bandCount, 1, band ->
+            extendBorders(borders, width, band * ROWS_PER_BAND, Math.min(height, (band + 1) * ROWS_PER_BAND), drawn));
+        return drawn;
+    }
+
+    /**
+     * Returns the number of bands of rows of an image.
+     *
+     * @param height The height of the image.
+     * @return The number of bands.
+     */
+    private static int getBandCount(int height) {
+        return (height + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+    }
+
+    /**
+     * Finds the border pixels in a band of rows.
+     *
+     * @param labels The label of every pixel.
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @param fromRow The first row of the band.
+     * @param toRow The row after the last row of the band.
+     * @param borders Set to true for every border pixel.
+     */
+    private static void findBorders(int[] labels, int width, int height, int fromRow, int toRow, boolean[] borders) {
+        for (int y = fromRow; y < toRow; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int i = row + x;
+                if (x == 0 || y == 0 || x == width - 1 || y == height - 1) {
+                    borders[i] = true;
+                    continue;
+                }
+                int label = labels[i];
+                borders[i] = labels[i - width - 1] > label || labels[i - width] > label || labels[i - width + 1] > label
+                    || labels[i - 1] > label || labels[i + 1] > label
+                    || labels[i + width - 1] > label || labels[i + width] > label || labels[i + width + 1] > label;
+            }
+        }
+    }
+
+    /**
+     * Extends the border pixels in a band of rows to squares of two by two pixels. A pixel is drawn as a border
+     * if it, or the pixel to its left, above it or above to its left is a border pixel.
+     *
+     * @param borders The border pixels.
+     * @param width The width of the image.
+     * @param fromRow The first row of the band.
+     * @param toRow The row after the last row of the band.
+     * @param drawn Set to true for every pixel drawn as a border.
+     */
+    private static void extendBorders(boolean[] borders, int width, int fromRow, int toRow, boolean[] drawn) {
+        for (int y = fromRow; y < toRow; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int i = row + x;
+                drawn[i] = borders[i]
+                    || x > 0 && borders[i - 1]
+                    || y > 0 && (borders[i - width] || x > 0 && borders[i - width - 1]);
+            }
+        }
+    }
+}
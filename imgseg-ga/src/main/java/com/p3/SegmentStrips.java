@@ -0,0 +1,324 @@
+package com.p3;
+
+import java.util.Arrays;
+
+/**
+ * Connectivity summaries of a genome, one per horizontal strip of STRIP_ROWS rows of the image.
+ * The summary of a strip labels every pixel of the strip with its connected component within the strip,
+ * i.e. using only the edges that start and end inside the strip. It depends on the genes of the strip only.
+ *
+ * The segmentation of the whole genome follows from the strip summaries by joining the components along
+ * the edges that cross from one strip into the next, which can only start in the first or last row of a strip.
+ * A child made of contiguous gene ranges of its parents (see OnePointCrosser and TwoPointCrosser) shares
+ * the summaries of every strip that lies within one range with the parent it was copied from, so only the
+ * strips containing a crossover point are computed again.
+ *
+ * Strip summaries are immutable and shared between individuals. The array holding them is not,
+ * so invalidating a strip after a mutation does not affect other individuals.
+ */
+final class SegmentStrips {
+
+    public static final int STRIP_ROWS = 16;
+
+    // Scratch union-find structures per thread, for the pixels of one strip and for the components of all strips
+    private static final ThreadLocal<DisjointSet> STRIP_SETS = new ThreadLocal<>();
+    private static final ThreadLocal<DisjointSet> COMPONENT_SETS = new ThreadLocal<>();
+
+    private final NeighborWeights neighborWeights;
+    private final int imageWidth;
+    private final int imageHeight;
+    private final Strip[] strips;
+
+    private SegmentStrips(NeighborWeights neighborWeights, int imageHeight, int imageWidth) {
+        this.neighborWeights = neighborWeights;
+        this.imageHeight = imageHeight;
+        this.imageWidth = imageWidth;
+        this.strips = new Strip[(imageHeight + STRIP_ROWS - 1) / STRIP_ROWS];
+    }
+
+    /**
+     * Computes the strip summaries of a genome.
+     *
+     * @param genome The genome.
+     * @param neighborWeights The neighbor weight table of the image the genome belongs to.
+     * @return The strip summaries of the genome.
+     */
+    static SegmentStrips of(Genome genome, NeighborWeights neighborWeights) {
+        return compose(genome, neighborWeights, new int[] {0, genome.length()}, new SegmentStrips[] {null});
+    }
+
+    /**
+     * Computes the strip summaries of a genome made of consecutive gene ranges copied from other genomes.
+     * Range k spans the genes [boundaries[k], boundaries[k + 1]) and was copied from the genome summarized
+     * by sources[k]. The summaries of strips that lie within a single range are taken from the source of
+     * that range; the other strips are computed from the genome.
+     *
+     * @param genome The genome.
+     * @param neighborWeights The neighbor weight table of the image the genome belongs to.
+     * @param boundaries The first gene of every range, followed by the length of the genome.
+     * @param sources The strip summaries of the genome each range was copied from, or null to compute the range.
+     * @return The strip summaries of the genome.
+     */
+    static SegmentStrips compose(Genome genome, NeighborWeights neighborWeights, int[] boundaries, SegmentStrips[] sources) {
+        SegmentStrips result = new SegmentStrips(neighborWeights, neighborWeights.getImageHeight(), neighborWeights.getImageWidth());
+
+        int range = 0;
+        for (int s = 0; s < result.strips.length; s++) {
+            int from = result.getStripStart(s);
+            int to = result.getStripStart(s + 1);
+            while (boundaries[range + 1] <= from) {
+                range++;
+            }
+            SegmentStrips source = sources[range];
+            if (to <= boundaries[range + 1] && source != null && source.neighborWeights == neighborWeights) {
+                result.strips[s] = source.strips[s];
+            }
+            if (result.strips[s] == null) {
+                result.strips[s] = result.computeStrip(genome, s);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks the summary of the strip containing a pixel as outdated, after the gene of the pixel has changed.
+     * The strip is computed again when needed.
+     *
+     * @param pixelIndex The index of the changed gene.
+     */
+    void invalidate(int pixelIndex) {
+        strips[pixelIndex / (imageWidth * STRIP_ROWS)] = null;
+    }
+
+    /**
+     * Joins the strip summaries to the segmentation of the genome. Only the first and last rows of the strips
+     * are visited for edges, and the labels are written by one pass over the pixels without any searching.
+     * The segments are numbered in the order of their first pixel, as by Segmentation.of.
+     *
+     * @param genome The genome the strips summarize.
+     * @return The segmentation encoded by the genome.
+     */
+    Segmentation toSegmentation(Genome genome) {
+        int[] componentBases = new int[strips.length + 1];
+        for (int s = 0; s < strips.length; s++) {
+            if (strips[s] == null) {
+                strips[s] = computeStrip(genome, s);
+            }
+            componentBases[s + 1] = componentBases[s] + strips[s].componentSizes.length;
+        }
+
+        int componentCount = componentBases[strips.length];
+        DisjointSet ds = getDisjointSet(COMPONENT_SETS, componentCount);
+        for (int s = 0; s < strips.length; s++) {
+            int from = getStripStart(s);
+            int to = getStripStart(s + 1);
+            joinAcrossBoundary(genome, ds, componentBases, s, from, Math.min(from + imageWidth, to));
+            joinAcrossBoundary(genome, ds, componentBases, s, Math.max(from, to - imageWidth), to);
+        }
+
+        // Components are ordered by their first pixel, so the first component of every segment comes first
+        int[] componentLabels = new int[componentCount];
+        int[] rootLabels = ds.getScratch();
+        Arrays.fill(rootLabels, 0, componentCount, -1);
+        int segmentCount = 0;
+        for (int c = 0; c < componentCount; c++) {
+            int root = ds.find(c);
+            if (rootLabels[root] == -1) {
+                rootLabels[root] = segmentCount++;
+            }
+            componentLabels[c] = rootLabels[root];
+        }
+
+        int[] segmentSizes = new int[segmentCount];
+        int[] labels = new int[genome.length()];
+        for (int s = 0; s < strips.length; s++) {
+            Strip strip = strips[s];
+            int base = componentBases[s];
+            for (int c = 0; c < strip.componentSizes.length; c++) {
+                segmentSizes[componentLabels[base + c]] += strip.componentSizes[c];
+            }
+            int from = getStripStart(s);
+            for (int i = 0; i < strip.localLabels.length; i++) {
+                labels[from + i] = componentLabels[base + strip.localLabels[i]];
+            }
+        }
+
+        return new Segmentation(labels, segmentCount, segmentSizes);
+    }
+
+    /**
+     * Joins the components of the pixels in the range [from, to) of strip s with the components of the
+     * neighbors in other strips their edges point to. Helper method for toSegmentation.
+     *
+     * @param genome The genome.
+     * @param ds The union-find structure over the components of all strips.
+     * @param componentBases The index of the first component of every strip.
+     * @param s The index of the strip.
+     * @param from The first pixel of the range, inclusive.
+     * @param to The last pixel of the range, exclusive.
+     */
+    private void joinAcrossBoundary(Genome genome, DisjointSet ds, int[] componentBases, int s, int from, int to) {
+        int stripFrom = getStripStart(s);
+        int stripTo = getStripStart(s + 1);
+        int[] localLabels = strips[s].localLabels;
+        for (int i = from; i < to; i++) {
+            int neighbor = neighborWeights.getNeighbor(i, genome.get(i));
+            if (neighbor == -1 || (neighbor >= stripFrom && neighbor < stripTo)) {
+                continue;
+            }
+            int neighborStrip = neighbor / (imageWidth * STRIP_ROWS);
+            int neighborFrom = getStripStart(neighborStrip);
+            ds.union(componentBases[s] + localLabels[i - stripFrom],
+                componentBases[neighborStrip] + strips[neighborStrip].localLabels[neighbor - neighborFrom]);
+        }
+    }
+
+    /**
+     * Computes the summary of strip s, by a union-find over the edges inside the strip.
+     *
+     * @param genome The genome.
+     * @param s The index of the strip.
+     * @return The summary of the strip.
+     */
+    private Strip computeStrip(Genome genome, int s) {
+        int from = getStripStart(s);
+        int to = getStripStart(s + 1);
+        int size = to - from;
+        int paddedWidth = neighborWeights.getPaddedWidth();
+
+        DisjointSet ds = getDisjointSet(STRIP_SETS, size);
+
+        int firstRow = s * STRIP_ROWS;
+        int lastRow = Math.min(firstRow + STRIP_ROWS, imageHeight);
+        for (int row = firstRow; row < lastRow; row++) {
+            int pixelIndex = row * imageWidth;
+            int paddedIndex = (row + 1) * paddedWidth + 1;
+            for (int col = 0; col < imageWidth; col++, pixelIndex++, paddedIndex++) {
+                int direction = genome.get(pixelIndex);
+                if (direction == 0) {
+                    continue;
+                }
+                int neighbor = neighborWeights.toPixel(paddedIndex + neighborWeights.getOffset(direction));
+                if (neighbor >= from && neighbor < to) {
+                    ds.union(pixelIndex - from, neighbor - from);
+                }
+            }
+        }
+
+        // Number the components in the order of their first pixel
+        int[] localLabels = new int[size];
+        int[] rootLabels = ds.getScratch();
+        Arrays.fill(rootLabels, 0, size, -1);
+        int componentCount = 0;
+        for (int i = 0; i < size; i++) {
+            int root = ds.find(i);
+            if (rootLabels[root] == -1) {
+                rootLabels[root] = componentCount++;
+            }
+            localLabels[i] = rootLabels[root];
+        }
+
+        int[] componentSizes = new int[componentCount];
+        for (int i = 0; i < size; i++) {
+            componentSizes[localLabels[i]]++;
+        }
+        return new Strip(localLabels, componentSizes);
+    }
+
+    /**
+     * Returns the scratch union-find structure of the current thread, reset to the given size.
+     * The structure is replaced by a larger one when it is too small.
+     *
+     * @param sets The scratch structures per thread.
+     * @param size The number of elements needed.
+     * @return The scratch union-find structure.
+     */
+    private static DisjointSet getDisjointSet(ThreadLocal<DisjointSet> sets, int size) {
+        DisjointSet ds = sets.get();
+        if (ds == null || ds.capacity() < size) {
+            ds = new DisjointSet(size);
+            sets.set(ds);
+        } else {
+            ds.reset(size);
+        }
+        return ds;
+    }
+
+    /**
+     * Returns the index of the first pixel of strip s, or the number of pixels if s is the number of strips.
+     *
+     * @param s The index of the strip.
+     * @return The index of the first pixel of the strip.
+     */
+    private int getStripStart(int s) {
+        return Math.min(s * STRIP_ROWS, imageHeight) * imageWidth;
+    }
+
+    /**
+     * The summary of one strip: the component of every pixel within the strip, and the size of every component.
+     */
+    private static class Strip {
+        private final int[] localLabels;
+        private final int[] componentSizes;
+
+        Strip(int[] localLabels, int[] componentSizes) {
+            this.localLabels = localLabels;
+            this.componentSizes = componentSizes;
+        }
+    }
+
+    /**
+     * Union-find structure with path halving and union by rank. Can be reset and reused for smaller sizes.
+     */
+    private static class DisjointSet {
+        private final int[] parent;
+        private final int[] rank;
+        private final int[] scratch;
+
+        DisjointSet(int size) {
+            parent = new int[size];
+            rank = new int[size];
+            scratch = new int[size];
+            reset(size);
+        }
+
+        int capacity() {
+            return parent.length;
+        }
+
+        void reset(int size) {
+            for (int i = 0; i < size; i++) {
+                parent[i] = i;
+            }
+            Arrays.fill(rank, 0, size, 0);
+        }
+
+        int[] getScratch() {
+            return scratch;
+        }
+
+        int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
+            }
+            return x;
+        }
+
+        void union(int x, int y) {
+            int xRoot = find(x);
+            int yRoot = find(y);
+            if (xRoot == yRoot) {
+                return;
+            }
+            if (rank[xRoot] < rank[yRoot]) {
+                parent[xRoot] = yRoot;
+            } else if (rank[xRoot] > rank[yRoot]) {
+                parent[yRoot] = xRoot;
+            } else {
+                parent[yRoot] = xRoot;
+                rank[xRoot]++;
+            }
+        }
+    }
+}
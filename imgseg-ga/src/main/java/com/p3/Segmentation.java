@@ -0,0 +1,349 @@
+package com.p3;
+
+import java.util.Arrays;
+
+/**
+ * The segmentation encoded by a genome. Every pixel is labeled with the index of the segment it belongs to,
+ * and the pixels of each segment are grouped together in a compressed sparse row (CSR) layout:
+ * the pixels of segment s are found at positions segmentOffsets[s] to segmentOffsets[s + 1] (exclusive)
+ * of segmentPixels, in ascending order.
+ *
+ * The segments are the connected components of the graph where each pixel has an edge to the neighbor
+ * its gene points to. A freshly decoded segmentation numbers its segments in the order of their first pixel.
+ * After changes to single genes (see applyGeneChange) labels may be left unused, so segment indexes range
+ * over [0, getLabelCount()) and segments of size 0 must be skipped.
+ *
+ * A segmentation may be read by several threads at once, e.g. a parent shared by the offspring generated on
+ * the worker threads. The CSR layout is built on first use and published through volatile fields, the pixels
+ * last, so a thread that sees the pixels also sees the offsets. Changes (see applyGeneChange) must not be
+ * applied while other threads read the segmentation.
+ */
+public final class Segmentation {
+
+    private static final int[] OPPOSITE_DIRECTIONS = {0, 2, 1, 4, 3, 8, 7, 6, 5};
+
+    private static final ThreadLocal<int[]> PREVIOUS_LABELS = new ThreadLocal<>();
+
+    private final int[] labels;
+    private int labelCount;
+    private int segmentCount;
+    private int[] segmentSizes;
+    private volatile int[] segmentOffsets;
+    private volatile int[] segmentPixels;
+
+    /**
+     * Creates a segmentation from the segment index of every pixel, see SegmentStrips.toSegmentation.
+     *
+     * @param labels The segment index of every pixel, numbered from 0 without gaps.
+     * @param segmentCount The number of segments.
+     * @param segmentSizes The number of pixels in every segment.
+     */
+    Segmentation(int[] labels, int segmentCount, int[] segmentSizes) {
+        this.labels = labels;
+        this.labelCount = segmentCount;
+        this.segmentCount = segmentCount;
+        this.segmentSizes = segmentSizes;
+    }
+
+    /**
+     * Creates the segmentation encoded by a genome.
+     *
+     * @param genome The genome to decode.
+     * @param neighborWeights The neighbor weight table of the image the genome belongs to.
+     * @return The segmentation encoded by the genome.
+     */
+    public static Segmentation of(Genome genome, NeighborWeights neighborWeights) {
+        return SegmentStrips.of(genome, neighborWeights).toSegmentation(genome);
+    }
+
+    /**
+     * Updates the segmentation after a single gene of the genome has changed. Only the segments that contained
+     * the pixel or the neighbors its old and new edges point to are relabeled: removing the old edge may split
+     * the segment of the pixel in two, and adding the new edge may merge it with the segment of the new neighbor.
+     * The work is proportional to the size of these segments, not the image.
+     *
+     * @param genome The genome, already holding the new gene.
+     * @param pixelIndex The index of the changed gene.
+     * @param previousDirection The direction the gene held before the change.
+     * @param neighborWeights The neighbor weight table of the image the genome belongs to.
+     * @return The pixels that were relabeled and their previous labels.
+     */
+    public Change applyGeneChange(Genome genome, int pixelIndex, int previousDirection, NeighborWeights neighborWeights) {
+        int previousNeighbor = neighborWeights.getNeighbor(pixelIndex, previousDirection);
+        int newNeighbor = neighborWeights.getNeighbor(pixelIndex, genome.get(pixelIndex));
+
+        int firstLabel = labels[pixelIndex];
+        int mergedLabel = newNeighbor != -1 ? labels[newNeighbor] : -1;
+
+        int[] previousLabels = PREVIOUS_LABELS.get();
+        if (previousLabels == null || previousLabels.length < labels.length) {
+            previousLabels = new int[labels.length];
+            PREVIOUS_LABELS.set(previousLabels);
+        }
+
+        // The component of the pixel, and the component of its old neighbor if the old edge was a bridge
+        IntList region = new IntList(64);
+        collectComponent(genome, pixelIndex, neighborWeights, region, previousLabels);
+        int firstSize = region.size;
+        if (previousNeighbor != -1 && labels[previousNeighbor] >= 0) {
+            collectComponent(genome, previousNeighbor, neighborWeights, region, previousLabels);
+        }
+        int regionSize = region.size;
+
+        int secondLabel = -1;
+        if (regionSize > firstSize) {
+            if (mergedLabel != -1 && mergedLabel != firstLabel) {
+                secondLabel = mergedLabel;
+            } else {
+                secondLabel = newLabel();
+            }
+        }
+
+        for (int k = 0; k < firstSize; k++) {
+            labels[region.values[k]] = firstLabel;
+        }
+        for (int k = firstSize; k < regionSize; k++) {
+            labels[region.values[k]] = secondLabel;
+        }
+
+        // Every pixel of the old segment of the new neighbor is now part of one of the two components
+        if (mergedLabel != -1 && mergedLabel != firstLabel && mergedLabel != secondLabel) {
+            segmentSizes[mergedLabel] = 0;
+            segmentCount--;
+        }
+        segmentSizes[firstLabel] = firstSize;
+        if (secondLabel != -1) {
+            segmentSizes[secondLabel] = regionSize - firstSize;
+        }
+
+        this.segmentPixels = null;
+        this.segmentOffsets = null;
+
+        return new Change(region.values, regionSize, previousLabels, firstLabel, secondLabel);
+    }
+
+    /**
+     * Collects the connected component of a pixel by a breadth-first search over the edges of the genome,
+     * in both directions. Visited pixels are marked by storing the bitwise complement (a negative number)
+     * of their label, and their previous labels are recorded.
+     *
+     * @param genome The genome.
+     * @param start The pixel to start from.
+     * @param neighborWeights The neighbor weight table of the image.
+     * @param region The list to append the component to.
+     * @param previousLabels The array to record the previous labels in, indexed by pixel.
+     */
+    private void collectComponent(Genome genome, int start, NeighborWeights neighborWeights, IntList region, int[] previousLabels) {
+        previousLabels[start] = labels[start];
+        labels[start] = ~labels[start];
+        region.add(start);
+
+        for (int k = region.size - 1; k < region.size; k++) {
+            int pixel = region.values[k];
+            int paddedIndex = neighborWeights.toPadded(pixel);
+            int direction = genome.get(pixel);
+            for (int d = 1; d <= NeighborWeights.DIRECTIONS; d++) {
+                int neighbor = neighborWeights.toPixel(paddedIndex + neighborWeights.getOffset(d));
+                if (neighbor == -1 || labels[neighbor] < 0) {
+                    continue;
+                }
+                // The pixels are connected if either of them has its edge pointing to the other
+                if (direction == d || genome.get(neighbor) == OPPOSITE_DIRECTIONS[d]) {
+                    previousLabels[neighbor] = labels[neighbor];
+                    labels[neighbor] = ~labels[neighbor];
+                    region.add(neighbor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns an unused label, growing the label range if needed.
+     *
+     * @return An unused label.
+     */
+    private int newLabel() {
+        if (labelCount == segmentSizes.length) {
+            segmentSizes = Arrays.copyOf(segmentSizes, Math.max(4, segmentSizes.length * 2));
+        }
+        segmentCount++;
+        return labelCount++;
+    }
+
+    /**
+     * Returns the segment index of every pixel. The returned array is the backing store of the
+     * segmentation and must not be modified.
+     *
+     * @return The segment index of every pixel.
+     */
+    public int[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * Returns the segment index of the pixel at the given index.
+     *
+     * @param pixelIndex The index of the pixel.
+     * @return The segment index of the pixel.
+     */
+    public int getLabel(int pixelIndex) {
+        return labels[pixelIndex];
+    }
+
+    /**
+     * Returns the number of (non-empty) segments.
+     *
+     * @return The number of segments.
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Returns the number of labels in use, i.e. one more than the highest segment index.
+     * Equal to the number of segments unless single gene changes have left labels unused.
+     *
+     * @return The number of labels.
+     */
+    public int getLabelCount() {
+        return labelCount;
+    }
+
+    /**
+     * Returns the number of pixels in the segment at the given index.
+     *
+     * @param segmentIndex The index of the segment.
+     * @return The number of pixels in the segment, 0 if the label is unused.
+     */
+    public int getSegmentSize(int segmentIndex) {
+        return segmentSizes[segmentIndex];
+    }
+
+    /**
+     * Returns the offsets of the segments in getSegmentPixels(). The array has one entry more than
+     * there are labels, and must not be modified.
+     *
+     * @return The offsets of the segments.
+     */
+    public int[] getSegmentOffsets() {
+        // The offsets are published before the pixels, so they are set once the pixels are
+        if (segmentPixels == null) {
+            setSegmentPixels();
+        }
+        return segmentOffsets;
+    }
+
+    /**
+     * Returns the pixel indexes of all segments, grouped by segment. The returned array must not be modified.
+     *
+     * @return The pixel indexes grouped by segment.
+     */
+    public int[] getSegmentPixels() {
+        int[] pixels = segmentPixels;
+        if (pixels == null) {
+            setSegmentPixels();
+            pixels = segmentPixels;
+        }
+        return pixels;
+    }
+
+    /**
+     * Groups the pixels by segment, by a counting sort of the pixels by label, and publishes the offsets and
+     * then the pixels.
+     */
+    private synchronized void setSegmentPixels() {
+        if (segmentPixels != null) {
+            return;
+        }
+        int[] offsets = new int[labelCount + 1];
+        for (int s = 0; s < labelCount; s++) {
+            offsets[s + 1] = offsets[s] + segmentSizes[s];
+        }
+        int[] pixels = new int[labels.length];
+        int[] nextPositions = Arrays.copyOf(offsets, labelCount);
+        for (int i = 0; i < labels.length; i++) {
+            pixels[nextPositions[labels[i]]++] = i;
+        }
+        this.segmentOffsets = offsets;
+        this.segmentPixels = pixels;
+    }
+
+    /**
+     * The pixels relabeled by a change to a single gene. The pixels form at most two segments after
+     * the change, labeled firstLabel and secondLabel. Before the change they formed the segment of the
+     * changed pixel and, if different, the segment of its new neighbor.
+     */
+    public static final class Change {
+        private final int[] pixels;
+        private final int size;
+        private final int[] previousLabels;
+        private final int firstLabel;
+        private final int secondLabel;
+
+        private Change(int[] pixels, int size, int[] previousLabels, int firstLabel, int secondLabel) {
+            this.pixels = pixels;
+            this.size = size;
+            this.previousLabels = previousLabels;
+            this.firstLabel = firstLabel;
+            this.secondLabel = secondLabel;
+        }
+
+        /**
+         * Returns the relabeled pixels. Only the first getSize() entries are used.
+         *
+         * @return The relabeled pixels.
+         */
+        public int[] getPixels() {
+            return pixels;
+        }
+
+        /**
+         * Returns the number of relabeled pixels.
+         *
+         * @return The number of relabeled pixels.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the label a pixel had before the change. Only valid for the relabeled pixels,
+         * and only until the next change applied on the same thread.
+         *
+         * @param pixelIndex The index of a relabeled pixel.
+         * @return The label of the pixel before the change.
+         */
+        public int getPreviousLabel(int pixelIndex) {
+            return previousLabels[pixelIndex];
+        }
+
+        /**
+         * Returns true if the pixel with the given current label was relabeled by the change.
+         *
+         * @param label The current label of a pixel.
+         * @return True if the pixel was relabeled, false otherwise.
+         */
+        public boolean isRelabeled(int label) {
+            return label == firstLabel || label == secondLabel;
+        }
+    }
+
+    /**
+     * A growable list of ints.
+     */
+    private static class IntList {
+        private int[] values;
+        private int size;
+
+        IntList(int capacity) {
+            values = new int[capacity];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.p3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Pareto front rank and crowding distance of every individual of a population, computed once and shared
+ * by parent selection and survivor selection (see Population.getSelectionContext()). Individuals are referred
+ * to by their position in the population.
+ *
+ * The ranks come from NonDominatedSorter and the crowding distances from ObjectiveFunctions.getCrowdingDistances,
+ * computed per front. Both only depend on the objective values, which must not change while the context is used.
+ */
+public final class SelectionContext {
+
+    private final List<Individual> individuals;
+    private final double[][] objectives;
+    private final int[] ranks;
+    private final double[] crowdingDistances;
+    private final int[][] fronts;
+
+    private SelectionContext(List<Individual> individuals, double[][] objectives, int[] ranks, double[] crowdingDistances, int[][] fronts) {
+        this.individuals = individuals;
+        this.objectives = objectives;
+        this.ranks = ranks;
+        this.crowdingDistances = crowdingDistances;
+        this.fronts = fronts;
+    }
+
+    /**
+     * Computes the selection context of a list of individuals.
+     *
+     * @param individuals The individuals, in population order.
+     * @return The selection context of the individuals.
+     */
+    public static SelectionContext of(List<Individual> individuals) {
+        double[][] objectives = NonDominatedSorter.getObjectiveMatrix(individuals);
+        int[] ranks = NonDominatedSorter.sort(objectives);
+        int[][] fronts = groupByRank(ranks);
+
+        double[] crowdingDistances = new double[ranks.length];
+        for (int[] front : fronts) {
+            setCrowdingDistances(objectives, front, crowdingDistances);
+        }
+        return new SelectionContext(new ArrayList<>(individuals), objectives, ranks, crowdingDistances, fronts);
+    }
+
+    /**
+     * Returns the selection context of a subset of the individuals, e.g. the survivors of a generation.
+     * The ranks stay the same, since removing individuals never lowers the rank of an individual whose
+     * front and all better fronts are kept whole, or partly kept as the last front. The crowding distances
+     * are only computed again for fronts that lost individuals.
+     *
+     * @param positions The positions of the individuals in the subset, in the order of the new population.
+     *                  Must consist of whole fronts, plus part of the next front.
+     * @return The selection context of the subset.
+     */
+    public SelectionContext subset(int[] positions) {
+        List<Individual> subsetIndividuals = new ArrayList<>(positions.length);
+        double[][] subsetObjectives = new double[positions.length][];
+        int[] subsetRanks = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            subsetIndividuals.add(individuals.get(positions[i]));
+            subsetObjectives[i] = objectives[positions[i]];
+            subsetRanks[i] = ranks[positions[i]];
+        }
+        int[][] subsetFronts = groupByRank(subsetRanks);
+
+        double[] subsetCrowdingDistances = new double[positions.length];
+        for (int[] front : subsetFronts) {
+            if (front.length == fronts[subsetRanks[front[0]]].length) {
+                for (int i : front) {
+                    subsetCrowdingDistances[i] = crowdingDistances[positions[i]];
+                }
+            } else {
+                setCrowdingDistances(subsetObjectives, front, subsetCrowdingDistances);
+            }
+        }
+        return new SelectionContext(subsetIndividuals, subsetObjectives, subsetRanks, subsetCrowdingDistances, subsetFronts);
+    }
+
+    /**
+     * Returns the number of individuals.
+     *
+     * @return The number of individuals.
+     */
+    public int size() {
+        return ranks.length;
+    }
+
+    /**
+     * Returns the individual at the given position.
+     *
+     * @param position The position of the individual.
+     * @return The individual.
+     */
+    public Individual getIndividual(int position) {
+        return individuals.get(position);
+    }
+
+    /**
+     * Returns the Pareto front rank of the individual at the given position, where 0 is the non-dominated front.
+     *
+     * @param position The position of the individual.
+     * @return The rank of the individual.
+     */
+    public int getRank(int position) {
+        return ranks[position];
+    }
+
+    /**
+     * Returns the crowding distance of the individual at the given position within its front.
+     *
+     * @param position The position of the individual.
+     * @return The crowding distance of the individual.
+     */
+    public double getCrowdingDistance(int position) {
+        return crowdingDistances[position];
+    }
+
+    /**
+     * Returns the number of Pareto fronts.
+     *
+     * @return The number of fronts.
+     */
+    public int getFrontCount() {
+        return fronts.length;
+    }
+
+    /**
+     * Returns the positions of the individuals in the front with the given rank, in population order.
+     * The returned array must not be modified.
+     *
+     * @param rank The rank of the front.
+     * @return The positions of the individuals in the front.
+     */
+    public int[] getFront(int rank) {
+        return fronts[rank];
+    }
+
+    /**
+     * Returns the individuals in the front with the given rank, in population order.
+     *
+     * @param rank The rank of the front.
+     * @return The individuals in the front.
+     */
+    public List<Individual> getFrontIndividuals(int rank) {
+        List<Individual> front = new ArrayList<>(fronts[rank].length);
+        for (int position : fronts[rank]) {
+            front.add(individuals.get(position));
+        }
+        return front;
+    }
+
+    /**
+     * Compares two individuals by the crowded-comparison operator of NSGA-II: the lower rank wins,
+     * and within the same rank the larger crowding distance wins.
+     *
+     * @param position1 The position of the first individual.
+     * @param position2 The position of the second individual.
+     * @return True if the first individual is strictly better than the second, false otherwise.
+     */
+    public boolean isBetter(int position1, int position2) {
+        if (ranks[position1] != ranks[position2]) {
+            return ranks[position1] < ranks[position2];
+        }
+        return crowdingDistances[position1] > crowdingDistances[position2];
+    }
+
+    /**
+     * Groups positions by rank, in population order within each front.
+     *
+     * @param ranks The rank of every position.
+     * @return The positions of every front, ordered by rank.
+     */
+    private static int[][] groupByRank(int[] ranks) {
+        int frontCount = 0;
+        for (int rank : ranks) {
+            frontCount = Math.max(frontCount, rank + 1);
+        }
+        int[] frontSizes = new int[frontCount];
+        for (int rank : ranks) {
+            frontSizes[rank]++;
+        }
+        int[][] fronts = new int[frontCount][];
+        for (int f = 0; f < frontCount; f++) {
+            fronts[f] = new int[frontSizes[f]];
+        }
+        Arrays.fill(frontSizes, 0);
+        for (int i = 0; i < ranks.length; i++) {
+            fronts[ranks[i]][frontSizes[ranks[i]]++] = i;
+        }
+        return fronts;
+    }
+
+    /**
+     * Computes the crowding distances of one front and stores them by position.
+     *
+     * @param objectives The objective matrix.
+     * @param front The positions of the individuals in the front.
+     * @param crowdingDistances The crowding distances by position, to store the result in.
+     */
+    private static void setCrowdingDistances(double[][] objectives, int[] front, double[] crowdingDistances) {
+        double[] frontDistances = ObjectiveFunctions.getCrowdingDistances(objectives, front);
+        for (int i = 0; i < front.length; i++) {
+            crowdingDistances[front[i]] = frontDistances[i];
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.p3;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.p3.interfaces.MigrationTransport;
+
+/**
+ * Migration between island processes on the same machine, over TCP connections on the loopback interface.
+ *
+ * Every island listens on its own port. Migrants are encoded by GenomeCodec and sent as one message,
+ * prefixed by its length, over a connection that is kept open for later migrations. The messages are read
+ * by a background thread per connection and queued until the island receives them, so sending and receiving
+ * never wait for the other island. Migrants for an island that cannot be reached are dropped.
+ */
+public class SocketMigrationTransport implements MigrationTransport {
+
+    private static final int CONNECT_TIMEOUT_MILLISECONDS = 1000;
+    private static final int MAX_MESSAGE_BYTES = 1 << 30;
+
+    private final int island;
+    private final int[] ports;
+    private final ServerSocket serverSocket;
+    private final ConcurrentLinkedQueue<byte[]> inbox = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, Socket> connections = new HashMap<>();
+    private final List<Socket> acceptedConnections = new ArrayList<>();
+
+    /**
+     * Creates the transport of an island and starts listening for migrants.
+     *
+     * @param island The index of the island.
+     * @param ports The port of every island on the loopback interface.
+     * @throws UncheckedIOException If the port of the island cannot be opened.
+     */
+    public SocketMigrationTransport(int island, int[] ports) {
+        this.island = island;
+        this.ports = ports.clone();
+        try {
+            this.serverSocket = new ServerSocket(ports[island], 0, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not listen on port " + ports[island] + " for island " + island, e);
+        }
+        startDaemon(this::acceptConnections, "migration-acceptor-" + island);
+    }
+
+    /**
+     * Returns free ports on the loopback interface, one for every island. The ports are free when this
+     * method returns, but could be taken by another program before the islands open them.
+     *
+     * @param islandCount The number of islands.
+     * @return The port of every island.
+     * @throws UncheckedIOException If no free ports can be found.
+     */
+    public static int[] findFreePorts(int islandCount) {
+        List<ServerSocket> sockets = new ArrayList<>();
+        try {
+            int[] ports = new int[islandCount];
+            for (int i = 0; i < islandCount; i++) {
+                ServerSocket socket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+                sockets.add(socket);
+                ports[i] = socket.getLocalPort();
+            }
+            return ports;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not find free ports for the islands", e);
+        } finally {
+            for (ServerSocket socket : sockets) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void send(int island, List<Individual> migrants) {
+        byte[] message = GenomeCodec.encodeIndividuals(migrants);
+        try {
+            Socket socket = connections.get(island);
+            if (socket == null) {
+                socket = new Socket();
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), ports[island]), CONNECT_TIMEOUT_MILLISECONDS);
+                socket.setTcpNoDelay(true);
+                connections.put(island, socket);
+            }
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(message.length);
+            out.write(message);
+            out.flush();
+        } catch (IOException e) {
+            // The island has finished or is not up yet, the migrants are dropped
+            closeQuietly(connections.remove(island));
+            System.out.println("Island " + this.island + " - Could not send migrants to island " + island + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Individual> receive(RunContext context) {
+        List<Individual> immigrants = new ArrayList<>();
+        byte[] message;
+        while ((message = inbox.poll()) != null) {
+            immigrants.addAll(GenomeCodec.decodeIndividuals(context, message));
+        }
+        return immigrants;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeQuietly(serverSocket);
+        for (Socket socket : connections.values()) {
+            closeQuietly(socket);
+        }
+        connections.clear();
+        synchronized (acceptedConnections) {
+            for (Socket socket : acceptedConnections) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    /**
+     * Accepts connections from other islands until the transport is closed,
+     * and starts a reader thread for each connection.
+     */
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                synchronized (acceptedConnections) {
+                    acceptedConnections.add(socket);
+                }
+                startDaemon(() -> readMessages(socket), "migration-reader-" + island);
+            } catch (IOException e) {
+                // The server socket was closed
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads messages from a connection into the inbox until the connection is closed.
+     *
+     * @param socket The connection.
+     */
+    private void readMessages(Socket socket) {
+        try (DataInputStream in = new DataInputStream(socket.getInputStream())) {
+            while (true) {
+                int length = in.readInt();
+                if (length < 0 || length > MAX_MESSAGE_BYTES) {
+                    throw new IOException("Invalid message length " + length);
+                }
+                byte[] message = new byte[length];
+                in.readFully(message);
+                inbox.offer(message);
+            }
+        } catch (EOFException e) {
+            // The sending island closed the connection
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                System.out.println("Island " + island + " - Migration connection failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts a daemon thread, which does not keep the process alive.
+     *
+     * @param task The task of the thread.
+     * @param name The name of the thread.
+     */
+    private static void startDaemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Closes a socket or server socket, ignoring errors.
+     *
+     * @param closeable The socket, or null.
+     */
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Nothing more to release
+        }
+    }
+}
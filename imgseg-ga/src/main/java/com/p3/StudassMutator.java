@@ -1,30 +1,52 @@
 package com.p3;
 
-import java.util.List;
-
 import com.p3.interfaces.MutationHandler;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class StudassMutator implements MutationHandler {
     
     /**
-     * Mutates an individual.
+     * Mutates a genome by resetting a single random gene, with probability
+     * mutationProbability (see Parameters).
+     * 
+     * @param context The run context, which gives the mutation probability.
+     * @param genome The genome to mutate.
+     * @return True if the genome was mutated, false otherwise.
+     */
+    @Override
+    public boolean mutate(RunContext context, Genome genome) {
+        int length = genome.length();
+        Random random = ThreadLocalRandom.current();
+
+        if (random.nextDouble() < context.getParameters().mutationProbability) {
+            int i = random.nextInt(length);
+
+            // set to a random int in interval [0, 8]
+            genome.set(i, random.nextInt(9));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Mutates an individual by resetting a single random gene, with probability
+     * mutationProbability (see Parameters). Since only one gene changes, the segments and
+     * objective values of the individual are updated incrementally.
      * 
      * @param child The individual to mutate.
      * @return void
      */
     @Override
     public void mutate(Individual child) {
-        List<Integer> chromosome = child.getChromosome();
-        int length = chromosome.size();
-        Random random = new Random();
+        int length = child.getGenome().length();
+        Random random = ThreadLocalRandom.current();
 
-        if (random.nextDouble() < Parameters.MUTATION_PROBABILITY) {
+        if (random.nextDouble() < child.getContext().getParameters().mutationProbability) {
             int i = random.nextInt(length);
 
             // set to a random int in interval [0, 8]
-            chromosome.set(i, random.nextInt(9));
-            child.setChromosome(chromosome);
+            child.setGene(i, random.nextInt(9));
         }
     }
 }
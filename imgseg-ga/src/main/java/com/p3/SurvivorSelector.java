@@ -1,10 +1,9 @@
 package com.p3;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Class for selecting survivors from a population containg individuals of both the previous and current generation.
@@ -14,35 +13,46 @@ public class SurvivorSelector {
     
     /**
      * Select survivors from the previous and current generation. The survivors are selected based on the
-     * non-dominated sorting and crowding distance.
+     * non-dominated sorting and crowding distance, taken from the selection context of the population.
+     * The selection context of the survivors is derived from it, so it is ready for the next parent selection.
      * 
      * @param prevAndNewGen the population containing individuals from the previous and current generation.
      * @return the population containing the survivors.
      */
     public static Population selectSurvivors(Population prevAndNewGen) {
-        List<Individual> survivors = new ArrayList<>();
-
-        List<List<Individual>> paretoFronts = ObjectiveFunctions.getParetoFronts(prevAndNewGen.getIndividuals());
+        SelectionContext context = prevAndNewGen.getSelectionContext();
+        int survivorCount = Math.min(prevAndNewGen.getContext().getParameters().populationSize, context.size());
+        int[] survivors = new int[survivorCount];
+        int size = 0;
         int paretoFront = 0;
 
         // Adds individuals from subsequent pareto fronts until the population size is reached
         // or the addition of a new front would exceed the population size
-        while (survivors.size() < Parameters.POPULATION_SIZE && survivors.size() + paretoFronts.get(paretoFront).size() <= Parameters.POPULATION_SIZE) {
-            survivors.addAll(paretoFronts.get(paretoFront));
+        while (size < survivorCount && size + context.getFront(paretoFront).length <= survivorCount) {
+            int[] front = context.getFront(paretoFront);
+            System.arraycopy(front, 0, survivors, size, front.length);
+            size += front.length;
             paretoFront++;
         }
 
         // If the population size is not reached, add the individuals from the next pareto front based on crowding distance
-        if (survivors.size() < Parameters.POPULATION_SIZE) {
-            int numRemainingParentsToAdd = Parameters.POPULATION_SIZE - survivors.size();
-            List<Individual> nextParetoFront = paretoFronts.get(paretoFront);
-            Map<Individual, Double> crowdingDistances = ObjectiveFunctions.getCrowdingDistances(nextParetoFront);
-            List<Individual> sortedFront = nextParetoFront.stream()
-                .sorted(Comparator.comparingDouble(crowdingDistances::get).reversed())
-                .collect(Collectors.toList());
-            survivors.addAll(sortedFront.subList(0, numRemainingParentsToAdd));
+        if (size < survivorCount) {
+            int[] nextParetoFront = context.getFront(paretoFront);
+            Integer[] sortedFront = new Integer[nextParetoFront.length];
+            for (int i = 0; i < nextParetoFront.length; i++) {
+                sortedFront[i] = nextParetoFront[i];
+            }
+            Arrays.sort(sortedFront, Comparator.comparingDouble((Integer i) -> context.getCrowdingDistance(i)).reversed());
+            for (int i = 0; size < survivorCount; i++) {
+                survivors[size++] = sortedFront[i];
+            }
         }
 
-        return new Population(survivors);
+        SelectionContext survivorContext = context.subset(survivors);
+        List<Individual> individuals = new ArrayList<>(survivorCount);
+        for (int i = 0; i < survivorCount; i++) {
+            individuals.add(survivorContext.getIndividual(i));
+        }
+        return new Population(prevAndNewGen.getContext(), individuals, survivorContext);
     }
 }
@@ -2,9 +2,9 @@ package com.p3;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.p3.interfaces.ParentSelector;
 
@@ -12,7 +12,9 @@ import com.p3.interfaces.ParentSelector;
 public class TournamentParentSelector implements ParentSelector{
 
     /**
-     * Selects parents for the next generation using a crowding tournament selection.
+     * Selects parents for the next generation using a crowding tournament selection. The Pareto ranks and
+     * crowding distances are taken from the selection context of the population, which is computed once
+     * and shared by all tournaments.
      * 
      * Based on:
      * 
@@ -27,82 +29,57 @@ public class TournamentParentSelector implements ParentSelector{
      */
     @Override
     public Population selectParents(Population population) {
-        List<Individual> parents = new ArrayList<>();
-        Random random = new Random();
+        Parameters parameters = population.getContext().getParameters();
+        SelectionContext context = population.getSelectionContext();
+        int populationSize = context.size();
+        List<Individual> parents = new ArrayList<>(parameters.populationSize);
+        Random random = ThreadLocalRandom.current();
 
-        Map<Individual, Integer> paretoFrontsMap = ObjectiveFunctions.getParetoFrontsMap(population.getIndividuals());
-
-        while (parents.size() < Parameters.POPULATION_SIZE) {
+        // Without replacement, a tournament draws distinct positions by a partial shuffle of all positions
+        int tournamentSize = parameters.isTournamentReplacementAllowed
+            ? parameters.tournamentSize
+            : Math.min(parameters.tournamentSize, populationSize);
+        int[] positions = new int[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            positions[i] = i;
+        }
 
-            List<Individual> tournament = new ArrayList<>();
-            for (int j = 0; j < Parameters.TOURNAMENT_SIZE; j++) {
-                List<Individual> individuals = new ArrayList<>(population.getIndividuals());
-                int index = random.nextInt(population.getIndividuals().size());
-                if (Parameters.IS_TOURNAMENT_REPLACEMENT_ALLOWED) {
+        while (parents.size() < parameters.populationSize) {
+            int best = -1;
+            for (int j = 0; j < tournamentSize; j++) {
+                int candidate;
+                if (parameters.isTournamentReplacementAllowed) {
                     // If replacement is allowed, an individual can be selected more than once
-                    tournament.add(individuals.get(index));
+                    candidate = random.nextInt(populationSize);
                 } else {
                     // If replacement is not allowed, no individual can be selected more than once
-                    tournament.add(individuals.remove(index));
+                    int k = j + random.nextInt(populationSize - j);
+                    candidate = positions[k];
+                    positions[k] = positions[j];
+                    positions[j] = candidate;
                 }
-            }
 
-            Individual bestIndividual = tournament.get(0);
-            int bestParetoRank = paretoFrontsMap.get(bestIndividual);
-            List<Individual> bestIndividuals = new ArrayList<>();
-            
-            for (Individual individual : tournament) {
-                int individualParetoRank = paretoFrontsMap.get(individual);
-                
-                if (individualParetoRank < bestParetoRank) {
-                    bestParetoRank = individualParetoRank;
-                    bestIndividual = individual;
-                    bestIndividuals.clear();
-                    bestIndividuals.add(individual);
-                } else if (individualParetoRank == bestParetoRank) {
-                    bestIndividuals.add(individual);
+                // Lower Pareto rank wins, then larger crowding distance, then the first drawn
+                if (best == -1 || context.isBetter(candidate, best)) {
+                    best = candidate;
                 }
             }
-
-            if (bestIndividuals.size() == 1) {
-                parents.add(bestIndividual);
-            } else {
-                List<Individual> allIndividualsInParetoFront = new ArrayList<>();
-                for (Individual individual : population.getIndividuals()) {
-                    if (paretoFrontsMap.get(individual) == bestParetoRank) {
-                        allIndividualsInParetoFront.add(individual);
-                    }
-                }
-                Map<Individual, Double> crowdingDistances = ObjectiveFunctions.getCrowdingDistances(allIndividualsInParetoFront);
-                Individual bestIndividualInTournament = bestIndividuals.get(0);
-                double bestCrowdingDistance = crowdingDistances.get(bestIndividualInTournament);
-                for (Individual individual : bestIndividuals) {
-                    double crowdingDistance = crowdingDistances.get(individual);
-                    if (crowdingDistance > bestCrowdingDistance) {
-                        bestIndividualInTournament = individual;
-                        bestCrowdingDistance = crowdingDistance;
-                    }
-                }
-
-                parents.add(bestIndividualInTournament);
-            }
+            parents.add(context.getIndividual(best));
         }
 
-        return new Population(parents);
+        return new Population(population.getContext(), parents);
     }
 
-    
-
     public static void main(String[] args) throws InterruptedException, ExecutionException {
         String imagePath = "training_images/118035/Test image.jpg";
-        Parameters.POPULATION_SIZE = 2;
-        Parameters.IMAGE = new Image(imagePath);
-        Parameters.SEGMENTS_LOWEBOUND = 5;
-        Parameters.SEGMENTS_UPPERBOUND = 10;
-        Population population = new Population();
-        Parameters.POPULATION_SIZE = population.getIndividuals().size();
-        Parameters.TOURNAMENT_SIZE = 4;
-        Parameters.IS_TOURNAMENT_REPLACEMENT_ALLOWED = true;
+        Parameters parameters = new Parameters();
+        parameters.populationSize = 2;
+        parameters.image = new Image(imagePath);
+        parameters.segmentsLowerBound = 5;
+        parameters.segmentsUpperBound = 10;
+        parameters.tournamentSize = 4;
+        parameters.isTournamentReplacementAllowed = true;
+        Population population = new Population(new RunContext(parameters));
         ParentSelector parentSelector = new TournamentParentSelector();
         Population parents = parentSelector.selectParents(population);
         System.out.println(parents.getIndividuals().size());
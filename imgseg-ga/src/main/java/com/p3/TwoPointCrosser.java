@@ -1,9 +1,7 @@
 package com.p3;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.p3.interfaces.CrossoverHandler;
 
@@ -20,36 +18,53 @@ import com.p3.interfaces.CrossoverHandler;
 public class TwoPointCrosser implements CrossoverHandler{
 
     /**
-     * Crosses two individuals to create two children, using two-point crossover.
+     * Crosses two genomes to create two child genomes, using two-point crossover.
      */
     @Override
-    public Individual[] cross(Individual parent1, Individual parent2) {
-        Random random = new Random();
-        List<Integer> chromosome1 = parent1.getChromosome();
-        List<Integer> chromosome2 = parent2.getChromosome();
+    public Genome[] cross(Genome genome1, Genome genome2) {
+        int[] crossoverPoints = getCrossoverPoints(genome1.length());
 
-        int minIndex = random.nextInt(chromosome1.size() - 1);
-        int maxIndex = random.nextInt(chromosome1.size() - minIndex) + minIndex;
+        // The children take the genes in [from, to) from the same parent and the rest from the other
+        Genome child1 = genome2.copy();
+        Genome child2 = genome1.copy();
+        child1.swapRange(child2, crossoverPoints[0], crossoverPoints[1]);
 
-        List<Integer> child1 = new ArrayList<>(Collections.nCopies(chromosome1.size(), 0));
-        List<Integer> child2 = new ArrayList<>(Collections.nCopies(chromosome1.size(), 0));
+        return new Genome[] {child1, child2};
+    }
 
-        for (int i = minIndex; i <= maxIndex; i++) {
-            child1.set(i, chromosome1.get(i));
-            child2.set(i, chromosome2.get(i));
-        }
+    /**
+     * Crosses two individuals to create two children, using two-point crossover.
+     * The segmentations of the children are built from the segmentations of the parents.
+     */
+    @Override
+    public Individual[] cross(Individual parent1, Individual parent2) {
+        Genome genome1 = parent1.getGenome();
+        Genome genome2 = parent2.getGenome();
+        int length = genome1.length();
+        int[] crossoverPoints = getCrossoverPoints(length);
+        int[] boundaries = {0, crossoverPoints[0], crossoverPoints[1], length};
 
-        for (int i = 0; i < chromosome1.size(); i++) {
-            if (i < minIndex || i > maxIndex) {
-                child1.set(i, chromosome2.get(i));
-                child2.set(i, chromosome1.get(i));
-            }
-        }
+        Genome child1 = genome2.copy();
+        Genome child2 = genome1.copy();
+        child1.swapRange(child2, crossoverPoints[0], crossoverPoints[1]);
 
         Individual[] children = new Individual[2];
-        children[0] = new Individual(child1);
-        children[1] = new Individual(child2);
+        children[0] = Individual.fromRanges(child1, boundaries, new Individual[] {parent2, parent1, parent2});
+        children[1] = Individual.fromRanges(child2, boundaries, new Individual[] {parent1, parent2, parent1});
 
         return children;
     }
+
+    /**
+     * Returns the range [from, to) of genes swapped by the crossover, for genomes of the given length.
+     *
+     * @param length The length of the genomes.
+     * @return The first and the last (exclusive) index of the range.
+     */
+    private int[] getCrossoverPoints(int length) {
+        Random random = ThreadLocalRandom.current();
+        int minIndex = random.nextInt(length - 1);
+        int maxIndex = random.nextInt(length - minIndex) + minIndex;
+        return new int[] {minIndex, maxIndex + 1};
+    }
 }
@@ -1,26 +1,42 @@
 package com.p3;
 
 import java.util.List;
-import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 public class WeightedGA {
-    
+
+    static final String CHECKPOINT_ALGORITHM = "WeightedGA";
+
+    private final RunContext context;
+    private final int populationSize;
+    private final int lambda;
+
     /**
      * This is the Weighted Genetic Algorithm constructor.
      * 
+     * @param context The run context, holding the image and the parameters of the run.
      */
-    public WeightedGA() {
-
+    public WeightedGA(RunContext context) {
+        this.context = context;
+        this.populationSize = context.getParameters().populationSize;
+        this.lambda = populationSize * 3;
     }
 
-    private int populationSize = Parameters.POPULATION_SIZE;
-    private int lambda = populationSize * 3;
-
-    public void run() {
+    /**
+     * Run the Weighted Genetic Algorithm. If the checkpoint interval of the parameters is set, a checkpoint
+     * of the run is written every checkpointInterval generations. If the metrics file of the parameters is set,
+     * the metrics of every generation are written to it (see RunMetrics).
+     *
+     * @return A future that completes when the results have been written.
+     */
+    public CompletableFuture<Void> run() {
         System.out.println("Running Weighted GA");
-        Population population = new Population();
+        Population population = new Population(context);
+        PopulationEvaluator.evaluate(context, population.getIndividuals());
         System.out.println("Population generated");
         System.out.println();
 
@@ -30,17 +46,47 @@ public class WeightedGA {
             return individual2.getWeightedFitness().compareTo(individual1.getWeightedFitness());
         });
 
-        for (int i = 0; i < Parameters.GENERATIONS; i++) {
+        return run(population, 0);
+    }
+
+    /**
+     * Resume a run of the Weighted Genetic Algorithm from a checkpoint, without evaluating the checkpointed
+     * population again.
+     *
+     * @param checkpointFile The checkpoint file written by the run.
+     * @return A future that completes when the results have been written.
+     * @throws IllegalArgumentException If the checkpoint was not written by a run of the Weighted Genetic Algorithm.
+     */
+    public static CompletableFuture<Void> resume(Path checkpointFile) {
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+        if (!CHECKPOINT_ALGORITHM.equals(checkpoint.getAlgorithm())) {
+            throw new IllegalArgumentException(checkpointFile + " is a checkpoint of " + checkpoint.getAlgorithm() + ", not of " + CHECKPOINT_ALGORITHM);
+        }
+        System.out.println("Resuming from checkpoint of generation " + checkpoint.getGeneration());
+        return new WeightedGA(checkpoint.getContext()).run(checkpoint.getPopulation(), checkpoint.getGeneration());
+    }
+
+    /**
+     * Evolves an evaluated population, sorted on weighted fitness, for the remaining generations of the run,
+     * writing checkpoints and metrics as set by the parameters, and writes the results.
+     *
+     * @param population The evaluated and sorted population after the completed generations.
+     * @param completedGenerations The number of completed generations.
+     * @return A future that completes when the results have been written.
+     */
+    private CompletableFuture<Void> run(Population population, int completedGenerations) {
+        Parameters parameters = context.getParameters();
+        RunMetrics metrics = context.getMetrics();
+        for (int i = completedGenerations; i < parameters.generations; i++) {
             List<Individual> individuals = population.getIndividuals();
             printStats(population, i);
-            
-            // reset values for all individuals
-            for (Individual individual : individuals) {
-                individual.resetObjectiveValues();
-            }
+            long evaluationCount = context.getEvaluationCount();
+            long incrementalEvaluationCount = context.getIncrementalEvaluationCount();
+            metrics.startGeneration(i + 1);
 
             for (int j = 0; j < (int) (lambda / 2); j++) {
                 // pick two random unique numbers [0, populationSize) as parents
+                RunMetrics.Phase previous = metrics.enter(RunMetrics.Phase.PARENT_SELECTION);
                 int parent1Index = (int) (Math.random() * populationSize);
                 int parent2Index = (int) (Math.random() * populationSize);
                 while (parent1Index == parent2Index) {
@@ -51,82 +97,69 @@ public class WeightedGA {
                 Individual parent2 = population.getIndividuals().get(parent2Index);
 
                 // crossover
-                Individual[] children = Parameters.CROSSOVER_HANDLER.cross(parent1, parent2);
+                metrics.enter(RunMetrics.Phase.CROSSOVER);
+                Individual[] children = parameters.crossoverHandler.cross(parent1, parent2);
 
                 // mutation
-                Parameters.MUTATION_HANDLER.mutate(children[0]);
-                Parameters.MUTATION_HANDLER.mutate(children[1]);
+                metrics.enter(RunMetrics.Phase.MUTATION);
+                parameters.mutationHandler.mutate(children[0]);
+                parameters.mutationHandler.mutate(children[1]);
+                metrics.exit(previous);
 
                 // add the children to the populationu
                 individuals.add(children[0]);
                 individuals.add(children[1]);
             }
 
+            // evaluate the children before sorting
+            PopulationEvaluator.evaluate(context, individuals);
+
             // sort individuals on individual.getWeightedFitness()
+            RunMetrics.Phase previous = metrics.enter(RunMetrics.Phase.SORTING);
             individuals.sort((individual1, individual2) -> {
                 return individual2.getWeightedFitness().compareTo(individual1.getWeightedFitness());
             });
 
             // the new population should be the best populationSize individuals
+            metrics.enter(RunMetrics.Phase.SURVIVOR_SELECTION);
             List<Individual> newPopulation = new ArrayList<>();
             for (int j = 0; j < populationSize; j++) {
                 newPopulation.add(individuals.get(j));
             }
 
             // update the population
-            population = new Population(newPopulation);         
+            population = new Population(context, newPopulation);
+            metrics.exit(previous);
+            metrics.endGeneration();
+            printEvaluations(i, context.getEvaluationCount() - evaluationCount,
+                context.getIncrementalEvaluationCount() - incrementalEvaluationCount);
+            Checkpoint.writeIfDue(CHECKPOINT_ALGORITHM, i + 1, population);
         }
-        writeResults(population);
+        metrics.write();
+        CompletableFuture<Void> results = writeResults(population);
         printFinalResults(population);
+        return results;
     }
 
     /**
      * Writes the phenotype of the individuals in the first pareto front of the
-     * final population to files, i.e. the segmented images.
+     * final population to files, i.e. the segmented images. The images are written
+     * in the background by ResultWriter.
      * 
      * @param population the final population.
+     * @return a future that completes when all images have been written.
      */
-    private static void writeResults(Population population) {
+    private static CompletableFuture<Void> writeResults(Population population) {
         List<Individual> currentBestIndividuals = new ArrayList<>();
         int lenNewPopulation = population.getIndividuals().size() >= 5 ? 5 : population.getIndividuals().size();
 
         for (int i = 0; i < lenNewPopulation; i++) {
             currentBestIndividuals.add(population.getIndividuals().get(i));
         }
-        
-        // Delete previous results of type 1
-        File type1Dir = new File("results_WGA/" + Parameters.IMAGE_NAME + "/type_1/");
-        File[] type1Files = type1Dir != null ? type1Dir.listFiles() : null;
-        if (type1Files != null) {
-            for (File file : type1Files) {
-                file.delete();
-            }
-        }
-
-        // Delete previous results of type 2
-        File type2Dir = new File("results_WGA/" + Parameters.IMAGE_NAME + "/type_2/");
-        File[] type2Files = type2Dir != null ? type2Dir.listFiles() : null;
-        if (type2Files != null) {
-            for (File file : type2Files) {
-                file.delete();
-            }
-        }
-
-        System.out.println("Writing results of segmentations of image " + Parameters.IMAGE_NAME + " to files...");
-        for (int i = 0; i < currentBestIndividuals.size(); i++) {
-
-            // Make sure directories exist
-            if (!type1Dir.exists()) {
-                type1Dir.mkdirs();
-            }
-            if (!type2Dir.exists()) {
-                type2Dir.mkdirs();
-            }
+        String imageName = population.getContext().getParameters().imageName;
 
-            Individual ind = currentBestIndividuals.get(i);
-            ImageReaderWriter.writeImageWithSegments("results_WGA/" + Parameters.IMAGE_NAME + "/type_1/" + i + ".jpg", ind, false);
-            ImageReaderWriter.writeImageWithSegments("results_WGA/" + Parameters.IMAGE_NAME + "/type_2/" + i + ".jpg", ind, true);
-        }
+        System.out.println("Writing results of segmentations of image " + imageName + " to files...");
+        return ResultWriter.writeResults("results_WGA/" + imageName, currentBestIndividuals);
     }
 
     /**
@@ -155,7 +188,7 @@ public class WeightedGA {
             edgeValueValueSum += individual.getEdgeValue();
             connectivityMeasureSum += individual.getConnectivityMeasure();
             overallDeviationSum += individual.getOverallDeviation();
-            numSegmentsSum += individual.getSegments().size();
+            numSegmentsSum += individual.getSegmentCount();
         }
 
         DecimalFormat df = new DecimalFormat("#.###");
@@ -163,6 +196,17 @@ public class WeightedGA {
         + " - Avg. best OD: " + df.format(overallDeviationSum / numInd) + " - Avg. best num segments: " + df.format(numSegmentsSum / numInd));
     }
 
+    /**
+     * Print the number of objective evaluations done during a generation.
+     * 
+     * @param generation the generation.
+     * @param evaluations the number of full evaluations.
+     * @param incrementalEvaluations the number of incremental updates after single gene changes.
+     */
+    private static void printEvaluations(int generation, long evaluations, long incrementalEvaluations) {
+        System.out.println("Gen " + generation + " - Evaluations: " + evaluations + " - Incremental evaluations: " + incrementalEvaluations);
+    }
+
     /**
      * Print the final results of the algorithm, i.e. the edge value, connectivity measure
      * and overall deviation of up to five individuals in the population.
@@ -178,24 +222,31 @@ public class WeightedGA {
         DecimalFormat df = new DecimalFormat("#.###");
         for (int i = 1; i <= lenNewPopulation; i++) {
             Individual individual = currentBestIndividuals.get(i - 1);
-            System.out.println("Solution " + i + " - Edge value: " + df.format(ObjectiveFunctions.edgeValue(individual)) + ", Connectivity measure: " + df.format(ObjectiveFunctions.connectivityMeasure(individual)) + ", Overall deviation: " + df.format(ObjectiveFunctions.overallDeviation(individual)));
+            System.out.println("Solution " + i + " - Edge value: " + df.format(individual.getEdgeValue()) + ", Connectivity measure: " + df.format(individual.getConnectivityMeasure()) + ", Overall deviation: " + df.format(individual.getOverallDeviation()));
         }
     }
 
     public static void main(String[] args) {
-        Parameters.IMAGE_NAME = "353013";
-        Parameters.IMAGE = new Image("training_images/" + Parameters.IMAGE_NAME + "/Test image.jpg");
-        Parameters.SEGMENTS_LOWEBOUND = 3;
-        Parameters.SEGMENTS_UPPERBOUND = 8;
-        Parameters.POPULATION_SIZE = 50;
-        Parameters.PARENT_SELECTOR = new TournamentParentSelector();
-        Parameters.TOURNAMENT_SIZE = 7;
-        Parameters.IS_TOURNAMENT_REPLACEMENT_ALLOWED = false;
-        Parameters.GENERATIONS = 20;
-        Parameters.CROSSOVER_HANDLER = new OnePointCrosser();
-        Parameters.MUTATION_PROBABILITY = 0.9;
-        Parameters.MUTATION_STEP_SIZE = 7;
-        Parameters.MUTATION_HANDLER = new StudassMutator();
+        // Resume the run from its checkpoint file if one is given
+        if (args.length > 0) {
+            WeightedGA.resume(Paths.get(args[0])).join();
+            return;
+        }
+
+        Parameters parameters = new Parameters();
+        parameters.imageName = "353013";
+        parameters.image = Image.load("training_images/" + parameters.imageName + "/Test image.jpg");
+        parameters.segmentsLowerBound = 3;
+        parameters.segmentsUpperBound = 8;
+        parameters.populationSize = 50;
+        parameters.parentSelector = new TournamentParentSelector();
+        parameters.tournamentSize = 7;
+        parameters.isTournamentReplacementAllowed = false;
+        parameters.generations = 20;
+        parameters.crossoverHandler = new OnePointCrosser();
+        parameters.mutationProbability = 0.9;
+        parameters.mutationStepSize = 7;
+        parameters.mutationHandler = new StudassMutator();
 
         /* 
          * Edge value and overalldeviation improves with an increasing 
@@ -203,11 +254,11 @@ public class WeightedGA {
          * is the case for connectivity (avoids splitting segments 
          * where neighboring pixels would be in different segments).
          */
-        Parameters.EDGE_WEIGHT = 1;
-        Parameters.CONNECTIVITY_WEIGHT = 1000;
-        Parameters.DEVIATION_WEIGHT = 2;
+        parameters.edgeWeight = 1;
+        parameters.connectivityWeight = 1000;
+        parameters.deviationWeight = 2;
 
-        WeightedGA WGA = new WeightedGA();
-        WGA.run();
+        WeightedGA WGA = new WeightedGA(new RunContext(parameters));
+        WGA.run().join();
     }
 }
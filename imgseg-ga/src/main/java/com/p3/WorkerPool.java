@@ -0,0 +1,87 @@
+package com.p3;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The pools of worker threads shared by the parallel stages of the genetic algorithms, i.e. offspring
+ * generation and population evaluation. There is one pool per number of threads, shared by all runs
+ * with that number of threads (see Parameters.threads), so concurrent runs do not each start their own threads.
+ */
+public class WorkerPool {
+
+    private static final Map<Integer, ForkJoinPool> POOLS = new HashMap<>();
+
+    // Private constructor to prevent instantiation
+    private WorkerPool() {
+        throw new UnsupportedOperationException("WorkerPool is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Returns the pool with the given number of worker threads, creating it on first use.
+     *
+     * @param threads The number of worker threads.
+     * @return The pool of worker threads.
+     */
+    public static synchronized ForkJoinPool getPool(int threads) {
+        return POOLS.computeIfAbsent(Math.max(1, threads), ForkJoinPool::new);
+    }
+
+    /**
+     * Runs a task for every index in [0, count). The indexes are split into chunks of at most chunkSize
+     * indexes, which are run in parallel on the pool. With a single thread, or a single chunk, the tasks
+     * are run in order on the calling thread. Results should be stored by index, so that they do not depend
+     * on the order in which the tasks are run.
+     *
+     * @param context The run context, which gives the number of threads.
+     * @param count The number of indexes.
+     * @param chunkSize The largest number of indexes run as one chunk.
+     * @param task The task to run for every index.
+     */
+    public static void forEach(RunContext context, int count, int chunkSize, IntConsumer task) {
+        chunkSize = Math.max(1, chunkSize);
+        int threads = context.getParameters().threads;
+        if (threads <= 1 || count <= chunkSize) {
+            for (int i = 0; i < count; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+        getPool(threads).invoke(new RangeTask(task, 0, count, chunkSize));
+    }
+
+    /**
+     * Runs a task for the indexes in the range [from, to), splitting the range in halves
+     * until it is no longer than the chunk size.
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer task;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        RangeTask(IntConsumer task, int from, int to, int chunkSize) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                for (int i = from; i < to; i++) {
+                    task.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(task, from, middle, chunkSize), new RangeTask(task, middle, to, chunkSize));
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package com.p3.interfaces;
 
+import com.p3.Genome;
 import com.p3.Individual;
 
 public interface CrossoverHandler {
-    
+
     /**
-     * Crosses two individuals to create two children.
+     * Crosses the genomes of two parents to create the genomes of two children.
+     * The genomes of the parents are left unchanged.
+     * 
+     * @param genome1 The genome of the first parent.
+     * @param genome2 The genome of the second parent.
+     * @return An array of two child genomes.
+     */
+    public Genome[] cross(Genome genome1, Genome genome2);
+
+    /**
+     * Crosses two individuals to create two children, which belong to the run context of the first parent.
      * 
      * @param parent1 The first parent.
      * @param parent2 The second parent.
      * @return An array of two children.
      */
-    public Individual[] cross(Individual parent1, Individual parent2);
+    public default Individual[] cross(Individual parent1, Individual parent2) {
+        Genome[] genomes = cross(parent1.getGenome(), parent2.getGenome());
+
+        Individual[] children = new Individual[2];
+        children[0] = new Individual(parent1.getContext(), genomes[0]);
+        children[1] = new Individual(parent1.getContext(), genomes[1]);
+
+        return children;
+    }
 }
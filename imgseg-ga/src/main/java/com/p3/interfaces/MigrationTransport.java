@@ -0,0 +1,39 @@
+package com.p3.interfaces;
+
+import java.util.List;
+
+import com.p3.Individual;
+import com.p3.RunContext;
+
+/**
+ * Carries migrants between the islands of the island model (see IslandNSGAII). Every island has its own
+ * transport, which sends migrants to other islands and receives the migrants sent to its island.
+ *
+ * Migration only helps the islands along, so a transport may drop migrants it cannot deliver,
+ * e.g. to an island that has already finished, but it must never make an island wait.
+ */
+public interface MigrationTransport extends AutoCloseable {
+
+    /**
+     * Sends migrants to an island, without waiting for the island to take them in.
+     * 
+     * @param island The index of the receiving island.
+     * @param migrants The migrants, which must be evaluated. They are not changed.
+     */
+    public void send(int island, List<Individual> migrants);
+
+    /**
+     * Returns the migrants that have arrived for the island of the transport since the last call,
+     * without waiting for more.
+     * 
+     * @param context The run context the migrants are taken into.
+     * @return The arrived migrants, possibly none.
+     */
+    public List<Individual> receive(RunContext context);
+
+    /**
+     * Releases the resources of the transport.
+     */
+    @Override
+    public void close();
+}
@@ -1,13 +1,30 @@
 package com.p3.interfaces;
 
+import com.p3.Genome;
 import com.p3.Individual;
+import com.p3.RunContext;
 
 public interface MutationHandler {
+
+    /**
+     * Mutates a genome in place.
+     * 
+     * @param context The run context, which gives the mutation parameters.
+     * @param genome The genome to mutate.
+     * @return True if any gene was changed, false otherwise.
+     */
+    public boolean mutate(RunContext context, Genome genome);
+
     /**
      * Mutates an individual.
      * 
      * @param child The individual to mutate.
      * @return void
      */
-    public void mutate(Individual child);
+    public default void mutate(Individual child) {
+        Genome genome = child.getGenome();
+        if (mutate(child.getContext(), genome)) {
+            child.setGenome(genome);
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package com.p3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a checkpoint restores the population, the parameters and the image of a run, and that the
+ * restored population is not evaluated again when the run continues.
+ */
+public class CheckpointTest {
+
+    private static final int IMAGE_HEIGHT = 12;
+    private static final int IMAGE_WIDTH = 9;
+
+    private Parameters parameters;
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        parameters = TestImages.smallRunParameters(TestImages.random(29, IMAGE_HEIGHT, IMAGE_WIDTH));
+        parameters.imageName = "checkpoint";
+        parameters.populationSize = 7;
+        parameters.generations = 4;
+        parameters.crossoverHandler = new TwoPointCrosser();
+        file = Files.createTempDirectory("checkpoint").resolve("run.checkpoint");
+    }
+
+    @Test
+    public void checkpointRestoresTheRun() {
+        RunContext context = new RunContext(parameters);
+        Population population = new Population(context);
+        PopulationEvaluator.evaluate(context, population.getIndividuals());
+
+        Checkpoint.write(file, NSGAII.CHECKPOINT_ALGORITHM, 3, population);
+        Checkpoint checkpoint = Checkpoint.read(file);
+
+        assertEquals(NSGAII.CHECKPOINT_ALGORITHM, checkpoint.getAlgorithm());
+        assertEquals(3, checkpoint.getGeneration());
+        assertEquals(parameters.toProperties(), checkpoint.getContext().getParameters().toProperties());
+        assertArrayEquals(parameters.image.getPixels(), checkpoint.getContext().getImage().getPixels());
+        assertEquals(IMAGE_WIDTH, checkpoint.getContext().getImage().getImageWith());
+
+        List<Individual> expected = population.getIndividuals();
+        List<Individual> actual = checkpoint.getPopulation().getIndividuals();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getGenome(), actual.get(i).getGenome());
+            assertTrue(actual.get(i).isEvaluated());
+            assertEquals(expected.get(i).getEdgeValue(), actual.get(i).getEdgeValue(), 0);
+            assertEquals(expected.get(i).getConnectivityMeasure(), actual.get(i).getConnectivityMeasure(), 0);
+            assertEquals(expected.get(i).getOverallDeviation(), actual.get(i).getOverallDeviation(), 0);
+        }
+    }
+
+    @Test
+    public void checkpointKeepsAMissingCutStrategy() {
+        parameters.mstCutStrategy = null;
+        RunContext context = new RunContext(parameters);
+        Population population = new Population(context);
+        PopulationEvaluator.evaluate(context, population.getIndividuals());
+        Checkpoint.write(file, NSGAII.CHECKPOINT_ALGORITHM, 1, population);
+
+        assertNull(Parameters.fromProperties(parameters.toProperties()).mstCutStrategy);
+        assertNull(Checkpoint.read(file).getContext().getParameters().mstCutStrategy);
+    }
+
+    @Test
+    public void resumedPopulationIsNotEvaluatedAgain() {
+        RunContext context = new RunContext(parameters);
+        Population population = new Population(context);
+        PopulationEvaluator.evaluate(context, population.getIndividuals());
+        Checkpoint.write(file, NSGAII.CHECKPOINT_ALGORITHM, 1, population);
+
+        Population restored = Checkpoint.read(file).getPopulation();
+        RunContext restoredContext = restored.getContext();
+        PopulationEvaluator.evaluate(restoredContext, restored.getIndividuals());
+        assertEquals(0, restoredContext.getEvaluationCount());
+
+        // Only the offspring are evaluated in the next generation
+        Population next = NSGAII.evolve(restored);
+        assertEquals(parameters.populationSize, next.getIndividuals().size());
+        assertTrue(restoredContext.getEvaluationCount() <= parameters.populationSize);
+    }
+
+    @Test
+    public void laterCheckpointReplacesEarlierOne() throws Exception {
+        RunContext context = new RunContext(parameters);
+        Population population = new Population(context);
+        PopulationEvaluator.evaluate(context, population.getIndividuals());
+
+        Checkpoint.write(file, NSGAII.CHECKPOINT_ALGORITHM, 1, population);
+        Checkpoint.write(file, NSGAII.CHECKPOINT_ALGORITHM, 2, population);
+
+        assertEquals(2, Checkpoint.read(file).getGeneration());
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertFalse(files.anyMatch(path -> path.toString().endsWith(".tmp")));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.p3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.p3.interfaces.CrossoverHandler;
+
+/**
+ * Checks that the children of crossover, whose segmentations are built from the strip summaries of
+ * their parents, get the same segmentation as a flood fill over their genomes.
+ */
+public class CrossoverSegmentationTest {
+
+    // Several strips, the last one shorter than the others
+    private static final int IMAGE_HEIGHT = 3 * SegmentStrips.STRIP_ROWS + 5;
+    private static final int IMAGE_WIDTH = 13;
+
+    private Random random;
+    private RunContext context;
+
+    @Before
+    public void setUp() {
+        random = new Random(11);
+        Parameters parameters = new Parameters();
+        parameters.image = TestImages.random(random, IMAGE_HEIGHT, IMAGE_WIDTH);
+        context = new RunContext(parameters);
+    }
+
+    @Test
+    public void onePointCrossoverMatchesFloodFill() {
+        assertChildrenMatchFloodFill(new OnePointCrosser());
+    }
+
+    @Test
+    public void twoPointCrossoverMatchesFloodFill() {
+        assertChildrenMatchFloodFill(new TwoPointCrosser());
+    }
+
+    private void assertChildrenMatchFloodFill(CrossoverHandler crosser) {
+        Individual parent1 = new Individual(context, 5);
+        Individual parent2 = randomIndividual();
+
+        for (int n = 0; n < 200; n++) {
+            Individual[] children = crosser.cross(parent1, parent2);
+            for (Individual child : children) {
+                assertMatchesFloodFill(child);
+            }
+
+            // Mutated children invalidate some of their strips before becoming parents
+            for (Individual child : children) {
+                for (int k = 0; k < 3; k++) {
+                    child.setGene(random.nextInt(IMAGE_HEIGHT * IMAGE_WIDTH), random.nextInt(9));
+                }
+            }
+            parent1 = children[0];
+            parent2 = n % 10 == 0 ? randomIndividual() : children[1];
+        }
+    }
+
+    private Individual randomIndividual() {
+        Genome genome = new Genome(IMAGE_HEIGHT * IMAGE_WIDTH);
+        for (int i = 0; i < genome.length(); i++) {
+            genome.set(i, random.nextInt(3) == 0 ? 0 : random.nextInt(9));
+        }
+        return new Individual(context, genome);
+    }
+
+    private void assertMatchesFloodFill(Individual individual) {
+        NeighborWeights neighborWeights = context.getImage().getNeighborWeights();
+        Genome genome = individual.getGenome();
+        int pixelCount = genome.length();
+
+        // Flood fill over the undirected graph of the genome, numbering segments by their first pixel
+        int[] labels = new int[pixelCount];
+        Arrays.fill(labels, -1);
+        int segmentCount = 0;
+        for (int start = 0; start < pixelCount; start++) {
+            if (labels[start] != -1) {
+                continue;
+            }
+            Deque<Integer> queue = new ArrayDeque<>();
+            labels[start] = segmentCount;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int pixel = queue.poll();
+                for (int direction = 1; direction <= NeighborWeights.DIRECTIONS; direction++) {
+                    int neighbor = neighborWeights.getNeighbor(pixel, direction);
+                    if (neighbor == -1 || labels[neighbor] != -1) {
+                        continue;
+                    }
+                    if (genome.get(pixel) == direction || neighborWeights.getNeighbor(neighbor, genome.get(neighbor)) == pixel) {
+                        labels[neighbor] = segmentCount;
+                        queue.add(neighbor);
+                    }
+                }
+            }
+            segmentCount++;
+        }
+
+        Segmentation segmentation = individual.getSegmentation();
+        assertEquals(segmentCount, segmentation.getSegmentCount());
+        assertArrayEquals(labels, segmentation.getLabels());
+        int[] segmentOffsets = segmentation.getSegmentOffsets();
+        for (int s = 0; s < segmentCount; s++) {
+            assertEquals(segmentOffsets[s + 1] - segmentOffsets[s], segmentation.getSegmentSize(s));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.p3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.p3.interfaces.MigrationTransport;
+
+/**
+ * Checks that genomes and individuals survive packing and encoding unchanged, and that migrants sent through
+ * the transports between processes arrive with their genomes and objective values.
+ */
+public class GenomeCodecTest {
+
+    private static final int IMAGE_HEIGHT = 5;
+    private static final int IMAGE_WIDTH = 7;
+    private static final long RECEIVE_TIMEOUT_MILLISECONDS = 10000;
+
+    private Random random;
+    private RunContext context;
+
+    @Before
+    public void setUp() {
+        random = new Random(23);
+        Parameters parameters = new Parameters();
+        parameters.image = new Image(new int[IMAGE_HEIGHT * IMAGE_WIDTH], IMAGE_HEIGHT, IMAGE_WIDTH);
+        context = new RunContext(parameters);
+    }
+
+    @Test
+    public void packedGenomesUnpackUnchanged() {
+        for (int length = 0; length < 20; length++) {
+            Genome genome = randomGenome(length);
+            ByteBuffer buffer = ByteBuffer.allocate(GenomeCodec.getPackedLength(length));
+
+            GenomeCodec.pack(genome, buffer);
+            assertFalse(buffer.hasRemaining());
+            buffer.flip();
+
+            assertEquals(genome, GenomeCodec.unpack(buffer, length));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDirectionsAreRejected() {
+        GenomeCodec.unpack(ByteBuffer.wrap(new byte[] {(byte) 0x9f}), 2);
+    }
+
+    @Test
+    public void decodedIndividualsKeepGenomesAndObjectiveValues() {
+        List<Individual> individuals = randomIndividuals(5);
+
+        List<Individual> decoded = GenomeCodec.decodeIndividuals(context, GenomeCodec.encodeIndividuals(individuals));
+
+        assertSameValues(individuals, decoded);
+    }
+
+    @Test
+    public void migrantsArriveOverTcp() throws Exception {
+        int[] ports = SocketMigrationTransport.findFreePorts(2);
+        try (MigrationTransport sender = new SocketMigrationTransport(0, ports);
+             MigrationTransport receiver = new SocketMigrationTransport(1, ports)) {
+            List<Individual> migrants = randomIndividuals(3);
+            sender.send(1, migrants);
+
+            assertSameValues(migrants, receiveWithin(receiver, migrants.size()));
+        }
+    }
+
+    @Test
+    public void migrantsArriveThroughADirectory() throws Exception {
+        Path directory = Files.createTempDirectory("migration");
+        try (MigrationTransport sender = new DirectoryMigrationTransport(0, directory);
+             MigrationTransport receiver = new DirectoryMigrationTransport(1, directory)) {
+            List<Individual> first = randomIndividuals(2);
+            List<Individual> second = randomIndividuals(3);
+            sender.send(1, first);
+            sender.send(1, second);
+
+            List<Individual> expected = new ArrayList<>(first);
+            expected.addAll(second);
+            assertSameValues(expected, receiver.receive(context));
+            assertEquals(Collections.emptyList(), receiver.receive(context));
+        }
+    }
+
+    private List<Individual> receiveWithin(MigrationTransport transport, int count) throws InterruptedException {
+        List<Individual> immigrants = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + RECEIVE_TIMEOUT_MILLISECONDS;
+        while (immigrants.size() < count && System.currentTimeMillis() < deadline) {
+            immigrants.addAll(transport.receive(context));
+            Thread.sleep(10);
+        }
+        return immigrants;
+    }
+
+    private void assertSameValues(List<Individual> expected, List<Individual> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getGenome(), actual.get(i).getGenome());
+            assertEquals(expected.get(i).getEdgeValue(), actual.get(i).getEdgeValue(), 0);
+            assertEquals(expected.get(i).getConnectivityMeasure(), actual.get(i).getConnectivityMeasure(), 0);
+            assertEquals(expected.get(i).getOverallDeviation(), actual.get(i).getOverallDeviation(), 0);
+        }
+    }
+
+    private List<Individual> randomIndividuals(int count) {
+        List<Individual> individuals = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Individual individual = new Individual(context, randomGenome(IMAGE_HEIGHT * IMAGE_WIDTH));
+            individual.setObjectiveValues(random.nextDouble(), random.nextDouble(), random.nextDouble());
+            individuals.add(individual);
+        }
+        return individuals;
+    }
+
+    private Genome randomGenome(int length) {
+        Genome genome = new Genome(length);
+        for (int i = 0; i < length; i++) {
+            genome.set(i, random.nextInt(NeighborWeights.DIRECTIONS + 1));
+        }
+        return genome;
+    }
+}
@@ -0,0 +1,144 @@
+package com.p3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that images are read with the same pixels in every raster layout, and that the image cache shares
+ * images by the contents of their files and stays within its size.
+ */
+public class ImageCacheTest {
+
+    private static final int IMAGE_HEIGHT = 9;
+    private static final int IMAGE_WIDTH = 13;
+
+    private Random random;
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        random = new Random(41);
+        directory = Files.createTempDirectory("images");
+        ImageCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        ImageCache.setMaxBytes(ImageCache.DEFAULT_MAX_BYTES);
+        ImageCache.clear();
+    }
+
+    @Test
+    public void pixelsMatchInEveryLayout() throws Exception {
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_BYTE_GRAY};
+        for (int type : types) {
+            BufferedImage written = randomImage(type);
+            String path = write(written, "image-" + type + ".png");
+            BufferedImage decoded = ImageIO.read(new File(path));
+
+            Image image = ImageReaderWriter.readImage(path);
+
+            assertEquals(IMAGE_HEIGHT, image.getImageHeight());
+            assertEquals(IMAGE_WIDTH, image.getImageWith());
+            for (int y = 0; y < IMAGE_HEIGHT; y++) {
+                for (int x = 0; x < IMAGE_WIDTH; x++) {
+                    int expected = decoded.getRGB(x, y) & 0xffffff;
+                    if (type == BufferedImage.TYPE_BYTE_GRAY) {
+                        int gray = decoded.getRaster().getSample(x, y, 0);
+                        expected = gray << 16 | gray << 8 | gray;
+                    }
+                    assertEquals(expected, image.getRGB(y * IMAGE_WIDTH + x));
+                }
+            }
+            assertArrayEquals(new int[] {IMAGE_HEIGHT, IMAGE_WIDTH}, ImageReaderWriter.getImageDimensions(path));
+        }
+    }
+
+    @Test
+    public void filesWithTheSameContentsShareOneImage() throws Exception {
+        BufferedImage written = randomImage(BufferedImage.TYPE_INT_RGB);
+        String path = write(written, "a.png");
+        String copy = write(written, "b.png");
+        String other = write(randomImage(BufferedImage.TYPE_INT_RGB), "c.png");
+
+        Image image = Image.load(path);
+
+        assertSame(image, Image.load(copy));
+        assertNotSame(image, Image.load(other));
+        assertEquals(2L * IMAGE_HEIGHT * IMAGE_WIDTH * Integer.BYTES, ImageCache.getSizeBytes());
+    }
+
+    @Test
+    public void leastRecentlyUsedImagesAreEvicted() throws Exception {
+        long imageBytes = (long) IMAGE_HEIGHT * IMAGE_WIDTH * Integer.BYTES;
+        ImageCache.setMaxBytes(2 * imageBytes);
+        String first = write(randomImage(BufferedImage.TYPE_INT_RGB), "first.png");
+        String second = write(randomImage(BufferedImage.TYPE_INT_RGB), "second.png");
+        String third = write(randomImage(BufferedImage.TYPE_INT_RGB), "third.png");
+
+        Image firstImage = Image.load(first);
+        Image secondImage = Image.load(second);
+        assertSame(firstImage, Image.load(first));
+        Image.load(third);
+
+        assertTrue(ImageCache.getSizeBytes() <= 2 * imageBytes);
+        assertSame(firstImage, Image.load(first));
+        assertNotSame(secondImage, Image.load(second));
+    }
+
+    @Test
+    public void imagesGrowWhenTheirWeightsAndTreeAreBuilt() throws Exception {
+        long imageBytes = (long) IMAGE_HEIGHT * IMAGE_WIDTH * Integer.BYTES;
+        String first = write(randomImage(BufferedImage.TYPE_INT_RGB), "first.png");
+        String second = write(randomImage(BufferedImage.TYPE_INT_RGB), "second.png");
+        Image firstImage = Image.load(first);
+        Image secondImage = Image.load(second);
+        assertEquals(2 * imageBytes, ImageCache.getSizeBytes());
+
+        NeighborWeights weights = firstImage.getNeighborWeights();
+        long weightsBytes = (long) weights.getPaddedSize() * (NeighborWeights.DIRECTIONS * Double.BYTES + Integer.BYTES);
+        assertTrue(ImageCache.getSizeBytes() >= 2 * imageBytes + weightsBytes);
+        long withWeights = ImageCache.getSizeBytes();
+        firstImage.getMinimumSpanningTree();
+        assertTrue(ImageCache.getSizeBytes() > withWeights);
+        assertEquals(firstImage.getSizeBytes() + imageBytes, ImageCache.getSizeBytes());
+
+        // Growing the first image past the largest size evicts the least recently used image, the second
+        Image.load(first);
+        ImageCache.setMaxBytes(firstImage.getSizeBytes() + imageBytes / 2);
+        assertEquals(firstImage.getSizeBytes(), ImageCache.getSizeBytes());
+        assertSame(firstImage, Image.load(first));
+        assertNotSame(secondImage, Image.load(second));
+    }
+
+    private BufferedImage randomImage(int type) {
+        BufferedImage image = new BufferedImage(IMAGE_WIDTH, IMAGE_HEIGHT, type);
+        for (int y = 0; y < IMAGE_HEIGHT; y++) {
+            for (int x = 0; x < IMAGE_WIDTH; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+
+    private String write(BufferedImage image, String name) throws Exception {
+        File file = directory.resolve(name).toFile();
+        ImageIO.write(image, "png", file);
+        return file.getPath();
+    }
+}
@@ -0,0 +1,106 @@
+package com.p3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that changing single genes through Individual.setGene gives the same segments and objective values
+ * as decoding and evaluating the changed genome from scratch.
+ */
+public class IncrementalSegmentationTest {
+
+    private static final int IMAGE_HEIGHT = 19;
+    private static final int IMAGE_WIDTH = 27;
+
+    private Random random;
+    private RunContext context;
+
+    @Before
+    public void setUp() {
+        random = new Random(7);
+        Parameters parameters = new Parameters();
+        parameters.image = TestImages.random(random, IMAGE_HEIGHT, IMAGE_WIDTH);
+        context = new RunContext(parameters);
+    }
+
+    @Test
+    public void singleGeneChangesMatchFullDecoding() {
+        Individual individual = new Individual(context, 8);
+        ObjectiveEvaluator.evaluate(individual);
+
+        for (int n = 0; n < 2000; n++) {
+            individual.setGene(random.nextInt(IMAGE_HEIGHT * IMAGE_WIDTH), random.nextInt(9));
+
+            if (n % 50 == 0) {
+                assertMatchesFullDecoding(individual);
+            }
+        }
+        assertMatchesFullDecoding(individual);
+    }
+
+    @Test
+    public void singleGeneChangesWithoutObjectiveValues() {
+        Individual individual = new Individual(context, new Genome(IMAGE_HEIGHT * IMAGE_WIDTH));
+
+        for (int n = 0; n < 3000; n++) {
+            individual.setGene(random.nextInt(IMAGE_HEIGHT * IMAGE_WIDTH), random.nextInt(9));
+        }
+        assertMatchesFullDecoding(individual);
+    }
+
+    @Test
+    public void segmentMapIndexesTheSegmentListAfterMerges() {
+        Individual individual = new Individual(context, new Genome(IMAGE_HEIGHT * IMAGE_WIDTH));
+        // Every pixel of the first row points right, merging the segments of the row one by one
+        for (int x = 0; x < IMAGE_WIDTH - 1; x++) {
+            individual.setGene(x, 1);
+        }
+        for (int n = 0; n < 200; n++) {
+            individual.setGene(random.nextInt(IMAGE_HEIGHT * IMAGE_WIDTH), 1 + random.nextInt(8));
+        }
+        Segmentation segmentation = individual.getSegmentation();
+        assertTrue(segmentation.getLabelCount() > segmentation.getSegmentCount());
+
+        List<Set<Integer>> segments = individual.getSegments();
+        Map<Integer, Integer> segmentMap = individual.getSegmentMap();
+        assertEquals(individual.getSegmentCount(), segments.size());
+        for (int p = 0; p < IMAGE_HEIGHT * IMAGE_WIDTH; p++) {
+            assertTrue(segments.get(segmentMap.get(p)).contains(p));
+        }
+    }
+
+    private void assertMatchesFullDecoding(Individual individual) {
+        Individual decoded = new Individual(context, individual.getGenome().copy());
+        assertEquals(decoded.getSegmentCount(), individual.getSegmentCount());
+        assertSamePartition(decoded.getLabels(), individual.getLabels());
+
+        Segmentation segmentation = individual.getSegmentation();
+        for (int s = 0; s < segmentation.getLabelCount(); s++) {
+            assertEquals(segmentation.getSegmentOffsets()[s + 1] - segmentation.getSegmentOffsets()[s], segmentation.getSegmentSize(s));
+        }
+
+        assertEquals(ObjectiveFunctions.edgeValue(decoded), individual.getEdgeValue(), 1e-6);
+        assertEquals(ObjectiveFunctions.connectivityMeasure(decoded), individual.getConnectivityMeasure(), 1e-9);
+        assertEquals(ObjectiveFunctions.overallDeviation(decoded), individual.getOverallDeviation(), 1e-6);
+    }
+
+    private void assertSamePartition(int[] expected, int[] actual) {
+        int[] mapping = new int[expected.length];
+        Arrays.fill(mapping, -1);
+        for (int i = 0; i < expected.length; i++) {
+            if (mapping[expected[i]] == -1) {
+                mapping[expected[i]] = actual[i];
+            }
+            assertEquals(mapping[expected[i]], actual[i]);
+        }
+    }
+}
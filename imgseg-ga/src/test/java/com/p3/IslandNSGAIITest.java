@@ -0,0 +1,59 @@
+package com.p3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the migration topologies of the island model, and that a run of several islands with migration
+ * ends with full, correctly evaluated populations.
+ */
+public class IslandNSGAIITest {
+
+    private static final int IMAGE_HEIGHT = 20;
+    private static final int IMAGE_WIDTH = 15;
+
+    private Parameters parameters;
+
+    @Before
+    public void setUp() {
+        parameters = TestImages.smallRunParameters(TestImages.random(19, IMAGE_HEIGHT, IMAGE_WIDTH));
+        parameters.segmentsUpperBound = 8;
+        parameters.generations = 6;
+        parameters.crossoverHandler = new TwoPointCrosser();
+    }
+
+    @Test
+    public void neighborsFollowTheTopology() {
+        assertArrayEquals(new int[] {1}, IslandNSGAII.getNeighbors(MigrationTopology.RING, 0, 3));
+        assertArrayEquals(new int[] {0}, IslandNSGAII.getNeighbors(MigrationTopology.RING, 2, 3));
+        assertArrayEquals(new int[] {0, 2, 3}, IslandNSGAII.getNeighbors(MigrationTopology.FULLY_CONNECTED, 1, 4));
+        assertEquals(0, IslandNSGAII.getNeighbors(MigrationTopology.FULLY_CONNECTED, 0, 1).length);
+    }
+
+    @Test
+    public void islandsKeepTheirPopulationSizeAndMigrantsKeepTheirValues() {
+        for (MigrationTopology topology : MigrationTopology.values()) {
+            parameters.islandCount = 3;
+            parameters.migrationInterval = 2;
+            parameters.migrantCount = 2;
+            parameters.migrationTopology = topology;
+            RunContext context = new RunContext(parameters);
+
+            Population population = IslandNSGAII.evolveIslands(context);
+
+            assertEquals(parameters.islandCount * parameters.populationSize, population.getIndividuals().size());
+            for (Individual individual : population.getIndividuals()) {
+                assertTrue(individual.isEvaluated());
+                double edgeValue = ObjectiveFunctions.edgeValue(individual);
+                double overallDeviation = ObjectiveFunctions.overallDeviation(individual);
+                assertEquals(edgeValue, individual.getEdgeValue(), 1e-9 * Math.max(1, edgeValue));
+                assertEquals(ObjectiveFunctions.connectivityMeasure(individual), individual.getConnectivityMeasure(), 1e-9);
+                assertEquals(overallDeviation, individual.getOverallDeviation(), 1e-9 * Math.max(1, overallDeviation));
+            }
+        }
+    }
+}
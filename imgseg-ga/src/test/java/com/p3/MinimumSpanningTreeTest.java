@@ -0,0 +1,104 @@
+package com.p3;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that cutting the minimum spanning tree of an image gives the requested number of segments.
+ */
+public class MinimumSpanningTreeTest {
+
+    private static final int IMAGE_HEIGHT = 21;
+    private static final int IMAGE_WIDTH = 17;
+
+    private RunContext context;
+
+    @Before
+    public void setUp() {
+        Parameters parameters = new Parameters();
+        parameters.image = TestImages.random(13, IMAGE_HEIGHT, IMAGE_WIDTH);
+        context = new RunContext(parameters);
+    }
+
+    @Test
+    public void cutsGiveTheRequestedNumberOfSegments() {
+        MinimumSpanningTree tree = context.getImage().getMinimumSpanningTree();
+        Random random = new Random(17);
+        for (MSTCutStrategy strategy : MSTCutStrategy.values()) {
+            for (int segmentCount = 1; segmentCount <= 40; segmentCount++) {
+                Individual individual = new Individual(context, tree.cut(segmentCount, strategy, random));
+                assertEquals(segmentCount, individual.getSegmentCount());
+            }
+        }
+    }
+
+    @Test
+    public void treeHasTheWeightOfKruskalsTree() {
+        NeighborWeights neighborWeights = context.getImage().getNeighborWeights();
+        Genome treeGenome = context.getImage().getMinimumSpanningTree().cut(1, MSTCutStrategy.RANDOM, new Random(1));
+        Genome seededGenome = PrimMST.build(neighborWeights, new int[] {IMAGE_WIDTH * 5 + 3});
+        double expectedWeight = getKruskalWeight(neighborWeights);
+        assertEquals(expectedWeight, getWeight(treeGenome, neighborWeights), 1e-9);
+        assertEquals(expectedWeight, getWeight(seededGenome, neighborWeights), 1e-9);
+    }
+
+    @Test
+    public void forestHasOneSegmentPerSeed() {
+        NeighborWeights neighborWeights = context.getImage().getNeighborWeights();
+        assertEquals(IMAGE_HEIGHT * IMAGE_WIDTH, new Individual(context, PrimMST.build(neighborWeights, new int[0])).getSegmentCount());
+        assertEquals(3, new Individual(context, PrimMST.build(neighborWeights, new int[] {0, 100, 200})).getSegmentCount());
+        assertEquals(2, new Individual(context, PrimMST.build(neighborWeights, new int[] {7, 7, 300})).getSegmentCount());
+    }
+
+    private double getWeight(Genome genome, NeighborWeights neighborWeights) {
+        double weight = 0.0;
+        for (int i = 0; i < genome.length(); i++) {
+            if (genome.get(i) != 0) {
+                weight += neighborWeights.getWeight(neighborWeights.toPadded(i), genome.get(i));
+            }
+        }
+        return weight;
+    }
+
+    private double getKruskalWeight(NeighborWeights neighborWeights) {
+        int pixelCount = IMAGE_HEIGHT * IMAGE_WIDTH;
+        List<double[]> edges = new ArrayList<>();
+        for (int i = 0; i < pixelCount; i++) {
+            for (int direction : new int[] {1, 4, 6, 8}) {
+                int neighbor = neighborWeights.getNeighbor(i, direction);
+                if (neighbor != -1) {
+                    edges.add(new double[] {neighborWeights.getWeight(neighborWeights.toPadded(i), direction), i, neighbor});
+                }
+            }
+        }
+        edges.sort((e1, e2) -> Double.compare(e1[0], e2[0]));
+
+        int[] parents = new int[pixelCount];
+        for (int i = 0; i < pixelCount; i++) {
+            parents[i] = i;
+        }
+        double weight = 0.0;
+        for (double[] edge : edges) {
+            int root1 = find(parents, (int) edge[1]);
+            int root2 = find(parents, (int) edge[2]);
+            if (root1 != root2) {
+                parents[root1] = root2;
+                weight += edge[0];
+            }
+        }
+        return weight;
+    }
+
+    private int find(int[] parents, int x) {
+        while (parents[x] != x) {
+            x = parents[x];
+        }
+        return x;
+    }
+}
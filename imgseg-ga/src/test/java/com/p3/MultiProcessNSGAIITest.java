@@ -0,0 +1,65 @@
+package com.p3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a run with every island in its own local process ends with the evaluated final populations of
+ * all islands, with migrants sent over TCP and through the work directory.
+ */
+public class MultiProcessNSGAIITest {
+
+    private static final int IMAGE_HEIGHT = 12;
+    private static final int IMAGE_WIDTH = 10;
+
+    private Parameters parameters;
+
+    @Before
+    public void setUp() {
+        parameters = TestImages.smallRunParameters(TestImages.random(23, IMAGE_HEIGHT, IMAGE_WIDTH));
+        parameters.imageName = "islands";
+        parameters.populationSize = 6;
+        parameters.generations = 3;
+        parameters.islandCount = 2;
+        parameters.migrationInterval = 1;
+        parameters.migrantCount = 2;
+        parameters.migrationTopology = MigrationTopology.RING;
+    }
+
+    @Test
+    public void islandsMigrateOverTcp() throws Exception {
+        evolveIslands(MultiProcessNSGAII.Transport.TCP);
+    }
+
+    @Test
+    public void islandsMigrateThroughTheWorkDirectory() throws Exception {
+        evolveIslands(MultiProcessNSGAII.Transport.DIRECTORY);
+    }
+
+    /**
+     * Runs the islands in their own processes, which fails if an island process does not exit with 0, and
+     * checks the merged population.
+     */
+    private void evolveIslands(MultiProcessNSGAII.Transport transport) throws Exception {
+        Path workDirectory = Files.createTempDirectory("islands");
+        RunContext context = new RunContext(parameters);
+
+        Population population = MultiProcessNSGAII.evolveIslands(context, transport, workDirectory);
+
+        assertEquals(parameters.islandCount * parameters.populationSize, population.getIndividuals().size());
+        for (Individual individual : population.getIndividuals()) {
+            assertTrue(individual.isEvaluated());
+            assertEquals(IMAGE_HEIGHT * IMAGE_WIDTH, individual.getGenome().length());
+            assertEquals(ObjectiveFunctions.connectivityMeasure(individual), individual.getConnectivityMeasure(), 1e-9);
+        }
+        for (int i = 0; i < parameters.islandCount; i++) {
+            assertTrue(Files.exists(workDirectory.resolve("island-" + i + ".population")));
+        }
+    }
+}
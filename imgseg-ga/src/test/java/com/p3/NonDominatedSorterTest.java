@@ -0,0 +1,81 @@
+package com.p3;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the ranks of NonDominatedSorter against a brute force non-dominated sorting.
+ */
+public class NonDominatedSorterTest {
+
+    @Test
+    public void matchesBruteForceWithTies() {
+        Random random = new Random(3);
+        for (int n = 1; n <= 200; n += 7) {
+            // Few distinct values, so that ties and duplicate rows are common
+            double[][] objectives = new double[n][NonDominatedSorter.OBJECTIVES];
+            for (int i = 0; i < n; i++) {
+                for (int m = 0; m < NonDominatedSorter.OBJECTIVES; m++) {
+                    objectives[i][m] = random.nextInt(6);
+                }
+            }
+            assertArrayEquals(bruteForceRanks(objectives), NonDominatedSorter.sort(objectives));
+        }
+    }
+
+    @Test
+    public void matchesBruteForceWithDistinctValues() {
+        Random random = new Random(5);
+        double[][] objectives = new double[500][NonDominatedSorter.OBJECTIVES];
+        for (int i = 0; i < objectives.length; i++) {
+            for (int m = 0; m < NonDominatedSorter.OBJECTIVES; m++) {
+                objectives[i][m] = random.nextGaussian();
+            }
+        }
+        assertArrayEquals(bruteForceRanks(objectives), NonDominatedSorter.sort(objectives));
+    }
+
+    private int[] bruteForceRanks(double[][] objectives) {
+        int n = objectives.length;
+        int[] ranks = new int[n];
+        boolean[] assigned = new boolean[n];
+        int remaining = n;
+        for (int rank = 0; remaining > 0; rank++) {
+            boolean[] isInFront = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                if (assigned[i]) {
+                    continue;
+                }
+                isInFront[i] = true;
+                for (int j = 0; j < n; j++) {
+                    if (!assigned[j] && dominates(objectives[j], objectives[i])) {
+                        isInFront[i] = false;
+                        break;
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (isInFront[i]) {
+                    ranks[i] = rank;
+                    assigned[i] = true;
+                    remaining--;
+                }
+            }
+        }
+        return ranks;
+    }
+
+    private boolean dominates(double[] values1, double[] values2) {
+        boolean isBetter = false;
+        for (int m = 0; m < values1.length; m++) {
+            if (values1[m] > values2[m]) {
+                return false;
+            }
+            isBetter |= values1[m] < values2[m];
+        }
+        return isBetter;
+    }
+}
@@ -0,0 +1,169 @@
+package com.p3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that ObjectiveEvaluator computes the same objective values as the separate functions in ObjectiveFunctions.
+ */
+public class ObjectiveEvaluatorTest {
+
+    private static final int IMAGE_HEIGHT = 23;
+    private static final int IMAGE_WIDTH = 31;
+
+    private Random random;
+    private RunContext context;
+
+    @Before
+    public void setUp() {
+        random = new Random(42);
+
+        // Blocks of similar colors with some noise, so that the MSTs find meaningful segments
+        int[] pixels = new int[IMAGE_HEIGHT * IMAGE_WIDTH];
+        for (int y = 0; y < IMAGE_HEIGHT; y++) {
+            for (int x = 0; x < IMAGE_WIDTH; x++) {
+                int base = ((x / 8) * 70 + (y / 6) * 40) % 200;
+                int red = base + random.nextInt(20);
+                int green = (base * 3) % 200 + random.nextInt(20);
+                int blue = 255 - base - random.nextInt(20);
+                pixels[y * IMAGE_WIDTH + x] = (red << 16) | (green << 8) | blue;
+            }
+        }
+        Parameters parameters = new Parameters();
+        parameters.image = new Image(pixels, IMAGE_HEIGHT, IMAGE_WIDTH);
+        context = new RunContext(parameters);
+    }
+
+    @Test
+    public void matchesObjectiveFunctionsForMSTIndividuals() {
+        for (int numTrees = 1; numTrees <= 40; numTrees += 3) {
+            assertSameObjectiveValues(new Individual(context, numTrees));
+        }
+    }
+
+    @Test
+    public void matchesObjectiveFunctionsForRandomGenomes() {
+        for (int n = 0; n < 20; n++) {
+            Genome genome = new Genome(IMAGE_HEIGHT * IMAGE_WIDTH);
+            for (int i = 0; i < genome.length(); i++) {
+                // Mostly sparse genomes, so that both small and large segments occur
+                genome.set(i, random.nextInt(4) == 0 ? 0 : random.nextInt(9));
+            }
+            assertSameObjectiveValues(new Individual(context, genome));
+        }
+    }
+
+    @Test
+    public void matchesObjectiveFunctionsForSinglePixelSegments() {
+        assertSameObjectiveValues(new Individual(context, new Genome(IMAGE_HEIGHT * IMAGE_WIDTH)));
+    }
+
+    @Test
+    public void cachedValuesAreKeptUntilTheGenomeChanges() {
+        List<Individual> individuals = new ArrayList<>();
+        for (int numTrees = 1; numTrees <= 10; numTrees++) {
+            individuals.add(new Individual(context, numTrees));
+        }
+        ObjectiveFunctions.getParetoFronts(individuals);
+
+        long evaluationCount = context.getEvaluationCount();
+        ObjectiveFunctions.getParetoFronts(individuals);
+        assertEquals(evaluationCount, context.getEvaluationCount());
+
+        // Changing the genome directly, without setGenome, must still invalidate the cached values
+        Individual individual = individuals.get(0);
+        Genome genome = individual.getGenome();
+        for (int i = 0; i < genome.length(); i += 7) {
+            genome.set(i, 0);
+        }
+        assertSameObjectiveValues(individual);
+        assertEquals(evaluationCount + 1, context.getEvaluationCount());
+    }
+
+    @Test
+    public void parallelEvaluationDoesNotDependOnThreadCount() {
+        List<Individual> individuals = new ArrayList<>();
+        for (int numTrees = 1; numTrees <= 30; numTrees++) {
+            individuals.add(new Individual(context, numTrees));
+        }
+
+        Parameters parameters = context.getParameters().copy();
+        parameters.threads = 1;
+        PopulationEvaluator.evaluate(new RunContext(parameters), individuals);
+        double[][] expected = NonDominatedSorter.getObjectiveMatrix(individuals);
+
+        parameters.threads = 4;
+        parameters.evaluationChunkSize = 1;
+        for (Individual individual : individuals) {
+            individual.resetObjectiveValues();
+        }
+        PopulationEvaluator.evaluate(new RunContext(parameters), individuals);
+        double[][] actual = NonDominatedSorter.getObjectiveMatrix(individuals);
+
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual[i], 0.0);
+        }
+    }
+
+    @Test
+    public void concurrentRunsOnDifferentImagesDoNotInterfere() throws Exception {
+        // A second run on an image of another size, evaluated at the same time as the first
+        int[] otherPixels = new int[(IMAGE_HEIGHT + 5) * (IMAGE_WIDTH - 4)];
+        for (int i = 0; i < otherPixels.length; i++) {
+            otherPixels[i] = random.nextInt(0x1000000);
+        }
+        Parameters otherParameters = new Parameters();
+        otherParameters.image = new Image(otherPixels, IMAGE_HEIGHT + 5, IMAGE_WIDTH - 4);
+        otherParameters.threads = 2;
+        otherParameters.evaluationChunkSize = 1;
+        RunContext otherContext = new RunContext(otherParameters);
+
+        List<Individual> individuals = new ArrayList<>();
+        List<Individual> otherIndividuals = new ArrayList<>();
+        for (int numTrees = 1; numTrees <= 20; numTrees++) {
+            individuals.add(new Individual(context, numTrees));
+            otherIndividuals.add(new Individual(otherContext, numTrees));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> run = executor.submit(() -> PopulationEvaluator.evaluate(context, individuals));
+            Future<?> otherRun = executor.submit(() -> PopulationEvaluator.evaluate(otherContext, otherIndividuals));
+            run.get();
+            otherRun.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(individuals.size(), context.getEvaluationCount());
+        assertEquals(otherIndividuals.size(), otherContext.getEvaluationCount());
+        for (Individual individual : individuals) {
+            assertSameObjectiveValues(individual);
+        }
+        for (Individual individual : otherIndividuals) {
+            assertSameObjectiveValues(individual);
+        }
+    }
+
+    private void assertSameObjectiveValues(Individual individual) {
+        double edgeValue = ObjectiveFunctions.edgeValue(individual);
+        double connectivityMeasure = ObjectiveFunctions.connectivityMeasure(individual);
+        double overallDeviation = ObjectiveFunctions.overallDeviation(individual);
+
+        ObjectiveEvaluator.evaluate(individual);
+
+        assertEquals(edgeValue, individual.getEdgeValue(), 1e-9 * Math.max(1, edgeValue));
+        assertEquals(connectivityMeasure, individual.getConnectivityMeasure(), 1e-9);
+        assertEquals(overallDeviation, individual.getOverallDeviation(), 1e-9 * Math.max(1, overallDeviation));
+    }
+}
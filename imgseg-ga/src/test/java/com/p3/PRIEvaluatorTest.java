@@ -0,0 +1,127 @@
+package com.p3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the PRI evaluator against a direct port of comparePics of the Python evaluator, which scans the
+ * neighborhood of every black pixel, and checks how the scores of pairs are combined.
+ */
+public class PRIEvaluatorTest {
+
+    private static final int IMAGE_HEIGHT = 37;
+    private static final int IMAGE_WIDTH = 52;
+
+    @Test
+    public void compareMatchesDirectScan() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            int[] a = randomGrayValues(random);
+            int[] b = randomGrayValues(random);
+            int[] windowMinimums = PRIEvaluator.getWindowMinimums(b, IMAGE_WIDTH, IMAGE_HEIGHT);
+
+            assertEquals(comparePics(a, b), PRIEvaluator.compare(a, b, windowMinimums, IMAGE_WIDTH, IMAGE_HEIGHT), 0);
+        }
+    }
+
+    @Test
+    public void scoreIsLowerDirectionOfBestGroundTruth() {
+        Random random = new Random(5);
+        Parameters parameters = new Parameters();
+        parameters.image = new Image(new int[IMAGE_HEIGHT * IMAGE_WIDTH], IMAGE_HEIGHT, IMAGE_WIDTH);
+        parameters.threads = 3;
+        RunContext context = new RunContext(parameters);
+        int[][] results = {randomGrayValues(random), randomGrayValues(random)};
+        int[][] groundTruths = {randomGrayValues(random), randomGrayValues(random), randomGrayValues(random)};
+
+        double[] scores = PRIEvaluator.evaluateImages(context, toImages(results), toImages(groundTruths));
+
+        double[] expected = new double[results.length];
+        for (int r = 0; r < results.length; r++) {
+            for (int[] groundTruth : groundTruths) {
+                double score = Math.min(comparePics(groundTruth, results[r]), comparePics(results[r], groundTruth));
+                expected[r] = Math.max(expected[r], score);
+            }
+        }
+        assertArrayEquals(expected, scores, 0);
+    }
+
+    @Test
+    public void individualIsScoredByItsOutline() {
+        Parameters parameters = new Parameters();
+        parameters.image = new Image(new int[IMAGE_HEIGHT * IMAGE_WIDTH], IMAGE_HEIGHT, IMAGE_WIDTH);
+        Individual individual = new Individual(new RunContext(parameters), 8);
+        int[] outline = PRIEvaluator.getOutlineValues(individual);
+
+        double[] scores = PRIEvaluator.evaluate(Arrays.asList(individual), toImages(new int[][] {outline}));
+
+        assertArrayEquals(new double[] {1}, scores, 0);
+    }
+
+    /**
+     * Returns random gray values, mostly white with black borders, and some mid-gray values as left by
+     * the compression of the images.
+     */
+    private static int[] randomGrayValues(Random random) {
+        int[] values = new int[IMAGE_HEIGHT * IMAGE_WIDTH];
+        for (int i = 0; i < values.length; i++) {
+            int choice = random.nextInt(10);
+            values[i] = choice < 6 ? 255 - random.nextInt(20) : choice < 8 ? random.nextInt(30) : random.nextInt(256);
+        }
+        return values;
+    }
+
+    private static List<Image> toImages(int[][] grayValues) {
+        Image[] images = new Image[grayValues.length];
+        for (int i = 0; i < grayValues.length; i++) {
+            int[] pixels = new int[grayValues[i].length];
+            for (int j = 0; j < pixels.length; j++) {
+                pixels[j] = grayValues[i][j] << 16 | 0x7f7f;
+            }
+            images[i] = new Image(pixels, IMAGE_HEIGHT, IMAGE_WIDTH);
+        }
+        return Arrays.asList(images);
+    }
+
+    /**
+     * comparePics of the Python evaluator, ported line by line.
+     */
+    private static double comparePics(int[] a, int[] b) {
+        int counter = 0;
+        int numberOfBlackPixels = 0;
+        for (int y = 0; y < IMAGE_HEIGHT; y++) {
+            for (int x = 0; x < IMAGE_WIDTH; x++) {
+                int value = a[y * IMAGE_WIDTH + x];
+                if (value < PRIEvaluator.BLACK_VALUE_THRESHOLD) {
+                    numberOfBlackPixels++;
+                    boolean correctFound = false;
+                    for (int dy = -PRIEvaluator.PIXEL_RANGE_CHECK; dy <= PRIEvaluator.PIXEL_RANGE_CHECK && !correctFound; dy++) {
+                        for (int dx = -PRIEvaluator.PIXEL_RANGE_CHECK; dx <= PRIEvaluator.PIXEL_RANGE_CHECK; dx++) {
+                            int y2 = y + dy;
+                            int x2 = x + dx;
+                            if (y2 < 0 || x2 < 0 || y2 >= IMAGE_HEIGHT || x2 >= IMAGE_WIDTH) {
+                                continue;
+                            }
+                            int other = b[y2 * IMAGE_WIDTH + x2];
+                            if (value - PRIEvaluator.COLOR_VALUE_SLACK_RANGE < other
+                                && other < value + PRIEvaluator.COLOR_VALUE_SLACK_RANGE) {
+                                correctFound = true;
+                                break;
+                            }
+                        }
+                    }
+                    if (correctFound) {
+                        counter++;
+                    }
+                }
+            }
+        }
+        return (double) counter / Math.max(numberOfBlackPixels, 1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.p3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Checks the image pyramid of the coarse to fine NSGA-II: downsampling, the generations of the levels, that
+ * projected individuals keep their segments, and that the coarse levels end with a population at full resolution.
+ */
+public class PyramidNSGAIITest {
+
+    @Test
+    public void downsampleAveragesBlocks() {
+        // 3 x 2 pixels, so the last column averages only two pixels
+        int[] pixels = {
+            0x000000, 0x040404, 0xff0000,
+            0x080808, 0x0c0c0c, 0x00ff00,
+        };
+        Image image = new Image(pixels, 2, 3).downsample();
+
+        assertEquals(1, image.getImageHeight());
+        assertEquals(2, image.getImageWith());
+        assertArrayEquals(new int[] {0x060606, 0x808000}, image.getPixels());
+    }
+
+    @Test
+    public void finerLevelsGetHalfTheGenerations() {
+        assertArrayEquals(new int[] {12, 25, 50}, PyramidNSGAII.getLevelGenerations(50, 3));
+        assertArrayEquals(new int[] {1, 1, 2}, PyramidNSGAII.getLevelGenerations(2, 3));
+        assertArrayEquals(new int[] {7}, PyramidNSGAII.getLevelGenerations(7, 1));
+    }
+
+    @Test
+    public void projectionKeepsTheSegments() {
+        Parameters parameters = new Parameters();
+        parameters.image = TestImages.random(3, 17, 23);
+        parameters.threads = 1;
+        RunContext context = new RunContext(parameters);
+        parameters.image = parameters.image.downsample();
+        RunContext coarseContext = new RunContext(parameters);
+
+        for (int numTrees : new int[] {1, 5, 12}) {
+            Individual coarse = new Individual(coarseContext, numTrees);
+            Individual projected = PyramidNSGAII.project(coarse, context);
+
+            assertSame(context, projected.getContext());
+            assertEquals(coarse.getSegmentCount(), projected.getSegmentCount());
+            // Every coarse segment maps to exactly one projected segment
+            int[] coarseLabels = coarse.getLabels();
+            int[] labels = projected.getLabels();
+            int coarseWidth = coarseContext.getImage().getImageWith();
+            Map<Integer, Integer> labelMap = new HashMap<>();
+            for (int y = 0; y < 17; y++) {
+                for (int x = 0; x < 23; x++) {
+                    int coarseLabel = coarseLabels[(y / 2) * coarseWidth + x / 2];
+                    Integer label = labelMap.putIfAbsent(coarseLabel, labels[y * 23 + x]);
+                    if (label != null) {
+                        assertEquals(label.intValue(), labels[y * 23 + x]);
+                    }
+                }
+            }
+            assertEquals(labelMap.size(), labelMap.values().stream().distinct().count());
+        }
+    }
+
+    @Test
+    public void coarseLevelsEndAtFullResolution() {
+        // Downsampled once only, since the next level would be smaller than the smallest level
+        Parameters parameters = TestImages.smallRunParameters(TestImages.random(8, 34, 40));
+        parameters.generations = 4;
+        parameters.pyramidLevels = 3;
+
+        assertEquals(2, PyramidNSGAII.getPyramid(parameters.image, parameters.pyramidLevels).size());
+        Population population = PyramidNSGAII.evolveCoarseLevels(new RunContext(parameters));
+
+        assertSame(parameters.image, population.getContext().getImage());
+        assertEquals(2, population.getContext().getParameters().generations);
+        List<Individual> individuals = population.getIndividuals();
+        assertEquals(parameters.populationSize, individuals.size());
+        for (Individual individual : individuals) {
+            assertTrue(individual.isEvaluated());
+            assertEquals(40 * 34, individual.getGenome().length());
+        }
+    }
+}
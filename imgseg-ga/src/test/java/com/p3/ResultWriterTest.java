@@ -0,0 +1,76 @@
+package com.p3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+/**
+ * Checks that the result writer writes both images of every solution, replaces the results of an earlier run,
+ * and completes the future of a run only when all its images have been written.
+ */
+public class ResultWriterTest {
+
+    private static final int IMAGE_HEIGHT = 10;
+    private static final int IMAGE_WIDTH = 8;
+
+    @Test
+    public void imagesOfEverySolutionAreWrittenAndOldResultsDeleted() throws Exception {
+        Parameters parameters = new Parameters();
+        parameters.image = TestImages.random(31, IMAGE_HEIGHT, IMAGE_WIDTH);
+        RunContext context = new RunContext(parameters);
+        List<Individual> individuals = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            individuals.add(new Individual(context, 1 + i));
+        }
+
+        Path directory = Files.createTempDirectory("results");
+        Files.createDirectories(directory.resolve("type_1"));
+        Files.write(directory.resolve("type_1").resolve("99.jpg"), new byte[] {1});
+
+        ResultWriter.writeResults(directory.toString(), individuals).join();
+
+        for (String type : new String[] {"type_1", "type_2"}) {
+            try (Stream<Path> files = Files.list(directory.resolve(type))) {
+                assertEquals(individuals.size(), files.count());
+            }
+            for (int i = 0; i < individuals.size(); i++) {
+                assertTrue(Files.size(directory.resolve(type).resolve(i + ".jpg")) > 0);
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.anyMatch(path -> path.getFileName().toString().contains(".deleted-")));
+        }
+    }
+
+    @Test
+    public void failedWritesAreReported() throws Exception {
+        Parameters parameters = new Parameters();
+        parameters.image = TestImages.random(31, IMAGE_HEIGHT, IMAGE_WIDTH);
+        Individual individual = new Individual(new RunContext(parameters), 2);
+        // The parent of the image files is a file, not a directory
+        Path file = Files.createTempFile("results", ".jpg");
+        String path = file.resolve("0.jpg").toString();
+
+        CompletableFuture<Void> job = CompletableFuture.runAsync(
+            () -> ImageReaderWriter.writeImagesWithSegments(path, path, individual));
+
+        try {
+            job.join();
+            fail("The write should have failed");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+        }
+    }
+}
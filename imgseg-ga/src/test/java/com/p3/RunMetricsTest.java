@@ -0,0 +1,106 @@
+package com.p3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the metrics of a run have one row per generation, with the evaluations of the generation and
+ * time in every phase, and that they are written as CSV or JSON by the extension of the metrics file.
+ */
+public class RunMetricsTest {
+
+    private static final int IMAGE_HEIGHT = 14;
+    private static final int IMAGE_WIDTH = 11;
+    private static final int GENERATIONS = 3;
+
+    private Parameters parameters;
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        parameters = TestImages.smallRunParameters(TestImages.random(17, IMAGE_HEIGHT, IMAGE_WIDTH));
+        parameters.imageName = "metrics";
+        parameters.threads = 2;
+        directory = Files.createTempDirectory("metrics");
+    }
+
+    @Test
+    public void csvHasOneRowPerGeneration() throws Exception {
+        parameters.metricsFile = directory.resolve("run.csv").toString();
+        RunContext context = new RunContext(parameters);
+        long[] evaluations = evolve(context);
+        context.getMetrics().write();
+
+        List<String> lines = Files.readAllLines(directory.resolve("run.csv"));
+        assertEquals(GENERATIONS + 1, lines.size());
+        String[] header = lines.get(0).split(",");
+        assertEquals(9 + 2 * RunMetrics.Phase.values().length, header.length);
+        for (int g = 1; g <= GENERATIONS; g++) {
+            String[] row = lines.get(g).split(",");
+            assertEquals(header.length, row.length);
+            assertEquals("metrics", row[0]);
+            assertEquals(Integer.toString(g), row[4]);
+            assertEquals(Long.toString(evaluations[g - 1]), row[6]);
+            assertTrue(Long.parseLong(row[8]) >= 0);
+            for (RunMetrics.Phase phase : RunMetrics.Phase.values()) {
+                int column = 9 + 2 * phase.ordinal();
+                assertEquals(phase.name().toLowerCase() + "_ms", header[column]);
+                assertTrue(phase + " in generation " + g, Double.parseDouble(row[column]) >= 0);
+            }
+            assertTrue(Double.parseDouble(row[9 + 2 * RunMetrics.Phase.EVALUATION.ordinal()]) > 0);
+        }
+    }
+
+    @Test
+    public void jsonHasOneObjectPerGeneration() throws Exception {
+        parameters.metricsFile = directory.resolve("run.json").toString();
+        RunContext context = new RunContext(parameters);
+        evolve(context);
+        context.getMetrics().write();
+
+        String json = new String(Files.readAllBytes(directory.resolve("run.json")), "UTF-8");
+        assertTrue(json.startsWith("{"));
+        assertTrue(json.contains("\"width\": " + IMAGE_WIDTH));
+        for (int g = 1; g <= GENERATIONS; g++) {
+            assertTrue(json.contains("{\"generation\": " + g + ","));
+        }
+        assertEquals(GENERATIONS, json.split("\"survivor_selection\"", -1).length - 1);
+    }
+
+    @Test
+    public void nothingIsMeasuredWithoutMetricsFile() {
+        RunContext context = new RunContext(parameters);
+        evolve(context);
+        context.getMetrics().write();
+
+        assertFalse(context.getMetrics().isEnabled());
+        assertEquals(0, directory.toFile().list().length);
+    }
+
+    /**
+     * Evolves a new population for some generations, measuring every generation.
+     *
+     * @return The number of full evaluations of every generation.
+     */
+    private static long[] evolve(RunContext context) {
+        Population population = new Population(context);
+        PopulationEvaluator.evaluate(context, population.getIndividuals());
+        long[] evaluations = new long[GENERATIONS];
+        for (int g = 1; g <= GENERATIONS; g++) {
+            long evaluationCount = context.getEvaluationCount();
+            context.getMetrics().startGeneration(g);
+            population = NSGAII.evolve(population);
+            context.getMetrics().endGeneration();
+            evaluations[g - 1] = context.getEvaluationCount() - evaluationCount;
+        }
+        return evaluations;
+    }
+}
@@ -0,0 +1,73 @@
+package com.p3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the borders drawn by the segment renderer, that the overlay and the outline image agree,
+ * and that rendering in parallel bands gives the same images as rendering on one thread.
+ */
+public class SegmentRendererTest {
+
+    private static final int IMAGE_HEIGHT = 70;
+    private static final int IMAGE_WIDTH = 23;
+
+    private Parameters parameters;
+
+    @Before
+    public void setUp() {
+        parameters = new Parameters();
+        parameters.image = TestImages.random(37, IMAGE_HEIGHT, IMAGE_WIDTH);
+    }
+
+    @Test
+    public void singleSegmentHasBordersOnlyAlongTheEdges() {
+        parameters.threads = 1;
+        RunContext context = new RunContext(parameters);
+        // Every pixel points left, and the pixels of the first column point up
+        Genome genome = new Genome(IMAGE_HEIGHT * IMAGE_WIDTH);
+        for (int y = 0; y < IMAGE_HEIGHT; y++) {
+            for (int x = 0; x < IMAGE_WIDTH; x++) {
+                genome.set(y * IMAGE_WIDTH + x, x > 0 ? 2 : y > 0 ? 3 : 0);
+            }
+        }
+        Individual individual = new Individual(context, genome);
+        assertEquals(1, individual.getSegmentCount());
+
+        BufferedImage outline = SegmentRenderer.render(individual)[1];
+
+        for (int y = 0; y < IMAGE_HEIGHT; y++) {
+            for (int x = 0; x < IMAGE_WIDTH; x++) {
+                boolean border = x <= 1 || y <= 1 || x == IMAGE_WIDTH - 1 || y == IMAGE_HEIGHT - 1;
+                int expected = border ? SegmentRenderer.BORDER_COLOR_OUTLINE : SegmentRenderer.BACKGROUND_COLOR_OUTLINE;
+                assertEquals("Pixel " + x + ", " + y, expected, outline.getRGB(x, y) & 0xffffff);
+            }
+        }
+    }
+
+    @Test
+    public void overlayAndOutlineAgreeAndBandsMatchSingleThread() {
+        parameters.threads = 1;
+        Individual individual = new Individual(new RunContext(parameters), 12);
+        parameters.threads = 4;
+        Individual parallelIndividual = new Individual(new RunContext(parameters), individual.getGenome().copy());
+
+        BufferedImage[] images = SegmentRenderer.render(individual);
+        BufferedImage[] parallelImages = SegmentRenderer.render(parallelIndividual);
+
+        int[] pixels = parameters.image.getPixels();
+        int[] overlay = images[0].getRGB(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT, null, 0, IMAGE_WIDTH);
+        int[] outline = images[1].getRGB(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT, null, 0, IMAGE_WIDTH);
+        for (int i = 0; i < pixels.length; i++) {
+            boolean border = (outline[i] & 0xffffff) == SegmentRenderer.BORDER_COLOR_OUTLINE;
+            assertEquals(border ? SegmentRenderer.BORDER_COLOR_OVERLAY : pixels[i], overlay[i] & 0xffffff);
+        }
+        assertArrayEquals(overlay, parallelImages[0].getRGB(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT, null, 0, IMAGE_WIDTH));
+        assertArrayEquals(outline, parallelImages[1].getRGB(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT, null, 0, IMAGE_WIDTH));
+    }
+}
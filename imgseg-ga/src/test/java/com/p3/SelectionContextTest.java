@@ -0,0 +1,97 @@
+package com.p3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that survivor selection through the selection context picks the same survivors as sorting the
+ * population into fronts and computing crowding distances per front, and that the selection context it
+ * derives for the survivors equals one computed from scratch.
+ */
+public class SelectionContextTest {
+
+    private Random random;
+    private Parameters parameters;
+    private RunContext context;
+
+    @Before
+    public void setUp() {
+        random = new Random(17);
+        parameters = new Parameters();
+        parameters.image = new Image(new int[16], 4, 4);
+    }
+
+    @Test
+    public void survivorsMatchFrontsAndCrowdingDistances() {
+        for (int n = 0; n < 50; n++) {
+            int count = 20 + random.nextInt(30);
+            parameters.populationSize = 1 + random.nextInt(count);
+            context = new RunContext(parameters);
+            List<Individual> individuals = randomIndividuals(count);
+
+            Population survivors = SurvivorSelector.selectSurvivors(new Population(context, individuals));
+
+            assertSameIndividuals(referenceSurvivors(individuals), survivors.getIndividuals());
+            assertContextsEqual(SelectionContext.of(survivors.getIndividuals()), survivors.getSelectionContext());
+        }
+    }
+
+    private List<Individual> randomIndividuals(int count) {
+        List<Individual> individuals = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Individual individual = new Individual(context, new Genome(16));
+            // Few distinct values, so that fronts with several individuals and ties are common
+            individual.setObjectiveValues(random.nextInt(5), random.nextInt(5), random.nextInt(5));
+            individuals.add(individual);
+        }
+        return individuals;
+    }
+
+    private List<Individual> referenceSurvivors(List<Individual> individuals) {
+        int populationSize = context.getParameters().populationSize;
+        List<Individual> survivors = new ArrayList<>();
+        List<List<Individual>> paretoFronts = ObjectiveFunctions.getParetoFronts(individuals);
+        int paretoFront = 0;
+        while (survivors.size() + paretoFronts.get(paretoFront).size() <= populationSize) {
+            survivors.addAll(paretoFronts.get(paretoFront));
+            paretoFront++;
+            if (survivors.size() == populationSize) {
+                return survivors;
+            }
+        }
+        List<Individual> nextParetoFront = paretoFronts.get(paretoFront);
+        Map<Individual, Double> crowdingDistances = ObjectiveFunctions.getCrowdingDistances(nextParetoFront);
+        List<Individual> sortedFront = nextParetoFront.stream()
+            .sorted(Comparator.comparingDouble(crowdingDistances::get).reversed())
+            .collect(Collectors.toList());
+        survivors.addAll(sortedFront.subList(0, populationSize - survivors.size()));
+        return survivors;
+    }
+
+    private void assertSameIndividuals(List<Individual> expected, List<Individual> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+        }
+    }
+
+    private void assertContextsEqual(SelectionContext expected, SelectionContext actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getFrontCount(), actual.getFrontCount());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.getIndividual(i), actual.getIndividual(i));
+            assertEquals(expected.getRank(i), actual.getRank(i));
+            assertEquals(expected.getCrowdingDistance(i), actual.getCrowdingDistance(i), 0.0);
+        }
+    }
+}
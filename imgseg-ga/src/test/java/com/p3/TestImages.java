@@ -0,0 +1,65 @@
+package com.p3;
+
+import java.util.Random;
+
+/**
+ * The images and parameters shared by the tests: images of random pixels, and the parameters of a small,
+ * fast run on such an image.
+ */
+final class TestImages {
+
+    // Private constructor to prevent instantiation
+    private TestImages() {
+        throw new UnsupportedOperationException("TestImages is a utility class and should not be instantiated.");
+    }
+
+    /**
+     * Returns an image of random pixels.
+     *
+     * @param seed The seed of the pixels.
+     * @param imageHeight The height of the image.
+     * @param imageWidth The width of the image.
+     * @return The image.
+     */
+    static Image random(long seed, int imageHeight, int imageWidth) {
+        return random(new Random(seed), imageHeight, imageWidth);
+    }
+
+    /**
+     * Returns an image of random pixels, for tests that keep drawing from the same source of randomness.
+     *
+     * @param random The source of the pixels.
+     * @param imageHeight The height of the image.
+     * @param imageWidth The width of the image.
+     * @return The image.
+     */
+    static Image random(Random random, int imageHeight, int imageWidth) {
+        int[] pixels = new int[imageHeight * imageWidth];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        return new Image(pixels, imageHeight, imageWidth);
+    }
+
+    /**
+     * Returns the parameters of a small run on one thread: a population of 8 individuals with 2 to 6 segments,
+     * tournament selection, one point crossover and Studass mutation. Tests change what they need afterwards.
+     *
+     * @param image The image of the run.
+     * @return The parameters.
+     */
+    static Parameters smallRunParameters(Image image) {
+        Parameters parameters = new Parameters();
+        parameters.image = image;
+        parameters.segmentsLowerBound = 2;
+        parameters.segmentsUpperBound = 6;
+        parameters.populationSize = 8;
+        parameters.parentSelector = new TournamentParentSelector();
+        parameters.tournamentSize = 3;
+        parameters.crossoverHandler = new OnePointCrosser();
+        parameters.mutationProbability = 0.9;
+        parameters.mutationHandler = new StudassMutator();
+        parameters.threads = 1;
+        return parameters;
+    }
+}